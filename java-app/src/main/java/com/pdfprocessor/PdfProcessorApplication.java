@@ -1,14 +1,20 @@
 package com.pdfprocessor;
 
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * PDF Processor UI Application
- * Main Spring Boot application class for the Vaadin UI
+ * Main Spring Boot application class for the Vaadin UI.
+ * Server push is enabled so analysis progress reaches open views without polling.
  */
 @SpringBootApplication
-public class PdfProcessorApplication {
+@EnableScheduling
+@Push
+public class PdfProcessorApplication implements AppShellConfigurator {
 
     public static void main(String[] args) {
         SpringApplication.run(PdfProcessorApplication.class, args);
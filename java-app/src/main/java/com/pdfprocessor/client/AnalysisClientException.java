@@ -0,0 +1,26 @@
+package com.pdfprocessor.client;
+
+/**
+ * Thrown when a call to the Python analysis service fails, times out or returns an error status
+ */
+public class AnalysisClientException extends RuntimeException {
+
+    private final int statusCode;
+
+    public AnalysisClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+    }
+
+    public AnalysisClientException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * HTTP status returned by the service, or -1 if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
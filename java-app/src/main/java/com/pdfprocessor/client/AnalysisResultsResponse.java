@@ -0,0 +1,28 @@
+package com.pdfprocessor.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Response of GET /results/{documentId}/{analysisType}
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AnalysisResultsResponse(List<PageResult> results, int count) {
+
+    /**
+     * One result image written by the analysis service
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record PageResult(
+        @JsonProperty("page_number") Integer pageNumber,
+        @JsonProperty("file_path") String filePath,
+        @JsonProperty("file_size") Long fileSize,
+        @JsonProperty("created_at") String createdAt) {
+    }
+
+    public List<PageResult> results() {
+        return results != null ? results : List.of();
+    }
+}
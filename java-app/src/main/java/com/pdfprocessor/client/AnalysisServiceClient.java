@@ -0,0 +1,140 @@
+package com.pdfprocessor.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking client for the Python analysis service.
+ * One shared HttpClient keeps connections alive between calls. Every call has a connect timeout,
+ * a read timeout (until the response headers arrive) and a total deadline covering the body,
+ * and the number of calls in flight is capped so a slow service cannot tie up unbounded threads.
+ * A call that misses its total deadline is cancelled, which aborts the exchange before its slot is given back.
+ */
+@Component
+public class AnalysisServiceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisServiceClient.class);
+
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration analyzeReadTimeout;
+    private final Duration analyzeTotalTimeout;
+    private final Duration resultsReadTimeout;
+    private final Duration resultsTotalTimeout;
+    private final Semaphore inFlight;
+    private final HttpClient httpClient;
+
+    public AnalysisServiceClient(ObjectMapper objectMapper,
+                                 @Value("${analysis.python.service.url:http://localhost:8000}") String baseUrl,
+                                 @Value("${analysis.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                 @Value("${analysis.client.analyze.read-timeout-ms:10000}") long analyzeReadTimeoutMs,
+                                 @Value("${analysis.client.analyze.total-timeout-ms:15000}") long analyzeTotalTimeoutMs,
+                                 @Value("${analysis.client.results.read-timeout-ms:5000}") long resultsReadTimeoutMs,
+                                 @Value("${analysis.client.results.total-timeout-ms:10000}") long resultsTotalTimeoutMs,
+                                 @Value("${analysis.client.max-in-flight:64}") int maxInFlight) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.analyzeReadTimeout = Duration.ofMillis(analyzeReadTimeoutMs);
+        this.analyzeTotalTimeout = Duration.ofMillis(analyzeTotalTimeoutMs);
+        this.resultsReadTimeout = Duration.ofMillis(resultsReadTimeoutMs);
+        this.resultsTotalTimeout = Duration.ofMillis(resultsTotalTimeoutMs);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .build();
+    }
+
+    /**
+     * Ask the service to start analysing a document
+     */
+    public CompletableFuture<AnalyzeResponse> analyze(AnalyzeRequest analyzeRequest) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/analyze"))
+            .timeout(analyzeReadTimeout)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(analyzeRequest)))
+            .build();
+        return send(request, AnalyzeResponse.class, analyzeTotalTimeout);
+    }
+
+    /**
+     * List the result images the service has written for a document
+     */
+    public CompletableFuture<AnalysisResultsResponse> getResults(UUID documentId, String analysisType) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/results/" + documentId + "/" + analysisType))
+            .timeout(resultsReadTimeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        return send(request, AnalysisResultsResponse.class, resultsTotalTimeout);
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest request, Class<T> responseType, Duration totalTimeout) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new AnalysisClientException(
+                "Too many concurrent requests to the analysis service", -1));
+        }
+
+        String target = request.method() + " " + request.uri().getPath();
+        CompletableFuture<HttpResponse<byte[]>> exchange = 
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        // The slot belongs to the exchange, not to the caller's deadline. The caller's stage hangs off the
+        // release, so the slot is free again before a caller that joins can send its next request
+        CompletableFuture<HttpResponse<byte[]>> released = exchange.whenComplete((response, error) -> inFlight.release());
+        return released.copy()
+            .orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .handle((response, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null 
+                        ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        exchange.cancel(true);
+                    }
+                    String reason = cause instanceof TimeoutException 
+                        ? "deadline of " + totalTimeout.toMillis() + " ms exceeded" : cause.toString();
+                    throw new AnalysisClientException(target + " failed: " + reason, cause);
+                }
+                if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                    throw new AnalysisClientException(target + " returned status " + response.statusCode(), 
+                                                      response.statusCode());
+                }
+                return fromJson(response.body(), responseType, target);
+            });
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T fromJson(byte[] body, Class<T> type, String target) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            logger.warn("Unreadable response from {}: {}", target, e.getMessage());
+            throw new AnalysisClientException(target + " returned an unreadable response", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.pdfprocessor.client;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request body of POST /analyze
+ */
+public record AnalyzeRequest(
+    @JsonProperty("document_id") String documentId,
+    @JsonProperty("analysis_type") String analysisType,
+    @JsonProperty("file_path") String filePath,
+    @JsonProperty("file_name") String fileName,
+    @JsonProperty("callback_url") String callbackUrl,
+    @JsonProperty("fencing_token") Long fencingToken,
+    @JsonProperty("callback_secret") String callbackSecret) {
+}
@@ -0,0 +1,10 @@
+package com.pdfprocessor.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Response of POST /analyze
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AnalyzeResponse(String status, String message) {
+}
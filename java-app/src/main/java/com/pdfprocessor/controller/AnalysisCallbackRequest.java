@@ -0,0 +1,20 @@
+package com.pdfprocessor.controller;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * Body of POST /api/analysis/callback; which fields an event needs is checked by the controller
+ */
+public record AnalysisCallbackRequest(
+    @JsonProperty("document_id") UUID documentId,
+    @JsonProperty("analysis_type") String analysisType,
+    @JsonProperty("event") String event,
+    @JsonProperty("fencing_token") Long fencingToken,
+    @JsonProperty("page_number") Integer pageNumber,
+    @JsonProperty("file_path") String filePath,
+    @JsonProperty("file_size") Long fileSize,
+    @JsonProperty("total_pages") Integer totalPages,
+    @JsonProperty("message") String message) {
+}
@@ -1,18 +1,27 @@
 package com.pdfprocessor.controller;
 
 import com.pdfprocessor.entity.AnalysisFile;
+import com.pdfprocessor.entity.AnalysisPriority;
+import com.pdfprocessor.service.AnalysisArchiveService;
+import com.pdfprocessor.service.AnalysisJobService;
+import com.pdfprocessor.service.AnalysisResultsCache;
 import com.pdfprocessor.service.AnalysisService;
+import com.pdfprocessor.service.PdfMergeService;
+import com.pdfprocessor.util.HttpFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
@@ -30,16 +39,31 @@ public class AnalysisController {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalysisController.class);
 
+    private static final String CALLBACK_SECRET_HEADER = "X-Analysis-Callback-Secret";
+
     @Autowired
     private AnalysisService analysisService;
 
+    @Autowired
+    private AnalysisArchiveService analysisArchiveService;
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private AnalysisResultsCache analysisResultsCache;
+
+    @Autowired
+    private PdfMergeService pdfMergeService;
+
     /**
-     * Start analysis for a document
+     * Start analysis for a document; optional priority is INTERACTIVE, NORMAL (default) or BULK
      */
     @PostMapping("/start")
     public ResponseEntity<Map<String, Object>> startAnalysis(@RequestBody Map<String, Object> request) {
         String documentIdStr = (String) request.get("documentId");
         String analysisType = (String) request.get("analysisType");
+        String priorityStr = (String) request.get("priority");
 
         if (documentIdStr == null || analysisType == null) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -50,13 +74,16 @@ public class AnalysisController {
 
         try {
             UUID documentId = UUID.fromString(documentIdStr);
-            analysisService.startAnalysis(documentId, analysisType);
+            AnalysisPriority priority = priorityStr != null 
+                ? AnalysisPriority.valueOf(priorityStr.toUpperCase()) : AnalysisPriority.NORMAL;
+            analysisService.startAnalysis(documentId, analysisType, priority);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Analysis started successfully");
             response.put("documentId", documentId);
             response.put("analysisType", analysisType);
+            response.put("priority", priority);
 
             return ResponseEntity.ok(response);
 
@@ -107,39 +134,189 @@ public class AnalysisController {
      * Get analysis result file by document ID, analysis type and page number
      */
     @GetMapping("/files/{documentId}/{analysisType}/{pageNumber}")
-    public ResponseEntity<Resource> getAnalysisFileByPage(
+    public void getAnalysisFileByPage(
             @PathVariable UUID documentId,
             @PathVariable String analysisType,
-            @PathVariable Integer pageNumber) {
+            @PathVariable Integer pageNumber,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         logger.info("Getting analysis file for document: {} type: {} page: {}", 
                    documentId, analysisType, pageNumber);
         
-        List<AnalysisFile> results = analysisService.getAnalysisResults(documentId, analysisType);
-        
-        AnalysisFile targetFile = results.stream()
-            .filter(file -> file.getPageNumber().equals(pageNumber))
-            .findFirst()
+        AnalysisFile targetFile = analysisService.getAnalysisResultPage(documentId, analysisType, pageNumber)
             .orElse(null);
 
         if (targetFile == null) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
         Path filePath = Paths.get(targetFile.getResultFilePath());
-        File file = filePath.toFile();
-        
-        if (!file.exists()) {
-            logger.warn("Analysis result file not found: {}", targetFile.getResultFilePath());
+        HttpFileSender.send(request, response, filePath, filePath.getFileName().toString(), 
+                           MediaType.IMAGE_PNG_VALUE);
+    }
+
+    /**
+     * Download analysis result images as a ZIP, streamed straight into the response.
+     * Without analysisType, all analysis types are included.
+     */
+    @GetMapping("/export/zip")
+    public ResponseEntity<StreamingResponseBody> exportAnalysisImages(
+            @RequestParam("documentId") List<UUID> documentIds,
+            @RequestParam(value = "analysisType", required = false) List<String> analysisTypes) {
+        List<String> types = analysisTypes == null || analysisTypes.isEmpty()
+            ? AnalysisService.ANALYSIS_TYPES : analysisTypes;
+        if (documentIds.isEmpty() || !types.stream().allMatch(analysisService::isValidAnalysisType)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = documentIds.size() == 1
+            ? documentIds.get(0) + "_analysis.zip" : "analysis_export.zip";
+        StreamingResponseBody body = outputStream ->
+            analysisArchiveService.writeZip(documentIds, types, outputStream);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Download the merged PDF of an analysis, written page by page straight into the response.
+     * Only the pages being prepared are held in memory, however many pages the document has.
+     */
+    @GetMapping("/export/pdf")
+    public ResponseEntity<StreamingResponseBody> exportAnalysisPdf(
+            @RequestParam("documentId") UUID documentId,
+            @RequestParam("analysisType") String analysisType) {
+        if (!analysisService.isValidAnalysisType(analysisType)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<AnalysisFile> pages = analysisService.getAnalysisResults(documentId, analysisType);
+        if (pages.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        Resource resource = new FileSystemResource(file);
-        
+        String fileName = documentId + "_" + analysisType + "_analysis.pdf";
+        StreamingResponseBody body = outputStream -> pdfMergeService.writeAnalysisPdf(pages, outputStream);
+
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                       "inline; filename=\"" + file.getName() + "\"")
-                .contentType(MediaType.IMAGE_PNG)
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    /**
+     * Receive per-page and final results pushed by the Python service while an analysis runs.
+     * The service must echo the callback secret it was handed with the job.
+     */
+    @PostMapping("/callback")
+    public ResponseEntity<Map<String, Object>> analysisCallback(
+            @RequestHeader(value = CALLBACK_SECRET_HEADER, required = false) String callbackSecret,
+            @RequestBody AnalysisCallbackRequest request) {
+        if (!analysisService.isCallbackAuthorized(callbackSecret)) {
+            logger.warn("Rejected analysis callback without a valid {} header", CALLBACK_SECRET_HEADER);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Invalid callback secret");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        UUID documentId = request.documentId();
+        String analysisType = request.analysisType();
+        String event = request.event();
+        Long fencingToken = request.fencingToken();
+
+        Map<String, Object> response = new HashMap<>();
+        if (documentId == null || event == null || !analysisService.isValidAnalysisType(analysisType)) {
+            response.put("success", false);
+            response.put("message", "document_id, analysis_type and event are required");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            switch (event) {
+                case "page" -> {
+                    if (request.pageNumber() == null || request.filePath() == null) {
+                        response.put("success", false);
+                        response.put("message", "page_number and file_path are required for page events");
+                        return ResponseEntity.badRequest().body(response);
+                    }
+                    analysisService.recordPageResult(documentId, analysisType, request.pageNumber(), 
+                        request.filePath(), request.fileSize(), request.totalPages(), fencingToken);
+                }
+                case "heartbeat" -> {
+                    if (fencingToken == null) {
+                        response.put("success", false);
+                        response.put("message", "fencing_token is required for heartbeat events");
+                        return ResponseEntity.badRequest().body(response);
+                    }
+                    analysisService.renewLease(documentId, analysisType, fencingToken);
+                }
+                case "completed" -> analysisService.finishAnalysis(documentId, analysisType, fencingToken);
+                case "failed" -> {
+                    String message = String.valueOf(request.message());
+                    logger.warn("Analysis failed for document: {} type: {}: {}", documentId, analysisType, message);
+                    analysisService.handleAttemptFailure(documentId, analysisType, message, fencingToken);
+                }
+                default -> {
+                    response.put("success", false);
+                    response.put("message", "Unknown event: " + event);
+                    return ResponseEntity.badRequest().body(response);
+                }
+            }
+
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid analysis callback", e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (IllegalStateException e) {
+            // The run was superseded by a newer lease holder
+            logger.warn("Rejected analysis callback: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * A body that does not bind, such as a callback field of the wrong type, is the caller's error:
+     * answered with 400 so the Python service does not retry it
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnreadableBody(HttpMessageNotReadableException e) {
+        logger.warn("Rejected unreadable request body: {}", e.getMostSpecificCause().getMessage());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Malformed request body: " + e.getMostSpecificCause().getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    /**
+     * Queue depth and dispatch wait times per engine and priority lane
+     */
+    @GetMapping("/queue/metrics")
+    public ResponseEntity<Map<String, Object>> getQueueMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("lanes", analysisJobService.getQueueMetrics());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Hit/miss counters of the analysis results cache
+     */
+    @GetMapping("/cache/metrics")
+    public ResponseEntity<Map<String, Object>> getCacheMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("cache", analysisResultsCache.getStats());
+        return ResponseEntity.ok(response);
     }
 
     /**
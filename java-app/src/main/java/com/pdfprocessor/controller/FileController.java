@@ -1,23 +1,34 @@
 package com.pdfprocessor.controller;
 
-import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.entity.AnalysisFile;
+import com.pdfprocessor.repository.DocumentFile;
+import com.pdfprocessor.repository.DocumentSummary;
 import com.pdfprocessor.service.FileService;
+import com.pdfprocessor.service.AnalysisPdfService;
 import com.pdfprocessor.service.AnalysisService;
+import com.pdfprocessor.util.HttpFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/files")
@@ -25,77 +36,183 @@ public class FileController {
 
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Deeper offsets are read and discarded row by row; callers should narrow the query instead
+    private static final long MAX_SEARCH_OFFSET = 10_000;
+
     @Autowired
     private FileService fileService;
     
     @Autowired
     private AnalysisService analysisService;
+    
+    @Autowired
+    private AnalysisPdfService analysisPdfService;
+    
+    @Value("${analysis.pdf.request-timeout-ms:120000}")
+    private long mergedPdfTimeoutMs;
+
+    /**
+     * Bulk-load several PDFs in one multipart request (field name "files")
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadBatch(@RequestParam("files") List<MultipartFile> files) {
+        List<FileService.BatchItemResult> results = fileService.uploadFiles(files);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (FileService.BatchItemResult result : results) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("fileName", result.fileName());
+            item.put("success", result.isSuccess());
+            if (result.isSuccess()) {
+                item.put("documentId", result.document().getId());
+            } else {
+                item.put("message", result.error());
+            }
+            items.add(item);
+        }
+
+        long uploaded = results.stream().filter(FileService.BatchItemResult::isSuccess).count();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", uploaded == results.size());
+        response.put("uploaded", uploaded);
+        response.put("failed", results.size() - uploaded);
+        response.put("results", items);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Search documents by name: prefix, substring and fuzzy matches, best first, one page at a time
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchFiles(@RequestParam("q") String query,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> response = new HashMap<>();
+        long offset = (long) page * size;
+        if (query.isBlank() || page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE || offset > MAX_SEARCH_OFFSET) {
+            response.put("success", false);
+            response.put("message", "Query must not be blank, page must be >= 0, size between 1 and " 
+                + MAX_SEARCH_PAGE_SIZE + " and page * size at most " + MAX_SEARCH_OFFSET);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (DocumentSummary document : fileService.searchDocuments(query, (int) offset, size)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", document.getId());
+            item.put("fileName", document.getFileName());
+            item.put("fileSize", document.getFileSize());
+            item.put("uploadDate", document.getUploadDate());
+            items.add(item);
+        }
+
+        response.put("success", true);
+        response.put("page", page);
+        response.put("size", size);
+        response.put("total", fileService.countSearchResults(query));
+        response.put("results", items);
+        return ResponseEntity.ok(response);
+    }
 
+    /**
+     * Serve a stored PDF by document id; names are not unique, ids are
+     */
+    @GetMapping("/by-id/{documentId}")
+    public void getFileById(@PathVariable UUID documentId, HttpServletRequest request, 
+                            HttpServletResponse response) throws IOException {
+        DocumentFile document = fileService.getDocumentFile(documentId).orElse(null);
+        if (document == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serveFile(request, response, document.filePath(), document.fileName(), MediaType.APPLICATION_PDF);
+    }
+
+    /**
+     * Legacy route by file name; serves the newest document with that name
+     */
     @GetMapping("/{fileName}")
-    public ResponseEntity<Resource> getFile(@PathVariable String fileName) {
-        Document document = fileService.getDocumentByFileName(fileName);
+    public void getFile(@PathVariable String fileName, HttpServletRequest request, 
+                        HttpServletResponse response) throws IOException {
+        DocumentFile document = fileService.getDocumentByFileName(fileName);
         if (document == null) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
-        return serveFile(document.getFilePath(), fileName, MediaType.APPLICATION_PDF);
+        serveFile(request, response, document.filePath(), fileName, MediaType.APPLICATION_PDF);
     }
     
     @GetMapping("/analysis/{documentId}/{analysisType}/{pageNumber}")
-    public ResponseEntity<Resource> getAnalysisResultImage(
+    public void getAnalysisResultImage(
             @PathVariable String documentId,
             @PathVariable String analysisType,
-            @PathVariable int pageNumber) {
+            @PathVariable int pageNumber,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         UUID docId = UUID.fromString(documentId);
-        List<com.pdfprocessor.entity.AnalysisFile> results = 
-            analysisService.getAnalysisResults(docId, analysisType);
-        
-        com.pdfprocessor.entity.AnalysisFile pageResult = results.stream()
-            .filter(result -> result.getPageNumber() == pageNumber)
-            .findFirst()
+        AnalysisFile pageResult = analysisService.getAnalysisResultPage(docId, analysisType, pageNumber)
             .orElse(null);
         
         if (pageResult == null) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
         
-        return serveFile(pageResult.getResultFilePath(), 
-                       Paths.get(pageResult.getResultFilePath()).getFileName().toString(), 
-                       MediaType.IMAGE_PNG);
+        HttpFileSender.send(request, response, Paths.get(pageResult.getResultFilePath()), 
+                           Paths.get(pageResult.getResultFilePath()).getFileName().toString(), 
+                           MediaType.IMAGE_PNG_VALUE);
+    }
+    
+    /**
+     * Merged PDF of all result pages, served from the cached artifact; waits for its build if it is still running
+     */
+    @GetMapping("/analysis/{documentId}/{analysisType}/merged.pdf")
+    public void getMergedAnalysisPdf(@PathVariable UUID documentId,
+                                     @PathVariable String analysisType,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        Path pdfFilePath;
+        try {
+            pdfFilePath = analysisPdfService.getMergedPdf(documentId, analysisType)
+                .get(mergedPdfTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        } catch (TimeoutException e) {
+            response.setHeader("Retry-After", "5");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Merged PDF is still being built");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        } catch (ExecutionException e) {
+            logger.error("Could not build merged PDF for document {} type {}: {}", 
+                        documentId, analysisType, e.getCause().getMessage());
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        HttpFileSender.send(request, response, pdfFilePath, 
+                           documentId + "_" + analysisType + "_analysis.pdf", MediaType.APPLICATION_PDF_VALUE);
     }
     
     @GetMapping("/analysis/{documentId}/{analysisType}/pdf/{fileName}")
-    public ResponseEntity<Resource> getAnalysisPdf(@PathVariable String documentId, 
-                                                  @PathVariable String analysisType, 
-                                                  @PathVariable String fileName) {
+    public void getAnalysisPdf(@PathVariable String documentId, 
+                               @PathVariable String analysisType, 
+                               @PathVariable String fileName,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
         // Construct the PDF file path
         String pdfFilePath = "uploads/analysis/" + documentId + "/" + analysisType + "/" + fileName;
-        Path path = Paths.get(pdfFilePath);
-        File file = path.toFile();
-        
-        if (!file.exists()) {
-            logger.warn("Analysis PDF not found: {}", pdfFilePath);
-            return ResponseEntity.notFound().build();
-        }
-        
-        Resource resource = new FileSystemResource(file);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(resource);
+        serveFile(request, response, pdfFilePath, fileName, MediaType.APPLICATION_PDF);
     }
     
-    private ResponseEntity<Resource> serveFile(String filePath, String fileName, MediaType contentType) {
-        Path path = Paths.get(filePath);
-        File file = path.toFile();
-        
-        if (!file.exists()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        Resource resource = new FileSystemResource(file);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                .contentType(contentType)
-                .body(resource);
+    /**
+     * Serve a file with byte-range support so browser PDF viewers can render the first pages early
+     */
+    private void serveFile(HttpServletRequest request, HttpServletResponse response, 
+                           String filePath, String fileName, MediaType contentType) throws IOException {
+        HttpFileSender.send(request, response, Paths.get(filePath), fileName, contentType.toString());
     }
 }
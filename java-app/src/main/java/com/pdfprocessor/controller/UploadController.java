@@ -0,0 +1,194 @@
+package com.pdfprocessor.controller;
+
+import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.entity.UploadSession;
+import com.pdfprocessor.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * REST Controller for resumable chunked uploads, modelled on the tus protocol:
+ * create the upload, PATCH byte ranges, query the offset with HEAD, then finalize.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_METADATA = "Upload-Metadata";
+    private static final String OFFSET_CONTENT_TYPE = "application/offset+octet-stream";
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    /**
+     * Create an upload. Expects Upload-Length and an Upload-Metadata header carrying the base64 encoded filename.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createUpload(
+            @RequestHeader(UPLOAD_LENGTH) long uploadLength,
+            @RequestHeader(value = UPLOAD_METADATA, required = false) String uploadMetadata) {
+        Map<String, String> metadata = parseMetadata(uploadMetadata);
+        try {
+            UploadSession session = chunkedUploadService.createUpload(
+                metadata.get("filename"), metadata.getOrDefault("filetype", "application/pdf"), uploadLength);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("uploadId", session.getId());
+            response.put("uploadLength", session.getUploadLength());
+
+            return ResponseEntity.created(URI.create("/api/uploads/" + session.getId()))
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .body(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error creating upload", e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to create upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Report how many bytes of the upload have been stored
+     */
+    @RequestMapping(value = "/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getUploadOffset(@PathVariable UUID uploadId) {
+        Optional<UploadSession> sessionOpt = chunkedUploadService.getUpload(uploadId);
+        if (sessionOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, String.valueOf(sessionOpt.get().getUploadOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(sessionOpt.get().getUploadLength()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    /**
+     * Append the request body at Upload-Offset. The body is streamed straight to the staging file.
+     */
+    @PatchMapping("/{uploadId}")
+    public ResponseEntity<Void> appendChunk(
+            @PathVariable UUID uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long uploadOffset,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) {
+        if (!OFFSET_CONTENT_TYPE.equalsIgnoreCase(contentType)) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        if (chunkedUploadService.getUpload(uploadId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            long newOffset = chunkedUploadService.appendChunk(uploadId, uploadOffset, request.getInputStream());
+            return ResponseEntity.noContent()
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                    .build();
+
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected chunk for upload {}: {}", uploadId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(TUS_RESUMABLE, TUS_VERSION).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.warn("Chunk for upload {} interrupted: {}", uploadId, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Turn a completely received upload into a document. Repeating the call returns the same document,
+     * so clients may retry after a lost response.
+     */
+    @PostMapping("/{uploadId}/finalize")
+    public ResponseEntity<Map<String, Object>> finalizeUpload(@PathVariable UUID uploadId) {
+        try {
+            Optional<Document> documentOpt = chunkedUploadService.finalizeUpload(uploadId);
+            if (documentOpt.isEmpty()) {
+                return errorResponse(HttpStatus.NOT_FOUND, "Upload not found: " + uploadId);
+            }
+            Document document = documentOpt.get();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("documentId", document.getId());
+            response.put("fileName", document.getFileName());
+            response.put("fileSize", document.getFileSize());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            // Rejected content; the upload has been deleted
+            return errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        } catch (IllegalStateException e) {
+            return errorResponse(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error finalizing upload {}", uploadId, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to finalize upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abort an upload and discard the bytes received so far
+     */
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> terminateUpload(@PathVariable UUID uploadId) {
+        if (!chunkedUploadService.terminateUpload(uploadId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().header(TUS_RESUMABLE, TUS_VERSION).build();
+    }
+
+    /**
+     * Parse tus metadata: comma separated "key base64value" pairs
+     */
+    private Map<String, String> parseMetadata(String uploadMetadata) {
+        Map<String, String> metadata = new HashMap<>();
+        if (uploadMetadata == null || uploadMetadata.isBlank()) {
+            return metadata;
+        }
+        for (String pair : uploadMetadata.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            if (parts.length == 2) {
+                try {
+                    metadata.put(parts[0], new String(Base64.getDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring malformed upload metadata entry: {}", parts[0]);
+                }
+            } else if (parts.length == 1 && !parts[0].isEmpty()) {
+                metadata.put(parts[0], "");
+            }
+        }
+        return metadata;
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,126 @@
+package com.pdfprocessor.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * AnalysisLease entity: which node owns the analysis of a document and type, and until when.
+ * The fencing token grows with every new owner, so results reported under an older token can be rejected.
+ */
+@Entity
+@Table(name = "analysis_leases")
+@IdClass(AnalysisLease.LeaseId.class)
+public class AnalysisLease {
+
+    @Id
+    @Column(name = "document_id", nullable = false)
+    private UUID documentId;
+
+    @Id
+    @Column(name = "analysis_type", nullable = false, length = 50)
+    private String analysisType;
+
+    @Column(name = "owner", nullable = false, length = 255)
+    @NotNull
+    @Size(max = 255)
+    private String owner;
+
+    @Column(name = "fencing_token", nullable = false)
+    @NotNull
+    private Long fencingToken;
+
+    @Column(name = "expires_at", nullable = false)
+    @NotNull
+    private LocalDateTime expiresAt;
+
+    // Default constructor
+    public AnalysisLease() {
+    }
+
+    // Getters and Setters
+    public UUID getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(UUID documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getAnalysisType() {
+        return analysisType;
+    }
+
+    public void setAnalysisType(String analysisType) {
+        this.analysisType = analysisType;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(Long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisLease{" +
+                "documentId=" + documentId +
+                ", analysisType='" + analysisType + '\'' +
+                ", owner='" + owner + '\'' +
+                ", fencingToken=" + fencingToken +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+
+    /**
+     * Composite primary key of AnalysisLease
+     */
+    public static class LeaseId implements Serializable {
+
+        private UUID documentId;
+        private String analysisType;
+
+        public LeaseId() {
+        }
+
+        public LeaseId(UUID documentId, String analysisType) {
+            this.documentId = documentId;
+            this.analysisType = analysisType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LeaseId other)) return false;
+            return Objects.equals(documentId, other.documentId) && Objects.equals(analysisType, other.analysisType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentId, analysisType);
+        }
+    }
+}
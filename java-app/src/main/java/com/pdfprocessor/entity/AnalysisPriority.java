@@ -0,0 +1,33 @@
+package com.pdfprocessor.entity;
+
+/**
+ * Priority lane of an analysis job.
+ * The weight is the lane's share of free engine slots when several lanes have work waiting.
+ */
+public enum AnalysisPriority {
+
+    /**
+     * Started by a user who is waiting for the result
+     */
+    INTERACTIVE(8),
+
+    /**
+     * Default for API submissions
+     */
+    NORMAL(3),
+
+    /**
+     * Re-runs and imports of many documents
+     */
+    BULK(1);
+
+    private final int weight;
+
+    AnalysisPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
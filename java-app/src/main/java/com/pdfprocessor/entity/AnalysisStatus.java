@@ -0,0 +1,202 @@
+package com.pdfprocessor.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * AnalysisStatus entity: the state of one analysis engine on one document.
+ * Rows are read-only here: they are changed with single-statement updates in AnalysisStatusRepository,
+ * each of which increments the version column. The version is a change counter that artifacts derived from
+ * the analysis are keyed by, not a JPA optimistic lock. The entity is immutable so that Hibernate never
+ * flushes a modified instance past the counter.
+ */
+@Entity
+@Immutable
+@Table(name = "analysis_status")
+@IdClass(AnalysisStatus.StatusId.class)
+public class AnalysisStatus {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @Column(name = "document_id", nullable = false)
+    private UUID documentId;
+
+    @Id
+    @Column(name = "analysis_type", nullable = false, length = 50)
+    private String analysisType;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @NotNull
+    @Size(max = 20)
+    private String status;
+
+    @Column(name = "pages_done", nullable = false)
+    private int pagesDone;
+
+    @Column(name = "max_page", nullable = false)
+    private int maxPage;
+
+    @Column(name = "total_pages")
+    private Integer totalPages;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    @NotNull
+    private LocalDateTime updatedAt;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Default constructor
+    public AnalysisStatus() {
+    }
+
+    // Getters and Setters
+    public UUID getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(UUID documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getAnalysisType() {
+        return analysisType;
+    }
+
+    public void setAnalysisType(String analysisType) {
+        this.analysisType = analysisType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getPagesDone() {
+        return pagesDone;
+    }
+
+    public void setPagesDone(int pagesDone) {
+        this.pagesDone = pagesDone;
+    }
+
+    public int getMaxPage() {
+        return maxPage;
+    }
+
+    public void setMaxPage(int maxPage) {
+        this.maxPage = maxPage;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isCompleted() {
+        return COMPLETED.equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisStatus{" +
+                "documentId=" + documentId +
+                ", analysisType='" + analysisType + '\'' +
+                ", status='" + status + '\'' +
+                ", pagesDone=" + pagesDone +
+                ", totalPages=" + totalPages +
+                ", version=" + version +
+                '}';
+    }
+
+    /**
+     * Composite primary key of AnalysisStatus
+     */
+    public static class StatusId implements Serializable {
+
+        private UUID documentId;
+        private String analysisType;
+
+        public StatusId() {
+        }
+
+        public StatusId(UUID documentId, String analysisType) {
+            this.documentId = documentId;
+            this.analysisType = analysisType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatusId other)) return false;
+            return Objects.equals(documentId, other.documentId) && Objects.equals(analysisType, other.analysisType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentId, analysisType);
+        }
+    }
+}
@@ -1,11 +1,8 @@
 package com.pdfprocessor.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -34,10 +31,8 @@ public class Document {
     @Column(name = "mime_type", nullable = false, length = 100)
     private String mimeType;
 
-
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "analysis_results", columnDefinition = "jsonb")
-    private Map<String, Object> analysisResults;
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 
     // Default constructor
     public Document() {
@@ -101,13 +96,12 @@ public class Document {
         this.mimeType = mimeType;
     }
 
-
-    public Map<String, Object> getAnalysisResults() {
-        return analysisResults;
+    public String getContentHash() {
+        return contentHash;
     }
 
-    public void setAnalysisResults(Map<String, Object> analysisResults) {
-        this.analysisResults = analysisResults;
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
     }
 
     @Override
@@ -0,0 +1,164 @@
+package com.pdfprocessor.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * UploadSession entity for tracking resumable chunked uploads
+ */
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    @NotNull
+    @Size(max = 255)
+    private String fileName;
+
+    @Column(name = "mime_type", length = 100)
+    private String mimeType;
+
+    @Column(name = "upload_length", nullable = false)
+    @NotNull
+    @Min(1)
+    private Long uploadLength;
+
+    @Column(name = "upload_offset", nullable = false)
+    @NotNull
+    @Min(0)
+    private Long uploadOffset;
+
+    @Column(name = "staging_path", nullable = false, length = 500)
+    @NotNull
+    @Size(max = 500)
+    private String stagingPath;
+
+    /**
+     * Document created by finalizing this upload; null until then
+     */
+    @Column(name = "document_id")
+    private UUID documentId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public UploadSession() {
+    }
+
+    // Constructor for creating new upload sessions
+    public UploadSession(String fileName, String mimeType, Long uploadLength, String stagingPath) {
+        this.fileName = fileName;
+        this.mimeType = mimeType;
+        this.uploadLength = uploadLength;
+        this.uploadOffset = 0L;
+        this.stagingPath = stagingPath;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public Long getUploadLength() {
+        return uploadLength;
+    }
+
+    public void setUploadLength(Long uploadLength) {
+        this.uploadLength = uploadLength;
+    }
+
+    public Long getUploadOffset() {
+        return uploadOffset;
+    }
+
+    public void setUploadOffset(Long uploadOffset) {
+        this.uploadOffset = uploadOffset;
+    }
+
+    public String getStagingPath() {
+        return stagingPath;
+    }
+
+    public void setStagingPath(String stagingPath) {
+        this.stagingPath = stagingPath;
+    }
+
+    public UUID getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(UUID documentId) {
+        this.documentId = documentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public boolean isComplete() {
+        return uploadOffset != null && uploadOffset.equals(uploadLength);
+    }
+
+    public boolean isFinalized() {
+        return documentId != null;
+    }
+
+    @Override
+    public String toString() {
+        return "UploadSession{" +
+                "id=" + id +
+                ", fileName='" + fileName + '\'' +
+                ", uploadLength=" + uploadLength +
+                ", uploadOffset=" + uploadOffset +
+                '}';
+    }
+}
@@ -9,13 +9,14 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repository interface for AnalysisFile entity operations
  */
 @Repository
-public interface AnalysisFileRepository extends JpaRepository<AnalysisFile, UUID> {
+public interface AnalysisFileRepository extends JpaRepository<AnalysisFile, UUID>, AnalysisFileRepositoryCustom {
 
     /**
      * Find all analysis files for a specific document and analysis type
@@ -51,6 +52,28 @@ public interface AnalysisFileRepository extends JpaRepository<AnalysisFile, UUID
      */
     boolean existsByDocumentIdAndAnalysisTypeAndPageNumber(UUID documentId, String analysisType, Integer pageNumber);
 
+    /**
+     * Find the analysis file of a single page (served by the uq_analysis_files_page index)
+     */
+    Optional<AnalysisFile> findFirstByDocumentIdAndAnalysisTypeAndPageNumber(UUID documentId, String analysisType, Integer pageNumber);
+
+    /**
+     * Insert a page result unless that page is already recorded. Safe under concurrent callers on any node.
+     *
+     * @return 1 if the row was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO analysis_files (id, document_id, analysis_type, page_number, result_file_path, file_size, created_at) " +
+                   "VALUES (gen_random_uuid(), :documentId, :analysisType, :pageNumber, :resultFilePath, :fileSize, NOW()) " +
+                   "ON CONFLICT (document_id, analysis_type, page_number) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("documentId") UUID documentId, 
+                       @Param("analysisType") String analysisType,
+                       @Param("pageNumber") int pageNumber, 
+                       @Param("resultFilePath") String resultFilePath,
+                       @Param("fileSize") Long fileSize);
+
     /**
      * Get maximum page number for a specific document and analysis type
      */
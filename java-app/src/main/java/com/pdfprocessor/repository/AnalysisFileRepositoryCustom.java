@@ -0,0 +1,23 @@
+package com.pdfprocessor.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk operations on analysis_files that go through JDBC batching instead of JPA
+ */
+public interface AnalysisFileRepositoryCustom {
+
+    /**
+     * One page result to insert
+     */
+    record PageRow(int pageNumber, String resultFilePath, Long fileSize) {
+    }
+
+    /**
+     * Insert page results with one statement per chunk of pages, skipping pages that are already recorded
+     *
+     * @return number of rows actually inserted
+     */
+    int insertAllIfAbsent(UUID documentId, String analysisType, List<PageRow> pages);
+}
@@ -0,0 +1,71 @@
+package com.pdfprocessor.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of AnalysisFileRepositoryCustom
+ */
+public class AnalysisFileRepositoryImpl implements AnalysisFileRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * One multi-row insert per chunk of pages, passed as arrays. RETURNING yields exactly the rows that were
+     * inserted, which batch update counts cannot: with reWriteBatchedInserts they are SUCCESS_NO_INFO.
+     */
+    private static final String INSERT_SQL =
+        "INSERT INTO analysis_files (id, document_id, analysis_type, page_number, result_file_path, file_size, created_at) " +
+        "SELECT gen_random_uuid(), ?, ?, p.page_number, p.result_file_path, p.file_size, NOW() " +
+        "FROM unnest(?::integer[], ?::text[], ?::bigint[]) AS p(page_number, result_file_path, file_size) " +
+        "ON CONFLICT (document_id, analysis_type, page_number) DO NOTHING " +
+        "RETURNING page_number";
+
+    private static final ResultSetExtractor<Integer> COUNT_ROWS = rs -> {
+        int rows = 0;
+        while (rs.next()) {
+            rows++;
+        }
+        return rows;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalysisFileRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public int insertAllIfAbsent(UUID documentId, String analysisType, List<PageRow> pages) {
+        int inserted = 0;
+        for (int from = 0; from < pages.size(); from += BATCH_SIZE) {
+            List<PageRow> chunk = pages.subList(from, Math.min(from + BATCH_SIZE, pages.size()));
+            Integer[] pageNumbers = new Integer[chunk.size()];
+            String[] filePaths = new String[chunk.size()];
+            Long[] fileSizes = new Long[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                pageNumbers[i] = chunk.get(i).pageNumber();
+                filePaths[i] = chunk.get(i).resultFilePath();
+                fileSizes[i] = chunk.get(i).fileSize();
+            }
+
+            Integer rows = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_SQL);
+                ps.setObject(1, documentId);
+                ps.setString(2, analysisType);
+                ps.setArray(3, connection.createArrayOf("integer", pageNumbers));
+                ps.setArray(4, connection.createArrayOf("text", filePaths));
+                ps.setArray(5, connection.createArrayOf("bigint", fileSizes));
+                return ps;
+            }, COUNT_ROWS);
+            inserted += rows != null ? rows : 0;
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,78 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.entity.AnalysisJob;
+import com.pdfprocessor.entity.AnalysisPriority;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for AnalysisJob entity operations
+ */
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, UUID>, AnalysisJobRepositoryCustom {
+
+    /**
+     * Lock up to limit due jobs of one engine and priority lane. Rows locked by another worker are skipped
+     * rather than waited on, so concurrent workers never claim the same job. Must run inside a transaction.
+     */
+    @Query(value = "SELECT * FROM analysis_jobs WHERE status = 'QUEUED' AND analysis_type = :analysisType " +
+                   "AND priority = :priority AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<AnalysisJob> lockDueJobs(@Param("analysisType") String analysisType, 
+                                  @Param("priority") String priority,
+                                  @Param("now") LocalDateTime now, 
+                                  @Param("limit") int limit);
+
+    /**
+     * Count jobs of one engine in a given status
+     */
+    long countByAnalysisTypeAndStatus(String analysisType, String status);
+
+    /**
+     * Count jobs of one engine in a given status, excluding one priority lane
+     */
+    long countByAnalysisTypeAndStatusAndPriorityNot(String analysisType, String status, AnalysisPriority priority);
+
+    /**
+     * Queue depth, running count and oldest wait per engine and priority lane
+     */
+    @Query(value = "SELECT analysis_type AS analysisType, priority AS priority, " +
+                   "COUNT(*) FILTER (WHERE status = 'QUEUED') AS queued, " +
+                   "COUNT(*) FILTER (WHERE status = 'IN_PROGRESS') AS running, " +
+                   "EXTRACT(EPOCH FROM (:now - MIN(created_at) FILTER (WHERE status = 'QUEUED'))) AS oldestWaitSeconds " +
+                   "FROM analysis_jobs WHERE status IN ('QUEUED', 'IN_PROGRESS') " +
+                   "GROUP BY analysis_type, priority",
+           nativeQuery = true)
+    List<LaneSummary> summarizeActiveLanes(@Param("now") LocalDateTime now);
+
+    /**
+     * Row of summarizeActiveLanes
+     */
+    interface LaneSummary {
+        String getAnalysisType();
+        String getPriority();
+        long getQueued();
+        long getRunning();
+        Double getOldestWaitSeconds();
+    }
+
+    /**
+     * Find the active (queued or running) job of a document and analysis type
+     */
+    Optional<AnalysisJob> findFirstByDocumentIdAndAnalysisTypeAndStatusIn(UUID documentId, String analysisType, 
+                                                                          Collection<String> statuses);
+
+    /**
+     * Find jobs in a status that were started before the given time
+     */
+    List<AnalysisJob> findByStatusAndStartedAtBefore(String status, LocalDateTime cutoff);
+}
@@ -0,0 +1,13 @@
+package com.pdfprocessor.repository;
+
+/**
+ * Locking operations on analysis jobs that go through JDBC instead of JPA
+ */
+public interface AnalysisJobRepositoryCustom {
+
+    /**
+     * Serialize claiming for one engine across all nodes until the current transaction ends,
+     * so the running-job count a claimer reads cannot change before its claims are committed
+     */
+    void lockEngine(String analysisType);
+}
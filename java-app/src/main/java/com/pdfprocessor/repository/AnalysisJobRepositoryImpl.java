@@ -0,0 +1,30 @@
+package com.pdfprocessor.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC implementation of AnalysisJobRepositoryCustom
+ */
+public class AnalysisJobRepositoryImpl implements AnalysisJobRepositoryCustom {
+
+    /**
+     * First key of the two-key advisory lock form, whose key space is separate from the
+     * single bigint keys used for content hashes
+     */
+    private static final int ENGINE_LOCK_CLASS = 0x4A4F4253;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalysisJobRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockEngine(String analysisType) {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, ?)", Object.class, 
+            ENGINE_LOCK_CLASS, analysisType.hashCode());
+    }
+}
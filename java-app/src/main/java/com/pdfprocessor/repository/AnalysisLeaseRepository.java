@@ -0,0 +1,75 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.entity.AnalysisLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for AnalysisLease entity operations.
+ * All expiry checks use the database clock so nodes with skewed clocks still agree.
+ */
+@Repository
+public interface AnalysisLeaseRepository extends JpaRepository<AnalysisLease, AnalysisLease.LeaseId> {
+
+    /**
+     * Take the lease if it is free or expired, in one statement. The row stays locked until the transaction
+     * ends, so findFencingToken in the same transaction reads the token this call assigned.
+     *
+     * @return 1 if the lease was taken, 0 if another owner holds an unexpired lease
+     */
+    @Modifying
+    @Query(value = "INSERT INTO analysis_leases (document_id, analysis_type, owner, fencing_token, expires_at) " +
+                   "VALUES (:documentId, :analysisType, :owner, 1, LOCALTIMESTAMP + make_interval(secs => :ttlSeconds)) " +
+                   "ON CONFLICT (document_id, analysis_type) DO UPDATE SET owner = EXCLUDED.owner, " +
+                   "fencing_token = analysis_leases.fencing_token + 1, expires_at = EXCLUDED.expires_at " +
+                   "WHERE analysis_leases.expires_at <= LOCALTIMESTAMP",
+           nativeQuery = true)
+    int tryAcquire(@Param("documentId") UUID documentId, 
+                   @Param("analysisType") String analysisType,
+                   @Param("owner") String owner, 
+                   @Param("ttlSeconds") double ttlSeconds);
+
+    /**
+     * Extend a lease, but only while the given token is still the current one
+     */
+    @Modifying
+    @Query(value = "UPDATE analysis_leases SET expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds) " +
+                   "WHERE document_id = :documentId AND analysis_type = :analysisType AND fencing_token = :token",
+           nativeQuery = true)
+    int renew(@Param("documentId") UUID documentId, 
+              @Param("analysisType") String analysisType,
+              @Param("token") long token, 
+              @Param("ttlSeconds") double ttlSeconds);
+
+    /**
+     * Expire a lease now. The row stays so the next owner's token keeps increasing.
+     */
+    @Modifying
+    @Query(value = "UPDATE analysis_leases SET expires_at = LOCALTIMESTAMP " +
+                   "WHERE document_id = :documentId AND analysis_type = :analysisType AND fencing_token = :token",
+           nativeQuery = true)
+    int release(@Param("documentId") UUID documentId, 
+                @Param("analysisType") String analysisType,
+                @Param("token") long token);
+
+    /**
+     * Current fencing token of a document and type, if a lease was ever taken
+     */
+    @Query(value = "SELECT fencing_token FROM analysis_leases WHERE document_id = :documentId AND analysis_type = :analysisType",
+           nativeQuery = true)
+    Optional<Long> findFencingToken(@Param("documentId") UUID documentId, @Param("analysisType") String analysisType);
+
+    /**
+     * Whether someone holds an unexpired lease
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM analysis_leases WHERE document_id = :documentId " +
+                   "AND analysis_type = :analysisType AND expires_at > LOCALTIMESTAMP)",
+           nativeQuery = true)
+    boolean isHeld(@Param("documentId") UUID documentId, @Param("analysisType") String analysisType);
+}
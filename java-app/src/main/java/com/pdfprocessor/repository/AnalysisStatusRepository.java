@@ -0,0 +1,78 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.entity.AnalysisStatus;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for AnalysisStatus entity operations.
+ * Every change is one atomic statement on one row that also increments its change counter (the version column).
+ * Statements that would not change anything leave the row and its counter alone, so repeated polls and
+ * duplicate callbacks do not invalidate artifacts keyed by the counter.
+ * It deliberately does not extend JpaRepository: a save() would write the row without touching the counter.
+ */
+@Repository
+public interface AnalysisStatusRepository
+        extends org.springframework.data.repository.Repository<AnalysisStatus, AnalysisStatus.StatusId> {
+
+    /**
+     * Set the status of an analysis, creating its row on first use.
+     * Entering IN_PROGRESS stamps started_at and clears the last error; COMPLETED and FAILED stamp completed_at.
+     *
+     * @return 0 if the row already had this status and error
+     */
+    @Modifying
+    @Query(value = "INSERT INTO analysis_status (document_id, analysis_type, status, error, started_at, completed_at, updated_at) " +
+                   "VALUES (:documentId, :analysisType, :status, CAST(:error AS TEXT), " +
+                   "CASE WHEN :status = 'IN_PROGRESS' THEN LOCALTIMESTAMP END, " +
+                   "CASE WHEN :status IN ('COMPLETED', 'FAILED') THEN LOCALTIMESTAMP END, LOCALTIMESTAMP) " +
+                   "ON CONFLICT (document_id, analysis_type) DO UPDATE SET status = EXCLUDED.status, " +
+                   "error = EXCLUDED.error, " +
+                   "started_at = COALESCE(EXCLUDED.started_at, analysis_status.started_at), " +
+                   "completed_at = EXCLUDED.completed_at, " +
+                   "updated_at = LOCALTIMESTAMP, version = analysis_status.version + 1 " +
+                   "WHERE (analysis_status.status, analysis_status.error) IS DISTINCT FROM (EXCLUDED.status, EXCLUDED.error)",
+           nativeQuery = true)
+    int upsertStatus(@Param("documentId") UUID documentId, 
+                     @Param("analysisType") String analysisType,
+                     @Param("status") String status, 
+                     @Param("error") String error);
+
+    /**
+     * Count newly stored pages. Pages arriving without a status row (results polled from an older run)
+     * create it as IN_PROGRESS.
+     *
+     * @param added number of pages actually inserted, never pages that were already stored
+     * @return 0 if no page was added and the page bounds were already known
+     */
+    @Modifying
+    @Query(value = "INSERT INTO analysis_status (document_id, analysis_type, status, pages_done, max_page, total_pages, updated_at) " +
+                   "VALUES (:documentId, :analysisType, 'IN_PROGRESS', :added, :maxPage, CAST(:totalPages AS INTEGER), LOCALTIMESTAMP) " +
+                   "ON CONFLICT (document_id, analysis_type) DO UPDATE SET " +
+                   "pages_done = analysis_status.pages_done + EXCLUDED.pages_done, " +
+                   "max_page = GREATEST(analysis_status.max_page, EXCLUDED.max_page), " +
+                   "total_pages = COALESCE(EXCLUDED.total_pages, analysis_status.total_pages), " +
+                   "updated_at = LOCALTIMESTAMP, version = analysis_status.version + 1 " +
+                   "WHERE EXCLUDED.pages_done > 0 OR EXCLUDED.max_page > analysis_status.max_page " +
+                   "OR (EXCLUDED.total_pages IS NOT NULL AND EXCLUDED.total_pages IS DISTINCT FROM analysis_status.total_pages)",
+           nativeQuery = true)
+    int addPages(@Param("documentId") UUID documentId, 
+                 @Param("analysisType") String analysisType,
+                 @Param("added") int added, 
+                 @Param("maxPage") int maxPage, 
+                 @Param("totalPages") Integer totalPages);
+
+    /**
+     * Only the status column, via the primary key
+     */
+    @Query(value = "SELECT status FROM analysis_status WHERE document_id = :documentId AND analysis_type = :analysisType",
+           nativeQuery = true)
+    Optional<String> findStatus(@Param("documentId") UUID documentId, @Param("analysisType") String analysisType);
+
+    Optional<AnalysisStatus> findByDocumentIdAndAnalysisType(UUID documentId, String analysisType);
+}
@@ -0,0 +1,9 @@
+package com.pdfprocessor.repository;
+
+import java.util.UUID;
+
+/**
+ * The columns needed to locate and analyse a document's stored file
+ */
+public record DocumentFile(UUID id, String fileName, String filePath, String contentHash) {
+}
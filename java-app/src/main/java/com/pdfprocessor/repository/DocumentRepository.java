@@ -2,24 +2,122 @@ package com.pdfprocessor.repository;
 
 import com.pdfprocessor.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repository interface for Document entity operations
  */
 @Repository
-public interface DocumentRepository extends JpaRepository<Document, UUID> {
+public interface DocumentRepository extends JpaRepository<Document, UUID>, DocumentRepositoryCustom {
 
     /**
-     * Find all documents ordered by upload date (newest first)
+     * Filter shared by search and countSearch; LIKE patterns escape wildcards with a backslash, Postgres' default
      */
-    List<Document> findAllByOrderByUploadDateDesc();
+    String SEARCH_WHERE = "WHERE d.file_name ILIKE :pattern OR :query <% d.file_name ";
 
     /**
-     * Find document by filename
+     * Ranked search: prefix matches first, then substring matches, then fuzzy matches by similarity
      */
-    Document findByFileName(String fileName);
+    String SEARCH_QUERY = DocumentSummary.SELECT_FROM + SEARCH_WHERE +
+                          "ORDER BY d.file_name ILIKE :prefix DESC, d.file_name ILIKE :pattern DESC, " +
+                          "word_similarity(:query, d.file_name) DESC, d.upload_date DESC, d.id DESC " +
+                          "OFFSET :offset LIMIT :limit";
+
+    /**
+     * Filter for queries too short for a trigram: a range of idx_documents_file_name_prefix,
+     * whose C collation makes case-insensitive prefix matches and their order an index scan
+     */
+    String PREFIX_WHERE = "WHERE lower(d.file_name) COLLATE \"C\" LIKE lower(:prefix) ";
+
+    /**
+     * Prefix search, names in index order
+     */
+    String PREFIX_SEARCH_QUERY = DocumentSummary.SELECT_FROM + PREFIX_WHERE +
+                                 "ORDER BY lower(d.file_name) COLLATE \"C\", d.id OFFSET :offset LIMIT :limit";
+
+    /**
+     * First page of document summaries, newest first
+     */
+    @Query(value = DocumentSummary.SELECT_FROM + "ORDER BY d.upload_date DESC, d.id DESC LIMIT :limit", 
+           nativeQuery = true)
+    List<DocumentSummary> findFirstPage(@Param("limit") int limit);
+
+    /**
+     * Keyset page: the documents following (uploadDate, id) in newest-first order, via idx_documents_upload_date_id
+     */
+    @Query(value = DocumentSummary.SELECT_FROM + "WHERE (d.upload_date, d.id) < (:uploadDate, :id) " +
+                   "ORDER BY d.upload_date DESC, d.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<DocumentSummary> findPageAfter(@Param("uploadDate") LocalDateTime uploadDate, 
+                                        @Param("id") UUID id, 
+                                        @Param("limit") int limit);
+
+    /**
+     * Offset page, for jumps to a position no keyset cursor is known for
+     */
+    @Query(value = DocumentSummary.SELECT_FROM + "ORDER BY d.upload_date DESC, d.id DESC OFFSET :offset LIMIT :limit", 
+           nativeQuery = true)
+    List<DocumentSummary> findPageAtOffset(@Param("offset") int offset, @Param("limit") int limit);
+
+    /**
+     * Documents whose name matches a search, via idx_documents_file_name_trgm: names containing the
+     * query (pattern is the escaped "%query%"), or names with a word similar to it.
+     * Prefix matches rank first, then substring matches, then fuzzy matches by similarity.
+     */
+    @Query(value = SEARCH_QUERY, nativeQuery = true)
+    List<DocumentSummary> search(@Param("query") String query, 
+                                 @Param("pattern") String pattern, 
+                                 @Param("prefix") String prefix,
+                                 @Param("offset") int offset, 
+                                 @Param("limit") int limit);
+
+    /**
+     * Number of documents matching a search
+     */
+    @Query(value = "SELECT count(*) FROM documents d " + SEARCH_WHERE, nativeQuery = true)
+    long countSearch(@Param("query") String query, @Param("pattern") String pattern);
+
+    /**
+     * Documents whose name starts with prefix (the escaped "query%"), ignoring case, by name
+     */
+    @Query(value = PREFIX_SEARCH_QUERY, nativeQuery = true)
+    List<DocumentSummary> searchByPrefix(@Param("prefix") String prefix, 
+                                         @Param("offset") int offset, 
+                                         @Param("limit") int limit);
+
+    /**
+     * Number of documents whose name starts with prefix
+     */
+    @Query(value = "SELECT count(*) FROM documents d " + PREFIX_WHERE, nativeQuery = true)
+    long countByPrefix(@Param("prefix") String prefix);
+
+    /**
+     * File columns of a document
+     */
+    @Query("SELECT new com.pdfprocessor.repository.DocumentFile(d.id, d.fileName, d.filePath, d.contentHash) " +
+           "FROM Document d WHERE d.id = :id")
+    Optional<DocumentFile> findFileById(@Param("id") UUID id);
+
+    /**
+     * File columns of the newest document with a filename, via idx_documents_file_name
+     */
+    Optional<DocumentFile> findFirstByFileNameOrderByUploadDateDesc(String fileName);
+
+    /**
+     * Ids of other documents sharing the same content hash
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.contentHash = :contentHash AND d.id <> :id")
+    List<UUID> findIdsByContentHashAndIdNot(@Param("contentHash") String contentHash, @Param("id") UUID id);
+
+    /**
+     * Count documents pointing at the same stored file
+     */
+    long countByFilePath(String filePath);
 }
@@ -0,0 +1,14 @@
+package com.pdfprocessor.repository;
+
+/**
+ * Locking operations on documents that go through JDBC instead of JPA
+ */
+public interface DocumentRepositoryCustom {
+
+    /**
+     * Serialize work on one content-addressed blob until the current transaction ends.
+     * Storing a document and deleting the last reference to its blob both hold this lock,
+     * so a new reference can never be created to a blob that is being deleted.
+     */
+    void lockContentHash(String contentHash);
+}
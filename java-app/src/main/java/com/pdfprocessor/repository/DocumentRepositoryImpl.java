@@ -0,0 +1,28 @@
+package com.pdfprocessor.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC implementation of DocumentRepositoryCustom
+ */
+public class DocumentRepositoryImpl implements DocumentRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DocumentRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Transaction-scoped advisory lock keyed by the first 64 bits of the SHA-256;
+     * outside a transaction it would be released immediately, so one is required
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockContentHash(String contentHash) {
+        long key = Long.parseUnsignedLong(contentHash.substring(0, 16), 16);
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, key);
+    }
+}
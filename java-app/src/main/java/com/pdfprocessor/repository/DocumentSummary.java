@@ -0,0 +1,50 @@
+package com.pdfprocessor.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only view of a document for lists: the columns a row shows plus the status of each analysis,
+ * without the file path or any JSON columns
+ */
+public interface DocumentSummary {
+
+    /**
+     * Select list and joins shared by the summary queries in DocumentRepository
+     */
+    String SELECT_FROM = "SELECT d.id AS \"id\", d.file_name AS \"fileName\", d.file_size AS \"fileSize\", " +
+                         "d.upload_date AS \"uploadDate\", " +
+                         "dd.status AS \"deepdoctectionStatus\", dl.status AS \"doclingStatus\" " +
+                         "FROM documents d " +
+                         "LEFT JOIN analysis_status dd ON dd.document_id = d.id AND dd.analysis_type = 'deepdoctection' " +
+                         "LEFT JOIN analysis_status dl ON dl.document_id = d.id AND dl.analysis_type = 'docling' ";
+
+    UUID getId();
+
+    String getFileName();
+
+    Long getFileSize();
+
+    LocalDateTime getUploadDate();
+
+    /**
+     * Status of the deepdoctection analysis, or null if it never ran
+     */
+    String getDeepdoctectionStatus();
+
+    /**
+     * Status of the docling analysis, or null if it never ran
+     */
+    String getDoclingStatus();
+
+    /**
+     * Status of an analysis by type, or null if it never ran
+     */
+    default String getStatus(String analysisType) {
+        return switch (analysisType) {
+            case "deepdoctection" -> getDeepdoctectionStatus();
+            case "docling" -> getDoclingStatus();
+            default -> null;
+        };
+    }
+}
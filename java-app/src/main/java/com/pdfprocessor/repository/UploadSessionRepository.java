@@ -0,0 +1,44 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for UploadSession entity operations
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    /**
+     * Find upload sessions that have not received data since the given time
+     */
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+
+    /**
+     * Load an upload session and lock its row until the transaction ends, serializing finalization across nodes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Like findByIdForUpdate, but fails with a PessimisticLockingFailureException instead of waiting
+     * when another transaction holds the row (FOR UPDATE NOWAIT)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdateNoWait(@Param("id") UUID id);
+}
@@ -0,0 +1,105 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisFile;
+import com.pdfprocessor.repository.AnalysisFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for exporting analysis result images as a ZIP archive.
+ * The archive is written straight to the given stream with STORED entries: PNGs are already
+ * compressed, and nothing is staged on disk or buffered beyond a fixed-size copy buffer.
+ */
+@Service
+public class AnalysisArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisArchiveService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AnalysisFileRepository analysisFileRepository;
+
+    public AnalysisArchiveService(AnalysisFileRepository analysisFileRepository) {
+        this.analysisFileRepository = analysisFileRepository;
+    }
+
+    /**
+     * Write the result images of the given documents and analysis types as a ZIP.
+     * Entries are named documentId/analysisType/page_N.png.
+     */
+    public void writeZip(List<UUID> documentIds, List<String> analysisTypes, OutputStream outputStream) throws IOException {
+        logger.info("Exporting analysis images for {} documents, types: {}", documentIds.size(), analysisTypes);
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int entryCount = 0;
+
+        for (UUID documentId : documentIds) {
+            for (String analysisType : analysisTypes) {
+                List<AnalysisFile> results = analysisFileRepository
+                    .findByDocumentIdAndAnalysisTypeOrderByPageNumber(documentId, analysisType);
+
+                for (AnalysisFile result : results) {
+                    Path file = Paths.get(result.getResultFilePath());
+                    if (!Files.isRegularFile(file)) {
+                        logger.warn("Skipping missing analysis result file: {}", file);
+                        continue;
+                    }
+
+                    String entryName = documentId + "/" + analysisType + "/" + file.getFileName();
+                    writeStoredEntry(zip, entryName, file, buffer);
+                    entryCount++;
+                }
+            }
+        }
+
+        zip.finish();
+        zip.flush();
+        logger.info("Exported {} analysis images", entryCount);
+    }
+
+    /**
+     * STORED entries need size and CRC before their data, so the file is read once to checksum it
+     * and once more to copy it
+     */
+    private void writeStoredEntry(ZipOutputStream zip, String entryName, Path file, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+        }
+
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc.getValue());
+        entry.setTime(Files.getLastModifiedTime(file).toMillis());
+
+        zip.putNextEntry(entry);
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+        }
+        zip.closeEntry();
+    }
+}
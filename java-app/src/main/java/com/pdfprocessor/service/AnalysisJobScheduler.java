@@ -0,0 +1,115 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Worker loop of the analysis job queue.
+ * Claims due jobs per engine up to the in-flight cap and hands them to the analysis service without blocking;
+ * jobs whose run stops renewing its lease (heartbeats and pages, within analysis.timeout) are retried or reconciled.
+ */
+@Component
+public class AnalysisJobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobScheduler.class);
+
+    private final AnalysisJobService analysisJobService;
+    private final AnalysisService analysisService;
+    private final AnalysisLeaseService analysisLeaseService;
+
+    @Value("${analysis.jobs.max-in-flight-per-engine:2}")
+    private int maxInFlightPerEngine;
+
+    @Value("${analysis.jobs.interactive-reserved-slots:1}")
+    private int interactiveReservedSlots;
+
+    @Value("${analysis.timeout:300000}")
+    private long analysisTimeout;
+
+    public AnalysisJobScheduler(AnalysisJobService analysisJobService, AnalysisService analysisService,
+                                AnalysisLeaseService analysisLeaseService) {
+        this.analysisJobService = analysisJobService;
+        this.analysisService = analysisService;
+        this.analysisLeaseService = analysisLeaseService;
+    }
+
+    /**
+     * Dispatch due jobs of every engine
+     */
+    @Scheduled(fixedDelayString = "${analysis.jobs.poll-interval-ms:1000}")
+    public void dispatchJobs() {
+        for (String analysisType : AnalysisService.ANALYSIS_TYPES) {
+            List<AnalysisJob> jobs;
+            try {
+                jobs = analysisJobService.claimJobs(analysisType, maxInFlightPerEngine, interactiveReservedSlots);
+            } catch (RuntimeException e) {
+                logger.error("Could not claim {} analysis jobs", analysisType, e);
+                continue;
+            }
+            for (AnalysisJob job : jobs) {
+                dispatch(job);
+            }
+        }
+    }
+
+    private void dispatch(AnalysisJob job) {
+        logger.info("Dispatching analysis job {} (attempt {})", job.getId(), job.getAttempts());
+        try {
+            analysisService.dispatchAnalysis(job.getDocumentId(), job.getAnalysisType())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null 
+                            ? error.getCause() : error;
+                        analysisService.handleAttemptFailure(job.getDocumentId(), job.getAnalysisType(), cause.getMessage());
+                    }
+                });
+        } catch (RuntimeException e) {
+            analysisService.handleAttemptFailure(job.getDocumentId(), job.getAnalysisType(), e.getMessage());
+        }
+    }
+
+    /**
+     * Running jobs left over from before a restart are picked up here: they keep running if the analysis service
+     * still reports back, and are retried once they exceed analysis.timeout
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobsAfterStartup() {
+        requeueStaleJobs();
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.jobs.stale-check-interval-ms:60000}", 
+               initialDelayString = "${analysis.jobs.stale-check-interval-ms:60000}")
+    public void requeueStaleJobs() {
+        for (AnalysisJob job : analysisJobService.findStaleJobs(analysisTimeout)) {
+            try {
+                if (analysisLeaseService.isHeld(job.getDocumentId(), job.getAnalysisType())) {
+                    // Still sending heartbeats or pages, which renew its lease; a long document, not a lost run
+                    continue;
+                }
+                if (analysisService.isAnalysisComplete(job.getDocumentId(), job.getAnalysisType())) {
+                    // Results were collected by polling while the completion callback was missed
+                    analysisJobService.finish(job.getDocumentId(), job.getAnalysisType(), true);
+                } else {
+                    // Fail the run under its expired lease, so only one node retries it and its late callbacks are fenced off
+                    Long expiredToken = analysisLeaseService.findToken(job.getDocumentId(), job.getAnalysisType())
+                        .orElse(null);
+                    analysisService.handleAttemptFailure(job.getDocumentId(), job.getAnalysisType(), 
+                        "No heartbeat or result within the lease time", expiredToken);
+                }
+            } catch (IllegalStateException e) {
+                logger.info("Stale analysis job {} was already taken over: {}", job.getId(), e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Could not reconcile stale analysis job {}", job.getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisJob;
+import com.pdfprocessor.entity.AnalysisPriority;
+import com.pdfprocessor.repository.AnalysisJobRepository;
+import com.pdfprocessor.repository.AnalysisJobRepository.LaneSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service for the durable analysis job queue: enqueueing, claiming and retry bookkeeping.
+ * Free engine slots are shared between the priority lanes by smooth weighted round-robin, and some slots
+ * are held back for interactive jobs so a bulk run can never occupy a whole engine.
+ */
+@Service
+public class AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobService.class);
+    private static final List<String> ACTIVE_STATUSES = List.of(AnalysisJob.QUEUED, AnalysisJob.IN_PROGRESS);
+
+    private final AnalysisJobRepository analysisJobRepository;
+
+    /**
+     * Round-robin credit per engine and lane
+     */
+    private final Map<String, Map<AnalysisPriority, Integer>> laneCredits = new ConcurrentHashMap<>();
+
+    /**
+     * Recent enqueue-to-dispatch waits per "analysisType/priority"
+     */
+    private final Map<String, DispatchWaits> dispatchWaits = new ConcurrentHashMap<>();
+
+    @Value("${analysis.jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${analysis.jobs.retry.base-delay-ms:5000}")
+    private long retryBaseDelayMs;
+
+    @Value("${analysis.jobs.retry.max-delay-ms:300000}")
+    private long retryMaxDelayMs;
+
+    public AnalysisJobService(AnalysisJobRepository analysisJobRepository) {
+        this.analysisJobRepository = analysisJobRepository;
+    }
+
+    /**
+     * Queue an analysis. If one is already queued or running for the document and type, that job is kept,
+     * moved up to the requested priority if it is still waiting.
+     *
+     * @return true if a new job was queued, false if an active job already existed
+     */
+    public boolean enqueue(UUID documentId, String analysisType, AnalysisPriority priority) {
+        Optional<AnalysisJob> active = findActiveJob(documentId, analysisType);
+        if (active.isPresent()) {
+            AnalysisJob job = active.get();
+            logger.info("Analysis {} already {} for document: {}", analysisType, job.getStatus(), documentId);
+            if (AnalysisJob.QUEUED.equals(job.getStatus()) && priority.ordinal() < job.getPriority().ordinal()) {
+                job.setPriority(priority);
+                analysisJobRepository.save(job);
+            }
+            return false;
+        }
+        try {
+            AnalysisJob job = analysisJobRepository.save(new AnalysisJob(documentId, analysisType, priority));
+            logger.info("Queued {} analysis job {} for document: {}", analysisType, job.getId(), documentId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent enqueue; uq_analysis_jobs_active guarantees the other job exists
+            findActiveJob(documentId, analysisType).orElseThrow(() -> e);
+            return false;
+        }
+    }
+
+    public Optional<AnalysisJob> findActiveJob(UUID documentId, String analysisType) {
+        return analysisJobRepository.findFirstByDocumentIdAndAnalysisTypeAndStatusIn(documentId, analysisType, ACTIVE_STATUSES);
+    }
+
+    /**
+     * Claim due jobs of one engine, never taking it above maxInFlight running jobs.
+     * Normal and bulk jobs together may use at most maxInFlight - interactiveReserved of them.
+     * Claimers of the same engine on every node take turns, so the cap holds cluster-wide.
+     */
+    @Transactional
+    public List<AnalysisJob> claimJobs(String analysisType, int maxInFlight, int interactiveReserved) {
+        analysisJobRepository.lockEngine(analysisType);
+        long running = analysisJobRepository.countByAnalysisTypeAndStatus(analysisType, AnalysisJob.IN_PROGRESS);
+        int free = (int) Math.max(0, maxInFlight - running);
+        if (free == 0) {
+            return List.of();
+        }
+        long runningOther = analysisJobRepository.countByAnalysisTypeAndStatusAndPriorityNot(
+            analysisType, AnalysisJob.IN_PROGRESS, AnalysisPriority.INTERACTIVE);
+        int reserved = Math.min(interactiveReserved, maxInFlight - 1);
+        int freeForOther = (int) Math.max(0, Math.min(free, maxInFlight - reserved - runningOther));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<AnalysisPriority> candidates = new ArrayList<>(Arrays.asList(AnalysisPriority.values()));
+        List<AnalysisJob> claimed = new ArrayList<>();
+        while (free > 0 && !candidates.isEmpty()) {
+            AnalysisPriority lane = nextLane(analysisType, candidates);
+            boolean interactive = lane == AnalysisPriority.INTERACTIVE;
+            List<AnalysisJob> jobs = interactive || freeForOther > 0 
+                ? analysisJobRepository.lockDueJobs(analysisType, lane.name(), now, 1) : List.of();
+            if (jobs.isEmpty()) {
+                candidates.remove(lane);
+                continue;
+            }
+
+            AnalysisJob job = jobs.get(0);
+            if (job.getAttempts() == 0) {
+                recordDispatchWait(job, now);
+            }
+            job.setStatus(AnalysisJob.IN_PROGRESS);
+            job.setStartedAt(now);
+            job.setAttempts(job.getAttempts() + 1);
+            claimed.add(job);
+            free--;
+            if (!interactive) {
+                freeForOther--;
+            }
+        }
+        return analysisJobRepository.saveAll(claimed);
+    }
+
+    /**
+     * Smooth weighted round-robin: every candidate lane earns its weight, the richest lane is picked
+     * and pays the total, so over time each lane gets slots in proportion to its weight
+     */
+    private synchronized AnalysisPriority nextLane(String analysisType, List<AnalysisPriority> candidates) {
+        Map<AnalysisPriority, Integer> credits = laneCredits.computeIfAbsent(analysisType, 
+            type -> new EnumMap<>(AnalysisPriority.class));
+        AnalysisPriority best = null;
+        int totalWeight = 0;
+        for (AnalysisPriority lane : candidates) {
+            int credit = credits.merge(lane, lane.getWeight(), Integer::sum);
+            totalWeight += lane.getWeight();
+            if (best == null || credit > credits.get(best)) {
+                best = lane;
+            }
+        }
+        credits.merge(best, -totalWeight, Integer::sum);
+        return best;
+    }
+
+    /**
+     * Queue depth, running jobs and wait times per engine and lane
+     */
+    public List<Map<String, Object>> getQueueMetrics() {
+        Map<String, LaneSummary> summaries = new HashMap<>();
+        for (LaneSummary summary : analysisJobRepository.summarizeActiveLanes(LocalDateTime.now())) {
+            summaries.put(summary.getAnalysisType() + "/" + summary.getPriority(), summary);
+        }
+
+        List<Map<String, Object>> metrics = new ArrayList<>();
+        for (String analysisType : AnalysisService.ANALYSIS_TYPES) {
+            for (AnalysisPriority priority : AnalysisPriority.values()) {
+                String key = analysisType + "/" + priority.name();
+                LaneSummary summary = summaries.get(key);
+                Map<String, Object> lane = new LinkedHashMap<>();
+                lane.put("analysisType", analysisType);
+                lane.put("priority", priority.name());
+                lane.put("weight", priority.getWeight());
+                lane.put("queued", summary != null ? summary.getQueued() : 0L);
+                lane.put("running", summary != null ? summary.getRunning() : 0L);
+                lane.put("oldestWaitSeconds", summary != null && summary.getOldestWaitSeconds() != null 
+                    ? summary.getOldestWaitSeconds() : 0.0);
+                lane.putAll(dispatchWaits.getOrDefault(key, DispatchWaits.EMPTY).snapshot());
+                metrics.add(lane);
+            }
+        }
+        return metrics;
+    }
+
+    private void recordDispatchWait(AnalysisJob job, LocalDateTime now) {
+        if (job.getCreatedAt() == null) {
+            return;
+        }
+        long waitMs = Math.max(0, Duration.between(job.getCreatedAt(), now).toMillis());
+        dispatchWaits.computeIfAbsent(job.getAnalysisType() + "/" + job.getPriority().name(), 
+            key -> new DispatchWaits()).record(waitMs);
+    }
+
+    /**
+     * Record a failed attempt of the active job. The job is re-queued with exponential backoff
+     * until maxAttempts is reached, after which it is marked FAILED.
+     *
+     * @return true if the job will be retried
+     */
+    @Transactional
+    public boolean retryOrFail(UUID documentId, String analysisType, String error) {
+        Optional<AnalysisJob> jobOpt = findActiveJob(documentId, analysisType);
+        if (jobOpt.isEmpty()) {
+            return false;
+        }
+
+        AnalysisJob job = jobOpt.get();
+        job.setLastError(error);
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(AnalysisJob.FAILED);
+            analysisJobRepository.save(job);
+            logger.warn("Analysis job {} failed after {} attempts: {}", job.getId(), job.getAttempts(), error);
+            return false;
+        }
+
+        long delayMs = backoffDelayMs(job.getAttempts());
+        job.setStatus(AnalysisJob.QUEUED);
+        job.setStartedAt(null);
+        job.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000));
+        analysisJobRepository.save(job);
+        logger.info("Retrying analysis job {} in {} ms (attempt {} failed: {})", 
+                   job.getId(), delayMs, job.getAttempts(), error);
+        return true;
+    }
+
+    /**
+     * Mark the active job of a document and type as finished
+     */
+    @Transactional
+    public void finish(UUID documentId, String analysisType, boolean successful) {
+        findActiveJob(documentId, analysisType).ifPresent(job -> {
+            job.setStatus(successful ? AnalysisJob.COMPLETED : AnalysisJob.FAILED);
+            analysisJobRepository.save(job);
+        });
+    }
+
+    /**
+     * Running jobs that have not finished within the timeout; their analysis service run is presumed lost
+     */
+    public List<AnalysisJob> findStaleJobs(long timeoutMs) {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(timeoutMs * 1_000_000);
+        return analysisJobRepository.findByStatusAndStartedAtBefore(AnalysisJob.IN_PROGRESS, cutoff);
+    }
+
+    /**
+     * Wait times of the most recent first dispatches of one lane
+     */
+    private static class DispatchWaits {
+
+        private static final int CAPACITY = 256;
+        private static final DispatchWaits EMPTY = new DispatchWaits();
+
+        private final long[] waitsMs = new long[CAPACITY];
+        private int size;
+        private int next;
+        private long total;
+
+        synchronized void record(long waitMs) {
+            waitsMs[next] = waitMs;
+            next = (next + 1) % CAPACITY;
+            size = Math.min(size + 1, CAPACITY);
+            total++;
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            long[] recent = Arrays.copyOf(waitsMs, size);
+            Arrays.sort(recent);
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("dispatched", total);
+            snapshot.put("recentAvgWaitMs", size == 0 ? 0 : (long) Arrays.stream(recent).average().orElse(0));
+            snapshot.put("recentP95WaitMs", size == 0 ? 0 : recent[Math.min(size - 1, (int) Math.ceil(size * 0.95) - 1)]);
+            snapshot.put("recentMaxWaitMs", size == 0 ? 0 : recent[size - 1]);
+            return snapshot;
+        }
+    }
+
+    /**
+     * base * 2^(attempt - 1), capped, with +/-20% jitter so failed jobs do not retry in lockstep
+     */
+    private long backoffDelayMs(int attempt) {
+        long delay = retryBaseDelayMs << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, retryMaxDelayMs);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (delay * jitter);
+    }
+}
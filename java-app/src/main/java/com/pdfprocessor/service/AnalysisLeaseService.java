@@ -0,0 +1,111 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.repository.AnalysisLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service for lease-based ownership of (document, analysis type) work across application nodes.
+ * Only the lease holder dispatches an analysis, and callbacks carrying an outdated fencing token are rejected,
+ * so a run that was given up on can never overwrite the state of its replacement.
+ */
+@Service
+public class AnalysisLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisLeaseService.class);
+
+    private final AnalysisLeaseRepository analysisLeaseRepository;
+    private final String nodeId;
+    private final double leaseTtlSeconds;
+
+    public AnalysisLeaseService(AnalysisLeaseRepository analysisLeaseRepository,
+                                @Value("${analysis.node-id:}") String configuredNodeId,
+                                @Value("${analysis.timeout:300000}") long leaseTtlMs) {
+        this.analysisLeaseRepository = analysisLeaseRepository;
+        this.nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        this.leaseTtlSeconds = leaseTtlMs / 1000.0;
+        logger.info("Analysis lease owner id: {}", nodeId);
+    }
+
+    /**
+     * Take the lease for this node
+     *
+     * @return the fencing token, or empty if another node holds the lease
+     */
+    @Transactional
+    public Optional<Long> acquire(UUID documentId, String analysisType) {
+        if (analysisLeaseRepository.tryAcquire(documentId, analysisType, nodeId, leaseTtlSeconds) == 0) {
+            return Optional.empty();
+        }
+        Optional<Long> token = analysisLeaseRepository.findFencingToken(documentId, analysisType);
+        if (token.isPresent()) {
+            logger.debug("Acquired lease for document: {} type: {} token: {}", documentId, analysisType, token.get());
+        }
+        return token;
+    }
+
+    /**
+     * Extend the lease while its run is making progress
+     */
+    @Transactional
+    public boolean renew(UUID documentId, String analysisType, long token) {
+        return analysisLeaseRepository.renew(documentId, analysisType, token, leaseTtlSeconds) > 0;
+    }
+
+    @Transactional
+    public void release(UUID documentId, String analysisType, long token) {
+        analysisLeaseRepository.release(documentId, analysisType, token);
+    }
+
+    /**
+     * Whether the token belongs to the latest owner of the lease
+     */
+    public boolean isCurrent(UUID documentId, String analysisType, long token) {
+        return analysisLeaseRepository.findFencingToken(documentId, analysisType)
+            .map(current -> current == token)
+            .orElse(false);
+    }
+
+    /**
+     * Token of the latest owner of the lease, expired or not; empty if no lease was ever taken
+     */
+    public Optional<Long> findToken(UUID documentId, String analysisType) {
+        return analysisLeaseRepository.findFencingToken(documentId, analysisType);
+    }
+
+    /**
+     * Whether a lease was ever taken for the analysis, expired or not
+     */
+    public boolean wasLeased(UUID documentId, String analysisType) {
+        return findToken(documentId, analysisType).isPresent();
+    }
+
+    /**
+     * Whether some node currently holds an unexpired lease
+     */
+    public boolean isHeld(UUID documentId, String analysisType) {
+        return analysisLeaseRepository.isHeld(documentId, analysisType);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,153 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisFile;
+import com.pdfprocessor.entity.AnalysisStatus;
+import com.pdfprocessor.repository.AnalysisStatusRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merged analysis PDFs as cached artifacts, keyed by document, analysis type and the version of the
+ * analysis's status row (which changes whenever pages are added or the status changes, and only then). An artifact is built once in the background,
+ * normally right after the analysis completes, and served from disk afterwards.
+ * Concurrent requests for an artifact that is still being built share the same build.
+ */
+@Service
+public class AnalysisPdfService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisPdfService.class);
+    private static final String ANALYSIS_BASE_DIR = "uploads/analysis";
+
+    private final AnalysisService analysisService;
+    private final AnalysisStatusRepository analysisStatusRepository;
+    private final PdfMergeService pdfMergeService;
+    private final Map<ArtifactKey, CompletableFuture<Path>> builds = new ConcurrentHashMap<>();
+
+    @Value("${analysis.pdf.build-parallelism:2}")
+    private int buildParallelism;
+
+    private ExecutorService buildExecutor;
+
+    public AnalysisPdfService(AnalysisService analysisService, 
+                              AnalysisStatusRepository analysisStatusRepository,
+                              PdfMergeService pdfMergeService) {
+        this.analysisService = analysisService;
+        this.analysisStatusRepository = analysisStatusRepository;
+        this.pdfMergeService = pdfMergeService;
+    }
+
+    private record ArtifactKey(UUID documentId, String analysisType, long version) {
+    }
+
+    @PostConstruct
+    void startBuildPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        buildExecutor = Executors.newFixedThreadPool(buildParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "analysis-pdf-build-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopBuildPool() {
+        buildExecutor.shutdown();
+    }
+
+    /**
+     * Build the artifact as soon as an analysis completes, so the first view does not wait for it
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnalysisProgress(AnalysisProgressEvent event) {
+        if (!event.isCompleted()) {
+            return;
+        }
+        getMergedPdf(event.documentId(), event.analysisType())
+            .exceptionally(error -> {
+                logger.warn("Could not prebuild merged PDF for document {} type {}: {}", 
+                           event.documentId(), event.analysisType(), error.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * The merged PDF of the current result set: completed at once if it is already on disk,
+     * otherwise the (possibly already running) build
+     *
+     * @throws IllegalArgumentException if the analysis was never started
+     */
+    public CompletableFuture<Path> getMergedPdf(UUID documentId, String analysisType) {
+        AnalysisStatus status = analysisStatusRepository.findByDocumentIdAndAnalysisType(documentId, analysisType)
+            .orElseThrow(() -> new IllegalArgumentException("No " + analysisType + " analysis for document " + documentId));
+        ArtifactKey key = new ArtifactKey(documentId, analysisType, status.getVersion());
+
+        Path artifact = artifactPath(key);
+        if (Files.exists(artifact)) {
+            return CompletableFuture.completedFuture(artifact);
+        }
+
+        CompletableFuture<Path> build = builds.computeIfAbsent(key, 
+            k -> CompletableFuture.supplyAsync(() -> buildArtifact(k), buildExecutor));
+        build.whenComplete((path, error) -> builds.remove(key, build));
+        return build;
+    }
+
+    private Path buildArtifact(ArtifactKey key) {
+        List<AnalysisFile> pages = analysisService.getAnalysisResults(key.documentId(), key.analysisType());
+        if (pages.isEmpty()) {
+            throw new IllegalStateException("No analysis results for document " + key.documentId() 
+                + " type " + key.analysisType());
+        }
+
+        logger.info("Building merged PDF for document {} type {} version {} ({} pages)", 
+                   key.documentId(), key.analysisType(), key.version(), pages.size());
+        try {
+            Path artifact = pdfMergeService.createAnalysisPdf(artifactPath(key), pages);
+            removeOlderVersions(key, artifact);
+            return artifact;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path artifactPath(ArtifactKey key) {
+        return Paths.get(ANALYSIS_BASE_DIR, key.documentId().toString(), key.analysisType())
+            .resolve(artifactPrefix(key) + key.version() + ".pdf");
+    }
+
+    private String artifactPrefix(ArtifactKey key) {
+        return key.documentId() + "_" + key.analysisType() + "_analysis_v";
+    }
+
+    private void removeOlderVersions(ArtifactKey key, Path current) {
+        try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(current.getParent(), artifactPrefix(key) + "*.pdf")) {
+            for (Path artifact : artifacts) {
+                if (!artifact.equals(current)) {
+                    Files.deleteIfExists(artifact);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove older merged PDFs of document {}: {}", key.documentId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pdfprocessor.service;
+
+import java.util.UUID;
+
+/**
+ * Progress of a running analysis, published after each finished page and on completion
+ *
+ * @param pageNumber  the page that just finished, or null for status-only events
+ * @param totalPages  total page count if the engine reported it, otherwise null
+ * @param etaSeconds  estimated seconds remaining, or null when it cannot be estimated yet
+ * @param status      QUEUED, IN_PROGRESS, COMPLETED or FAILED
+ */
+public record AnalysisProgressEvent(UUID documentId, String analysisType, Integer pageNumber,
+                                    long pagesDone, Integer totalPages, Long etaSeconds, String status) {
+
+    public boolean isCompleted() {
+        return "COMPLETED".equals(status);
+    }
+
+    public boolean isFailed() {
+        return "FAILED".equals(status);
+    }
+
+    /**
+     * Compact NOTIFY payload: the components in order, separated by spaces, with "-" for absent parts
+     */
+    public String toPayload() {
+        return documentId + " " + analysisType + " " + orDash(pageNumber) + " " + pagesDone + " " 
+            + orDash(totalPages) + " " + orDash(etaSeconds) + " " + status;
+    }
+
+    public static AnalysisProgressEvent fromPayload(String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length != 7) {
+            throw new IllegalArgumentException("Invalid progress payload: " + payload);
+        }
+        return new AnalysisProgressEvent(UUID.fromString(parts[0]), parts[1], 
+            "-".equals(parts[2]) ? null : Integer.valueOf(parts[2]), 
+            Long.parseLong(parts[3]), 
+            "-".equals(parts[4]) ? null : Integer.valueOf(parts[4]), 
+            "-".equals(parts[5]) ? null : Long.valueOf(parts[5]), 
+            parts[6]);
+    }
+
+    private static String orDash(Object value) {
+        return value != null ? value.toString() : "-";
+    }
+}
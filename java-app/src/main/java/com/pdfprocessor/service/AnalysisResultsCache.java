@@ -0,0 +1,202 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process LRU cache of the page result list and status of each (document, analysis type).
+ * Entries are never re-validated against the database or file system; they are dropped by the
+ * CacheInvalidationBus events that the ingestion, status and delete paths publish on any node.
+ */
+@Component
+public class AnalysisResultsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisResultsCache.class);
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, CacheEntry> entries;
+
+    /**
+     * Loads running outside the lock, guarded by entries. An invalidation of a load's key marks it stale,
+     * so the result it read before the change is not stored; loads of other keys are unaffected.
+     */
+    private final Set<PendingLoad> pendingLoads = new HashSet<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AnalysisResultsCache(@Value("${analysis.cache.max-entries:1000}") int maxEntries, 
+                                CacheInvalidationBus invalidationBus) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+                if (size() > AnalysisResultsCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    private void onInvalidation(CacheInvalidationEvent event) {
+        switch (event.kind()) {
+            case ANALYSIS -> invalidate(event.documentId(), event.analysisType());
+            case DOCUMENT -> invalidateDocument(event.documentId());
+            case ALL -> clear();
+        }
+    }
+
+    private record Key(UUID documentId, String analysisType) {
+    }
+
+    /**
+     * One load in progress; identity-based so concurrent loads of the same key are tracked separately
+     */
+    private static class PendingLoad {
+        final Key key;
+        boolean stale;
+
+        PendingLoad(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Parts are loaded independently; null means not loaded yet
+     */
+    private static class CacheEntry {
+        List<AnalysisFile> pages;
+        Optional<String> state;
+    }
+
+    /**
+     * Cached page list, or the loader's result which is cached unless its key was invalidated while loading
+     */
+    public List<AnalysisFile> get(UUID documentId, String analysisType, Supplier<List<AnalysisFile>> loader) {
+        return lookup(new Key(documentId, analysisType), entry -> entry.pages, 
+            () -> List.copyOf(loader.get()), (entry, pages) -> entry.pages = pages);
+    }
+
+    /**
+     * Cached page list without loading it on a miss, for callers that can answer a miss more cheaply themselves
+     */
+    public Optional<List<AnalysisFile>> peek(UUID documentId, String analysisType) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(new Key(documentId, analysisType));
+            if (entry != null && entry.pages != null) {
+                hits.incrementAndGet();
+                return Optional.of(entry.pages);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Cached analysis status (empty if never started), loaded like get
+     */
+    public Optional<String> getState(UUID documentId, String analysisType, Supplier<Optional<String>> loader) {
+        return lookup(new Key(documentId, analysisType), entry -> entry.state, 
+            loader, (entry, state) -> entry.state = state);
+    }
+
+    private <T> T lookup(Key key, Function<CacheEntry, T> getter, Supplier<T> loader, BiConsumer<CacheEntry, T> setter) {
+        PendingLoad load = new PendingLoad(key);
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && getter.apply(entry) != null) {
+                hits.incrementAndGet();
+                return getter.apply(entry);
+            }
+            pendingLoads.add(load);
+        }
+
+        misses.incrementAndGet();
+        try {
+            T loaded = loader.get();
+            synchronized (entries) {
+                if (!load.stale) {
+                    setter.accept(entries.computeIfAbsent(key, k -> new CacheEntry()), loaded);
+                }
+            }
+            return loaded;
+        } finally {
+            synchronized (entries) {
+                pendingLoads.remove(load);
+            }
+        }
+    }
+
+    /**
+     * Drop the page list and status of one analysis, e.g. after pages were stored or its status changed
+     */
+    public void invalidate(UUID documentId, String analysisType) {
+        Key key = new Key(documentId, analysisType);
+        evict(key::equals, () -> entries.remove(key));
+    }
+
+    /**
+     * Drop every cached analysis of a document, e.g. after it was deleted
+     */
+    public void invalidateDocument(UUID documentId) {
+        Predicate<Key> ofDocument = key -> key.documentId().equals(documentId);
+        evict(ofDocument, () -> entries.keySet().removeIf(ofDocument));
+    }
+
+    /**
+     * Drop everything
+     */
+    public void clear() {
+        evict(key -> true, entries::clear);
+    }
+
+    private void evict(Predicate<Key> affected, Runnable removal) {
+        synchronized (entries) {
+            removal.run();
+            for (PendingLoad load : pendingLoads) {
+                if (affected.test(load.key)) {
+                    load.stale = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hit/miss counters and current size
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        logger.debug("Analysis results cache stats: {}", stats);
+        return stats;
+    }
+}
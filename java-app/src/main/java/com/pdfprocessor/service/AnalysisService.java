@@ -1,33 +1,47 @@
 package com.pdfprocessor.service;
 
+import com.pdfprocessor.client.AnalysisResultsResponse;
+import com.pdfprocessor.client.AnalysisResultsResponse.PageResult;
+import com.pdfprocessor.client.AnalysisServiceClient;
+import com.pdfprocessor.client.AnalyzeRequest;
+import com.pdfprocessor.client.AnalyzeResponse;
 import com.pdfprocessor.entity.AnalysisFile;
-import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.entity.AnalysisPriority;
+import com.pdfprocessor.entity.AnalysisStatus;
 import com.pdfprocessor.repository.AnalysisFileRepository;
+import com.pdfprocessor.repository.AnalysisFileRepositoryCustom.PageRow;
+import com.pdfprocessor.repository.AnalysisStatusRepository;
+import com.pdfprocessor.repository.DocumentFile;
 import com.pdfprocessor.repository.DocumentRepository;
 import com.pdfprocessor.util.FileUtils;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for handling PDF analysis operations
@@ -37,145 +51,334 @@ public class AnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalysisService.class);
 
+    /**
+     * Supported analysis engines
+     */
+    public static final List<String> ANALYSIS_TYPES = List.of("deepdoctection", "docling");
+
     private final AnalysisFileRepository analysisFileRepository;
+    private final AnalysisStatusRepository analysisStatusRepository;
+    private final AnalysisResultsCache analysisResultsCache;
+    private final CacheInvalidationBus invalidationBus;
     private final DocumentRepository documentRepository;
-    private final RestTemplate restTemplate;
+    private final AnalysisServiceClient analysisServiceClient;
+    private final AnalysisJobService analysisJobService;
+    private final AnalysisLeaseService analysisLeaseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${analysis.python.service.url:http://localhost:8000}")
-    private String pythonServiceUrl;
+    /**
+     * Start time per running analysis ("documentId/analysisType"), used to estimate the remaining time
+     */
+    private final Map<String, Long> analysisStartTimes = new ConcurrentHashMap<>();
 
-    @Value("${analysis.results.dir:./analysis_results}")
+    @Value("${analysis.results.dir:./uploads/analysis}")
     private String analysisResultsDir;
 
     @Value("${analysis.timeout:300000}")
     private int analysisTimeout;
 
+    @Value("${analysis.callback.url:http://localhost:8080/api/analysis/callback}")
+    private String callbackUrl;
+
+    @Value("${analysis.callback.secret:}")
+    private String callbackSecret;
+
     @Autowired
     public AnalysisService(AnalysisFileRepository analysisFileRepository, 
-                          DocumentRepository documentRepository) {
+                          AnalysisStatusRepository analysisStatusRepository,
+                          AnalysisResultsCache analysisResultsCache,
+                          CacheInvalidationBus invalidationBus,
+                          DocumentRepository documentRepository,
+                          AnalysisServiceClient analysisServiceClient,
+                          AnalysisJobService analysisJobService,
+                          AnalysisLeaseService analysisLeaseService,
+                          ApplicationEventPublisher eventPublisher,
+                          TransactionTemplate transactionTemplate) {
         this.analysisFileRepository = analysisFileRepository;
+        this.analysisStatusRepository = analysisStatusRepository;
+        this.analysisResultsCache = analysisResultsCache;
+        this.invalidationBus = invalidationBus;
         this.documentRepository = documentRepository;
-        this.restTemplate = new RestTemplate();
+        this.analysisServiceClient = analysisServiceClient;
+        this.analysisJobService = analysisJobService;
+        this.analysisLeaseService = analysisLeaseService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    void initCallbackSecret() {
+        if (callbackSecret.isBlank()) {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            callbackSecret = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+            logger.warn("analysis.callback.secret is not set; using a random secret, callbacks routed to other nodes will be rejected");
+        }
+    }
+
+    /**
+     * Whether a callback presented the shared secret handed to the analysis service with each job
+     */
+    public boolean isCallbackAuthorized(String presentedSecret) {
+        return presentedSecret != null && MessageDigest.isEqual(
+            presentedSecret.getBytes(StandardCharsets.UTF_8), callbackSecret.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Start analysis for a document
+     * Start analysis for a document in the NORMAL lane
      */
     @Transactional
     public void startAnalysis(UUID documentId, String analysisType) {
-        logger.info("Starting analysis for document: {} with type: {}", documentId, analysisType);
+        startAnalysis(documentId, analysisType, AnalysisPriority.NORMAL);
+    }
+
+    /**
+     * Start analysis for a document.
+     * The analysis is queued; AnalysisJobScheduler hands it to the Python service when an engine slot is free.
+     */
+    @Transactional
+    public void startAnalysis(UUID documentId, String analysisType, AnalysisPriority priority) {
+        logger.info("Starting analysis for document: {} with type: {} priority: {}", documentId, analysisType, priority);
 
         // Find document
-        Optional<Document> documentOpt = documentRepository.findById(documentId);
+        Optional<DocumentFile> documentOpt = documentRepository.findFileById(documentId);
         if (documentOpt.isEmpty()) {
             throw new IllegalArgumentException("Document not found: " + documentId);
         }
 
-        Document document = documentOpt.get();
+        DocumentFile document = documentOpt.get();
 
         // Validate analysis type
         if (!isValidAnalysisType(analysisType)) {
             throw new IllegalArgumentException("Invalid analysis type: " + analysisType);
         }
 
+        // Identical content was already analysed: reuse those results instead of running the engine again
+        if (reuseExistingAnalysis(document, analysisType)) {
+            return;
+        }
+
+        // An analysis that is already queued or running keeps its status
+        if (!analysisJobService.enqueue(documentId, analysisType, priority)) {
+            return;
+        }
+
         // Update document analysis status
-        updateDocumentAnalysisStatus(document, analysisType, "IN_PROGRESS");
+        updateAnalysisStatus(documentId, analysisType, "QUEUED", null);
+        publishProgress(documentId, analysisType, null, null, "QUEUED");
+    }
 
-        // Prepare request for Python service
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("document_id", documentId.toString());
-        requestBody.put("analysis_type", analysisType);
-        requestBody.put("file_path", document.getFilePath());
-        requestBody.put("file_name", document.getFileName());
+    /**
+     * Send a claimed job to the Python service under a fresh lease. The returned future fails if the service
+     * does not accept it. Not transactional: the lease and status must be committed before the service can call back.
+     */
+    public CompletableFuture<AnalyzeResponse> dispatchAnalysis(UUID documentId, String analysisType) {
+        DocumentFile document = documentRepository.findFileById(documentId)
+            .orElseThrow(() -> new IllegalArgumentException("Document not found: " + documentId));
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+        long fencingToken = analysisLeaseService.acquire(documentId, analysisType)
+            .orElseThrow(() -> new IllegalStateException("Analysis " + analysisType + " of document " + documentId 
+                + " is leased by another node"));
 
-        // Sadece HTTP isteği için try-catch
-        try {
-            String url = pythonServiceUrl + "/analyze";
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+        updateAnalysisStatus(documentId, analysisType, "IN_PROGRESS", null);
+        analysisStartTimes.put(progressKey(documentId, analysisType), System.currentTimeMillis());
+        publishProgress(documentId, analysisType, null, null, "IN_PROGRESS");
 
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                logger.error("Python service returned error status: {}", response.getStatusCode());
-                updateDocumentAnalysisStatus(document, analysisType, "FAILED");
-                throw new RuntimeException("Analysis service returned error: " + response.getStatusCode());
+        // Prepare request for Python service
+        AnalyzeRequest analyzeRequest = new AnalyzeRequest(documentId.toString(), analysisType, 
+            document.filePath(), document.fileName(), callbackUrl, fencingToken, callbackSecret);
+
+        // The client enforces the connect, read and total deadlines
+        return analysisServiceClient.analyze(analyzeRequest)
+            .whenComplete((response, error) -> {
+                if (error == null) {
+                    logger.info("Analysis started successfully for document: {} ({})", documentId, response.status());
+                } else {
+                    logger.error("Failed to start analysis in Python service for document: {}: {}", 
+                                documentId, error.getMessage());
+                    analysisLeaseService.release(documentId, analysisType, fencingToken);
+                }
+            });
+    }
+
+    /**
+     * A run reported by the analysis service failed. Ignored with an IllegalStateException if the run's lease was superseded.
+     */
+    @Transactional
+    public void handleAttemptFailure(UUID documentId, String analysisType, String error, Long fencingToken) {
+        verifyFencingToken(documentId, analysisType, fencingToken);
+        if (fencingToken != null) {
+            analysisLeaseService.release(documentId, analysisType, fencingToken);
+        }
+        handleAttemptFailure(documentId, analysisType, error);
+    }
+
+    /**
+     * Callbacks without a token are only accepted for analyses that were never leased
+     */
+    private void verifyFencingToken(UUID documentId, String analysisType, Long fencingToken) {
+        if (fencingToken == null) {
+            if (analysisLeaseService.wasLeased(documentId, analysisType)) {
+                throw new IllegalStateException("Missing fencing token for leased analysis of document " + documentId 
+                    + " type " + analysisType);
             }
-            
-            logger.info("Analysis started successfully for document: {}", documentId);
+            return;
+        }
+        if (!analysisLeaseService.isCurrent(documentId, analysisType, fencingToken)) {
+            throw new IllegalStateException("Stale fencing token " + fencingToken + " for document " + documentId 
+                + " type " + analysisType);
+        }
+    }
 
-        } catch (RestClientException e) {
-            logger.error("Failed to connect to Python analysis service for document: {}", documentId, e);
-            updateDocumentAnalysisStatus(document, analysisType, "FAILED");
-            throw new RuntimeException("Analysis service is unavailable: " + e.getMessage());
+    /**
+     * A run of an analysis failed or was lost: queue it again with backoff, or mark it FAILED once retries are exhausted
+     */
+    @Transactional
+    public void handleAttemptFailure(UUID documentId, String analysisType, String error) {
+        if (!documentRepository.existsById(documentId)) {
+            throw new IllegalArgumentException("Document not found: " + documentId);
         }
+
+        analysisStartTimes.remove(progressKey(documentId, analysisType));
+        String status = analysisJobService.retryOrFail(documentId, analysisType, error) ? "QUEUED" : "FAILED";
+        updateAnalysisStatus(documentId, analysisType, status, error);
+        publishProgress(documentId, analysisType, null, null, status);
     }
 
     /**
-     * Get analysis results for a document and analysis type
+     * Copy the analysis of another document with the same content hash.
+     * Page images are hard-linked into this document's result directory, so no image bytes are duplicated.
      */
-    public List<AnalysisFile> getAnalysisResults(UUID documentId, String analysisType) {
-        logger.info("Getting analysis results for document: {} with type: {}", documentId, analysisType);
+    @Transactional
+    public boolean reuseExistingAnalysis(DocumentFile document, String analysisType) {
+        if (document.contentHash() == null) {
+            return false;
+        }
 
-        List<AnalysisFile> results = analysisFileRepository
-            .findByDocumentIdAndAnalysisTypeOrderByPageNumber(documentId, analysisType);
+        for (UUID donorId : documentRepository.findIdsByContentHashAndIdNot(document.contentHash(), document.id())) {
+            if (!isAnalysisComplete(donorId, analysisType)) {
+                continue;
+            }
+            List<AnalysisFile> donorResults = getAnalysisResults(donorId, analysisType);
+            if (donorResults.isEmpty()) {
+                continue;
+            }
 
-        // Verify file existence
-        results.removeIf(result -> {
-            Path filePath = Paths.get(result.getResultFilePath());
-            if (!Files.exists(filePath)) {
-                logger.warn("Analysis result file not found: {}", result.getResultFilePath());
-                return true;
+            logger.info("Reusing {} analysis of document {} for identical document {}", 
+                       analysisType, donorId, document.id());
+            int reused = 0;
+            int maxPage = 0;
+            try {
+                for (AnalysisFile donorResult : donorResults) {
+                    Path source = Paths.get(donorResult.getResultFilePath());
+                    // Result layout is <base>/<documentId>/<analysisType>/page_N.png
+                    Path targetDir = source.getParent().getParent().getParent()
+                        .resolve(document.id().toString()).resolve(analysisType);
+                    Files.createDirectories(targetDir);
+                    Path target = targetDir.resolve(source.getFileName());
+                    linkOrCopy(source, target);
+
+                    reused += analysisFileRepository.insertIfAbsent(document.id(), analysisType, 
+                        donorResult.getPageNumber(), target.toString(), donorResult.getFileSize());
+                    maxPage = Math.max(maxPage, donorResult.getPageNumber());
+                }
+            } catch (IOException e) {
+                logger.warn("Could not reuse analysis of document {}: {}", donorId, e.getMessage());
+                continue;
             }
-            return false;
-        });
 
-        return results;
+            analysisStatusRepository.addPages(document.id(), analysisType, reused, maxPage, donorResults.size());
+            invalidationBus.publish(CacheInvalidationEvent.analysis(document.id(), analysisType));
+            updateAnalysisStatus(document.id(), analysisType, "COMPLETED", null);
+            publishProgress(document.id(), analysisType, null, null, "COMPLETED");
+            return true;
+        }
+        return false;
+    }
+
+    private void linkOrCopy(Path source, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target);
+        }
     }
 
     /**
-     * Check if analysis is complete for a document and analysis type
+     * Get analysis results for a document and analysis type, ordered by page number.
+     * Served from AnalysisResultsCache; the list is read-only and files are not checked for existence,
+     * callers serving a file report a missing one themselves.
      */
-    public boolean isAnalysisComplete(UUID documentId, String analysisType) {
-        logger.debug("Checking analysis completion for document: {} with type: {}", documentId, analysisType);
+    public List<AnalysisFile> getAnalysisResults(UUID documentId, String analysisType) {
+        logger.debug("Getting analysis results for document: {} with type: {}", documentId, analysisType);
+        return analysisResultsCache.get(documentId, analysisType, () -> analysisFileRepository
+            .findByDocumentIdAndAnalysisTypeOrderByPageNumber(documentId, analysisType));
+    }
 
-        Optional<Document> documentOpt = documentRepository.findById(documentId);
-        if (documentOpt.isEmpty()) {
-            return false;
+    /**
+     * Get the analysis result of a single page: a binary search of the cached page list if it is cached,
+     * otherwise one indexed single-row query that leaves the cache alone
+     */
+    public Optional<AnalysisFile> getAnalysisResultPage(UUID documentId, String analysisType, int pageNumber) {
+        logger.debug("Getting analysis result for document: {} type: {} page: {}", documentId, analysisType, pageNumber);
+        Optional<List<AnalysisFile>> cached = analysisResultsCache.peek(documentId, analysisType);
+        if (cached.isEmpty()) {
+            return analysisFileRepository.findFirstByDocumentIdAndAnalysisTypeAndPageNumber(documentId, analysisType, pageNumber);
         }
 
-        Document document = documentOpt.get();
-        Map<String, Object> analysisResults = getAnalysisResultsMap(document);
-
-        if (analysisResults == null) {
-            return false;
+        // The cached list is ordered by page number
+        List<AnalysisFile> pages = cached.get();
+        int low = 0;
+        int high = pages.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPage = pages.get(mid).getPageNumber();
+            if (midPage < pageNumber) {
+                low = mid + 1;
+            } else if (midPage > pageNumber) {
+                high = mid - 1;
+            } else {
+                return Optional.of(pages.get(mid));
+            }
         }
+        return Optional.empty();
+    }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> typeResults = (Map<String, Object>) analysisResults.get(analysisType);
-        if (typeResults == null) {
-            return false;
-        }
+    /**
+     * Check if analysis is complete for a document and analysis type
+     */
+    public boolean isAnalysisComplete(UUID documentId, String analysisType) {
+        logger.debug("Checking analysis completion for document: {} with type: {}", documentId, analysisType);
+        return "COMPLETED".equals(getAnalysisState(documentId, analysisType));
+    }
 
-        String status = (String) typeResults.get("status");
-        return "COMPLETED".equals(status);
+    /**
+     * Get the recorded status (QUEUED, IN_PROGRESS, COMPLETED, FAILED) of an analysis, or null if it was never started
+     */
+    public String getAnalysisState(UUID documentId, String analysisType) {
+        return analysisResultsCache.getState(documentId, analysisType, 
+            () -> analysisStatusRepository.findStatus(documentId, analysisType)).orElse(null);
     }
 
     /**
-     * Get analysis status information
+     * Get analysis status information from the analysis's status row
      */
     public Map<String, Object> getAnalysisStatus(UUID documentId, String analysisType) {
         logger.debug("Getting analysis status for document: {} with type: {}", documentId, analysisType);
 
         Map<String, Object> status = new HashMap<>();
+        Optional<AnalysisStatus> analysisStatus = analysisStatusRepository.findByDocumentIdAndAnalysisType(documentId, analysisType);
         
-        long processedPages = analysisFileRepository.countByDocumentIdAndAnalysisType(documentId, analysisType);
-        Integer maxPage = analysisFileRepository.findMaxPageNumberByDocumentIdAndAnalysisType(documentId, analysisType);
-        
-        status.put("processedPages", processedPages);
-        status.put("maxPage", maxPage != null ? maxPage : 0);
-        status.put("complete", isAnalysisComplete(documentId, analysisType));
+        status.put("status", analysisStatus.map(AnalysisStatus::getStatus).orElse(null));
+        status.put("processedPages", analysisStatus.map(AnalysisStatus::getPagesDone).orElse(0));
+        status.put("maxPage", analysisStatus.map(AnalysisStatus::getMaxPage).orElse(0));
+        status.put("totalPages", analysisStatus.map(AnalysisStatus::getTotalPages).orElse(null));
+        status.put("error", analysisStatus.map(AnalysisStatus::getError).orElse(null));
+        status.put("complete", analysisStatus.map(AnalysisStatus::isCompleted).orElse(false));
 
         return status;
     }
@@ -185,24 +388,9 @@ public class AnalysisService {
      */
     @Transactional
     public void saveAnalysisResult(UUID documentId, String analysisType, int pageNumber, String filePath) {
-        logger.info("Saving analysis result for document: {} type: {} page: {}", documentId, analysisType, pageNumber);
-
-        Optional<Document> documentOpt = documentRepository.findById(documentId);
-        if (documentOpt.isEmpty()) {
-            throw new IllegalArgumentException("Document not found: " + documentId);
-        }
-
-        Document document = documentOpt.get();
-
-        // Check if result already exists
-        if (analysisFileRepository.existsByDocumentIdAndAnalysisTypeAndPageNumber(documentId, analysisType, pageNumber)) {
-            logger.warn("Analysis result already exists for document: {} type: {} page: {}", documentId, analysisType, pageNumber);
-            return;
-        }
-
         // Calculate file size
         long fileSize = 0;
-        Path path = Paths.get(filePath);
+        Path path = resolveResultPath(documentId, analysisType, filePath);
         if (Files.exists(path)) {
             try {
                 fileSize = Files.size(path);
@@ -211,106 +399,235 @@ public class AnalysisService {
             }
         }
 
-        // Create and save analysis file
-        AnalysisFile analysisFile = new AnalysisFile(document, analysisType, pageNumber, filePath);
-        analysisFile.setFileSize(fileSize);
-        analysisFileRepository.save(analysisFile);
+        saveAnalysisResult(documentId, analysisType, pageNumber, filePath, fileSize);
+    }
 
-        logger.info("Analysis result saved successfully: {}", analysisFile.getId());
+    /**
+     * Save analysis result file with a size already known to the caller
+     */
+    @Transactional
+    public void saveAnalysisResult(UUID documentId, String analysisType, int pageNumber, String filePath, long fileSize) {
+        savePage(documentId, analysisType, pageNumber, filePath, fileSize, null);
+    }
+
+    private void savePage(UUID documentId, String analysisType, int pageNumber, String filePath, 
+                          long fileSize, Integer totalPages) {
+        logger.info("Saving analysis result for document: {} type: {} page: {}", documentId, analysisType, pageNumber);
+
+        if (!documentRepository.existsById(documentId)) {
+            throw new IllegalArgumentException("Document not found: " + documentId);
+        }
+        filePath = resolveResultPath(documentId, analysisType, filePath).toString();
+
+        // Insert unless the page is already recorded; concurrent callers on any node cannot create duplicates
+        if (analysisFileRepository.insertIfAbsent(documentId, analysisType, pageNumber, filePath, fileSize) == 0) {
+            logger.warn("Analysis result already exists for document: {} type: {} page: {}", documentId, analysisType, pageNumber);
+            if (totalPages != null) {
+                analysisStatusRepository.addPages(documentId, analysisType, 0, pageNumber, totalPages);
+            }
+            return;
+        }
+        analysisStatusRepository.addPages(documentId, analysisType, 1, pageNumber, totalPages);
+        invalidationBus.publish(CacheInvalidationEvent.analysis(documentId, analysisType));
+
+        logger.info("Analysis result saved successfully for document: {} type: {} page: {}", documentId, analysisType, pageNumber);
     }
 
     /**
-     * Update document analysis status
+     * Save a batch of page results in one go: one document lookup, one batched insert, and file sizes
+     * probed in parallel for pages that did not report one
      */
     @Transactional
-    public void updateDocumentAnalysisStatus(Document document, String analysisType, String status) {
-        logger.info("Updating analysis status for document: {} type: {} status: {}", 
-                   document.getId(), analysisType, status);
+    public void saveAnalysisResults(UUID documentId, String analysisType, List<PageResult> results) {
+        if (!documentRepository.existsById(documentId)) {
+            throw new IllegalArgumentException("Document not found: " + documentId);
+        }
 
-        Map<String, Object> analysisResults = getAnalysisResultsMap(document);
-        if (analysisResults == null) {
-            analysisResults = new HashMap<>();
+        List<PageRow> rows = results.parallelStream()
+            .filter(result -> result.pageNumber() != null && result.filePath() != null)
+            .filter(result -> isResultPath(documentId, analysisType, result.filePath()))
+            .map(result -> {
+                String filePath = resolveResultPath(documentId, analysisType, result.filePath()).toString();
+                return new PageRow(result.pageNumber(), filePath,
+                    result.fileSize() != null ? result.fileSize() : probeFileSize(filePath));
+            })
+            .toList();
+
+        int inserted = analysisFileRepository.insertAllIfAbsent(documentId, analysisType, rows);
+        if (inserted > 0) {
+            int maxPage = rows.stream().mapToInt(PageRow::pageNumber).max().orElse(0);
+            analysisStatusRepository.addPages(documentId, analysisType, inserted, maxPage, null);
+            invalidationBus.publish(CacheInvalidationEvent.analysis(documentId, analysisType));
         }
+        logger.info("Saved {} new of {} analysis results for document: {} type: {}", 
+                   inserted, rows.size(), documentId, analysisType);
+    }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> typeResults = (Map<String, Object>) analysisResults.get(analysisType);
-        if (typeResults == null) {
-            typeResults = new HashMap<>();
+    /**
+     * Normalize a result path reported by the analysis service. Result files must lie in the analysis's own
+     * directory under analysis.results.dir ({documentId}/{analysisType}/); any other path is rejected with an
+     * IllegalArgumentException, as it would later be served to clients.
+     */
+    Path resolveResultPath(UUID documentId, String analysisType, String filePath) {
+        Path resultDir = Paths.get(analysisResultsDir).toAbsolutePath().normalize()
+            .resolve(documentId.toString()).resolve(analysisType);
+        Path path;
+        try {
+            path = Paths.get(filePath).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid result path: " + filePath);
+        }
+        if (!path.startsWith(resultDir) || path.equals(resultDir)) {
+            throw new IllegalArgumentException("Result path outside " + resultDir + ": " + filePath);
         }
+        return path;
+    }
+
+    private boolean isResultPath(UUID documentId, String analysisType, String filePath) {
+        try {
+            resolveResultPath(documentId, analysisType, filePath);
+            return true;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring analysis result of document: {} type: {}: {}", documentId, analysisType, e.getMessage());
+            return false;
+        }
+    }
 
-        typeResults.put("status", status);
-        typeResults.put("lastUpdated", System.currentTimeMillis());
-        analysisResults.put(analysisType, typeResults);
+    private long probeFileSize(String filePath) {
+        try {
+            return Files.size(Paths.get(filePath));
+        } catch (IOException e) {
+            logger.warn("Could not calculate file size for: {}", filePath);
+            return 0;
+        }
+    }
+
+    /**
+     * Record a page reported by the analysis service as soon as it is finished
+     */
+    @Transactional
+    public void recordPageResult(UUID documentId, String analysisType, int pageNumber, String filePath, 
+                                 Long fileSize, Integer totalPages, Long fencingToken) {
+        verifyFencingToken(documentId, analysisType, fencingToken);
+        if (fencingToken != null) {
+            analysisLeaseService.renew(documentId, analysisType, fencingToken);
+        }
+        String resultPath = resolveResultPath(documentId, analysisType, filePath).toString();
+        savePage(documentId, analysisType, pageNumber, resultPath, 
+                 fileSize != null ? fileSize : probeFileSize(resultPath), totalPages);
+        publishProgress(documentId, analysisType, pageNumber, totalPages, "IN_PROGRESS");
+    }
+
+    /**
+     * Heartbeat of a running analysis: extend its lease so a long document is not taken for a lost run.
+     * Fails with an IllegalStateException once the run was superseded, which tells the service to stop.
+     */
+    @Transactional
+    public void renewLease(UUID documentId, String analysisType, long fencingToken) {
+        if (!analysisLeaseService.renew(documentId, analysisType, fencingToken)) {
+            throw new IllegalStateException("Stale fencing token " + fencingToken + " for document " + documentId 
+                + " type " + analysisType);
+        }
+    }
 
-        document.setAnalysisResults(analysisResults);
-        documentRepository.save(document);
+    /**
+     * Record the successful completion reported by the analysis service
+     */
+    @Transactional
+    public void finishAnalysis(UUID documentId, String analysisType, Long fencingToken) {
+        verifyFencingToken(documentId, analysisType, fencingToken);
+        if (!documentRepository.existsById(documentId)) {
+            throw new IllegalArgumentException("Document not found: " + documentId);
+        }
+        if (fencingToken != null) {
+            analysisLeaseService.release(documentId, analysisType, fencingToken);
+        }
+        analysisJobService.finish(documentId, analysisType, true);
+        updateAnalysisStatus(documentId, analysisType, "COMPLETED", null);
+        publishProgress(documentId, analysisType, null, null, "COMPLETED");
+        analysisStartTimes.remove(progressKey(documentId, analysisType));
     }
 
     /**
-     * Get analysis results map from document
+     * Publish an AnalysisProgressEvent; listeners receive it once the surrounding transaction commits
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> getAnalysisResultsMap(Document document) {
-        Object analysisResults = document.getAnalysisResults();
-        if (analysisResults instanceof Map) {
-            return (Map<String, Object>) analysisResults;
+    private void publishProgress(UUID documentId, String analysisType, Integer pageNumber, 
+                                 Integer totalPages, String status) {
+        Optional<AnalysisStatus> analysisStatus = analysisStatusRepository.findByDocumentIdAndAnalysisType(documentId, analysisType);
+        long pagesDone = analysisStatus.map(AnalysisStatus::getPagesDone).orElse(0);
+        if (totalPages == null) {
+            totalPages = analysisStatus.map(AnalysisStatus::getTotalPages).orElse(null);
         }
-        return null;
+
+        Long etaSeconds = null;
+        Long startTime = analysisStartTimes.get(progressKey(documentId, analysisType));
+        if ("IN_PROGRESS".equals(status) && startTime != null && totalPages != null && pagesDone > 0) {
+            long elapsedMillis = System.currentTimeMillis() - startTime;
+            etaSeconds = Math.max(0, elapsedMillis * (totalPages - pagesDone) / pagesDone / 1000);
+        }
+
+        eventPublisher.publishEvent(new AnalysisProgressEvent(documentId, analysisType, pageNumber, 
+            pagesDone, totalPages, etaSeconds, status));
+    }
+
+    private String progressKey(UUID documentId, String analysisType) {
+        return documentId + "/" + analysisType;
     }
 
     /**
-     * Poll Python service for analysis results and save them to database
+     * Set the status of an analysis in one atomic statement on its own row
      */
     @Transactional
+    public void updateAnalysisStatus(UUID documentId, String analysisType, String status, String error) {
+        logger.info("Updating analysis status for document: {} type: {} status: {}", 
+                   documentId, analysisType, status);
+        if (analysisStatusRepository.upsertStatus(documentId, analysisType, status, error) > 0) {
+            invalidationBus.publish(CacheInvalidationEvent.analysis(documentId, analysisType));
+        }
+    }
+
+    /**
+     * Poll Python service for analysis results and save them to database.
+     * The service is called before the transaction starts, so no connection is held while waiting for it.
+     */
     public void pollAndSaveAnalysisResults(UUID documentId, String analysisType) {
         logger.info("Polling analysis results for document: {} type: {}", documentId, analysisType);
         
         try {
             // Call Python service to get results
-            String url = pythonServiceUrl + "/results/" + documentId + "/" + analysisType;
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+            AnalysisResultsResponse response = analysisServiceClient.getResults(documentId, analysisType).join();
+            List<PageResult> results = response.results();
             
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> results = (List<Map<String, Object>>) responseBody.get("results");
+            if (!results.isEmpty()) {
+                logger.info("Found {} analysis results for document: {} type: {}", 
+                           results.size(), documentId, analysisType);
                 
-                if (results != null && !results.isEmpty()) {
-                    logger.info("Found {} analysis results for document: {} type: {}", 
-                               results.size(), documentId, analysisType);
-                    
-                    // Save each result to database
-                    for (Map<String, Object> result : results) {
-                        Integer pageNumber = (Integer) result.get("page_number");
-                        String filePath = (String) result.get("file_path");
-                        
-                        if (pageNumber != null && filePath != null) {
-                            saveAnalysisResult(documentId, analysisType, pageNumber, filePath);
-                        }
-                    }
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Save all results in one batch
+                    saveAnalysisResults(documentId, analysisType, results);
                     
-                    // Update document status to completed
-                    Optional<Document> documentOpt = documentRepository.findById(documentId);
-                    if (documentOpt.isPresent()) {
-                        updateDocumentAnalysisStatus(documentOpt.get(), analysisType, "COMPLETED");
+                    // Update document status to completed, unless a run still holds the lease and will report completion itself
+                    if (!analysisLeaseService.isHeld(documentId, analysisType)) {
+                        analysisJobService.finish(documentId, analysisType, true);
+                        updateAnalysisStatus(documentId, analysisType, "COMPLETED", null);
+                        publishProgress(documentId, analysisType, null, null, "COMPLETED");
                     }
-                }
-            } else {
-                logger.warn("Python service returned non-success status: {} for document: {} type: {}", 
-                           response.getStatusCode(), documentId, analysisType);
+                });
             }
             
-        } catch (RestClientException e) {
-            logger.error("Failed to connect to Python service for polling results: document: {} type: {}", 
-                        documentId, analysisType, e);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping analysis results for missing document: {} type: {}", documentId, analysisType);
+        } catch (CompletionException e) {
+            logger.error("Failed to poll Python service for results: document: {} type: {}", 
+                        documentId, analysisType, e.getCause());
         }
     }
 
     /**
      * Validate analysis type
      */
-    private boolean isValidAnalysisType(String analysisType) {
-        return "deepdoctection".equals(analysisType) || "docling".equals(analysisType);
+    public boolean isValidAnalysisType(String analysisType) {
+        return ANALYSIS_TYPES.contains(analysisType);
     }
 
     /**
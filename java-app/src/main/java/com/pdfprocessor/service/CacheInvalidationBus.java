@@ -0,0 +1,197 @@
+package com.pdfprocessor.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cache invalidation across nodes over Postgres LISTEN/NOTIFY.
+ * publish() applies an event to the local subscribers at once, again after the publishing transaction commits
+ * (readers may reload the old rows until then), and sends it with pg_notify, which Postgres delivers to the
+ * other nodes on commit. A listener thread keeps one pooled
+ * connection LISTENing and hands incoming events to the subscribers.
+ * Other node-to-node messages can share that connection on channels of their own (see subscribeChannel).
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String CHANNEL = "pdf_cache_invalidation";
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 2000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Consumer<CacheInvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<String, Consumer<String>> channelSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Prefix of this node's payloads, so the listener can skip events it already applied locally
+     */
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void subscribe(Consumer<CacheInvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Invalidate locally now and on every other node once the current transaction commits
+     */
+    public void publish(CacheInvalidationEvent event) {
+        dispatch(event);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        }
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, origin + " " + event.toPayload());
+        } catch (RuntimeException e) {
+            // Other nodes keep stale entries until their next reconnect clears everything
+            logger.warn("Could not publish cache invalidation {}: {}", event, e.getMessage());
+        }
+    }
+
+    /**
+     * Receive the payloads other nodes send on a channel of its own.
+     * Subscribe before the application is ready; the channel is LISTENed to from the next (re)connect on.
+     */
+    public void subscribeChannel(String channel, Consumer<String> subscriber) {
+        channelSubscribers.put(channel, subscriber);
+    }
+
+    /**
+     * Send a payload to the subscribers of a channel on the other nodes.
+     * Postgres delivers it when the current transaction commits, or at once outside a transaction.
+     */
+    public void notifyOtherNodes(String channel, String payload) {
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, origin + " " + payload);
+        } catch (RuntimeException e) {
+            logger.warn("Could not send {} notification: {}", channel, e.getMessage());
+        }
+    }
+
+    private void dispatch(CacheInvalidationEvent event) {
+        for (Consumer<CacheInvalidationEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                logger.warn("Cache invalidation subscriber failed for {}", event, e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stopListening() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                    for (String channel : channelSubscribers.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+                if (reconnecting) {
+                    // Notifications sent while we were disconnected are lost
+                    dispatch(CacheInvalidationEvent.all());
+                }
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handleNotification(notification.getName(), notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        logger.info("Cache invalidation listener stopped");
+    }
+
+    private void handleNotification(String channel, String payload) {
+        int separator = payload.indexOf(' ');
+        if (separator < 0 || payload.substring(0, separator).equals(origin)) {
+            return;
+        }
+        String message = payload.substring(separator + 1);
+        if (!CHANNEL.equals(channel)) {
+            Consumer<String> subscriber = channelSubscribers.get(channel);
+            try {
+                if (subscriber != null) {
+                    subscriber.accept(message);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring {} notification that could not be handled: {}", channel, payload, e);
+            }
+            return;
+        }
+        try {
+            dispatch(CacheInvalidationEvent.fromPayload(message));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed cache invalidation: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.pdfprocessor.service;
+
+import java.util.UUID;
+
+/**
+ * A change that makes cached data stale, sent between nodes by CacheInvalidationBus.
+ * DOCUMENT: a document was added or deleted. ANALYSIS: pages or status of one analysis changed.
+ * ALL: everything may be stale, e.g. after notifications were missed.
+ */
+public record CacheInvalidationEvent(Kind kind, UUID documentId, String analysisType) {
+
+    public enum Kind {
+        DOCUMENT, ANALYSIS, ALL
+    }
+
+    public static CacheInvalidationEvent document(UUID documentId) {
+        return new CacheInvalidationEvent(Kind.DOCUMENT, documentId, null);
+    }
+
+    public static CacheInvalidationEvent analysis(UUID documentId, String analysisType) {
+        return new CacheInvalidationEvent(Kind.ANALYSIS, documentId, analysisType);
+    }
+
+    public static CacheInvalidationEvent all() {
+        return new CacheInvalidationEvent(Kind.ALL, null, null);
+    }
+
+    /**
+     * Compact NOTIFY payload: "KIND documentId analysisType", with "-" for absent parts
+     */
+    public String toPayload() {
+        return kind + " " + (documentId != null ? documentId : "-") + " " + (analysisType != null ? analysisType : "-");
+    }
+
+    public static CacheInvalidationEvent fromPayload(String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid invalidation payload: " + payload);
+        }
+        return new CacheInvalidationEvent(Kind.valueOf(parts[0]), 
+            "-".equals(parts[1]) ? null : UUID.fromString(parts[1]), 
+            "-".equals(parts[2]) ? null : parts[2]);
+    }
+}
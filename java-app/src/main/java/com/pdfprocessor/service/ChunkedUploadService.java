@@ -0,0 +1,229 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.entity.UploadSession;
+import com.pdfprocessor.repository.UploadSessionRepository;
+import com.pdfprocessor.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service for resumable chunked uploads.
+ * Chunks are appended to a staging file; the document is only created once the upload is finalized.
+ * Appends and finalization hold the session's row lock, so they are serialized on any number of nodes;
+ * an append holds it, and a connection, for as long as its chunk takes to arrive.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+    private static final long TRANSFER_SIZE = 8 * 1024 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileService fileService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload.chunked.expiry-hours:24}")
+    private int expiryHours;
+
+    public ChunkedUploadService(UploadSessionRepository uploadSessionRepository, FileService fileService,
+                                TransactionTemplate transactionTemplate) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileService = fileService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Create a new upload with a known total length
+     */
+    public UploadSession createUpload(String fileName, String mimeType, long uploadLength) throws IOException {
+        if (fileName == null || !fileName.toLowerCase().endsWith(".pdf")) {
+            throw new IllegalArgumentException("Invalid PDF file name: " + fileName);
+        }
+        if (uploadLength <= 0 || uploadLength > fileService.getMaxFileSize()) {
+            throw new IllegalArgumentException("Upload length must be between 1 and " + fileService.getMaxFileSize() + " bytes");
+        }
+
+        Path stagedFile = fileService.createStagingFile();
+        UploadSession session = uploadSessionRepository.save(
+            new UploadSession(fileName, mimeType, uploadLength, stagedFile.toString()));
+        logger.info("Created chunked upload {} for {} ({} bytes)", session.getId(), fileName, uploadLength);
+        return session;
+    }
+
+    public Optional<UploadSession> getUpload(UUID uploadId) {
+        return uploadSessionRepository.findById(uploadId);
+    }
+
+    /**
+     * Append bytes at the given offset. The offset must match what is already stored.
+     * If the connection drops mid-chunk, the bytes that did arrive are kept and the
+     * client resumes from the reported offset.
+     *
+     * @return the new upload offset
+     */
+    public long appendChunk(UUID uploadId, long offset, InputStream body) throws IOException {
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> appendLocked(uploadId, offset, body));
+        } catch (PessimisticLockingFailureException e) {
+            throw new IllegalStateException("Upload " + uploadId + " is already receiving a chunk or being finalized");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (result.failure() != null) {
+            throw result.failure();
+        }
+        return result.offset();
+    }
+
+    /**
+     * Offset after a chunk, and the error that cut the chunk short, if any
+     */
+    private record ChunkResult(long offset, IOException failure) {
+    }
+
+    /**
+     * Write a chunk under the session's row lock. A body that breaks off is not an error of the transaction:
+     * the offset of the bytes that did arrive still commits, and the failure is handed back to the caller.
+     */
+    private ChunkResult appendLocked(UUID uploadId, long offset, InputStream body) {
+        UploadSession session = uploadSessionRepository.findByIdForUpdateNoWait(uploadId)
+            .orElseThrow(() -> new IllegalArgumentException("Upload not found: " + uploadId));
+        if (session.isFinalized()) {
+            throw new IllegalStateException("Upload " + uploadId + " is already finalized");
+        }
+
+        try {
+            // The staging file is the source of truth; the stored offset may lag after a crash
+            Path stagedFile = Paths.get(session.getStagingPath());
+            long storedBytes = Files.size(stagedFile);
+            if (offset != storedBytes) {
+                throw new IllegalStateException("Upload offset mismatch: expected " + storedBytes + " but got " + offset);
+            }
+
+            IOException failure = null;
+            long remaining = session.getUploadLength() - storedBytes;
+            try (FileChannel channel = FileChannel.open(stagedFile, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(body)) {
+                long position = storedBytes;
+                while (remaining > 0) {
+                    long transferred = channel.transferFrom(source, position, Math.min(remaining, TRANSFER_SIZE));
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+                if (remaining == 0 && body.read() != -1) {
+                    logger.warn("Upload {} received more bytes than its declared length", uploadId);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            session.setUploadOffset(Math.min(Files.size(stagedFile), session.getUploadLength()));
+            uploadSessionRepository.save(session);
+            return new ChunkResult(session.getUploadOffset(), failure);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Turn a fully received upload into a document. Idempotent: finalizing again returns the same document.
+     * Content rejected as not a valid PDF deletes the upload.
+     *
+     * @return the document, or empty if there is no such upload
+     */
+    public Optional<Document> finalizeUpload(UUID uploadId) throws IOException {
+        try {
+            return transactionTemplate.execute(status -> finalizeLocked(uploadId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            // The staging file was discarded with the rejected content; the session cannot be finalized any more
+            uploadSessionRepository.findById(uploadId).ifPresent(uploadSessionRepository::delete);
+            logger.info("Rejected chunked upload {}: {}", uploadId, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Store the document and mark the session finalized in one transaction, under the session's row lock
+     */
+    private Optional<Document> finalizeLocked(UUID uploadId) {
+        Optional<UploadSession> sessionOpt = uploadSessionRepository.findByIdForUpdate(uploadId);
+        if (sessionOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        UploadSession session = sessionOpt.get();
+        if (session.isFinalized()) {
+            return Optional.of(fileService.getDocumentById(session.getDocumentId())
+                .orElseThrow(() -> new IllegalStateException("Document of upload " + uploadId + " no longer exists")));
+        }
+        if (!session.isComplete()) {
+            throw new IllegalStateException("Upload is incomplete: " + session.getUploadOffset() + " of "
+                + session.getUploadLength() + " bytes received");
+        }
+
+        try {
+            Path stagedFile = Paths.get(session.getStagingPath());
+            String contentHash = FileUtils.sha256Hex(stagedFile);
+            Document document = fileService.storeStagedFile(stagedFile, session.getFileName(),
+                session.getMimeType(), contentHash);
+
+            session.setDocumentId(document.getId());
+            uploadSessionRepository.save(session);
+            logger.info("Finalized chunked upload {} as document {}", uploadId, document.getId());
+            return Optional.of(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Abort an upload and remove its staging file
+     */
+    public boolean terminateUpload(UUID uploadId) {
+        Optional<UploadSession> sessionOpt = uploadSessionRepository.findById(uploadId);
+        if (sessionOpt.isEmpty()) {
+            return false;
+        }
+        fileService.discardStagedFile(Paths.get(sessionOpt.get().getStagingPath()));
+        uploadSessionRepository.delete(sessionOpt.get());
+        logger.info("Terminated chunked upload {}", uploadId);
+        return true;
+    }
+
+    /**
+     * Remove uploads that have been idle for longer than the configured expiry
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000L)
+    public void expireAbandonedUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(expiryHours);
+        for (UploadSession session : uploadSessionRepository.findByUpdatedAtBefore(cutoff)) {
+            logger.info("Expiring abandoned upload {}", session.getId());
+            terminateUpload(session.getId());
+        }
+    }
+}
@@ -1,24 +1,43 @@
 package com.pdfprocessor.service;
 
 import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.repository.DocumentFile;
 import com.pdfprocessor.repository.DocumentRepository;
+import com.pdfprocessor.repository.DocumentSummary;
 import com.pdfprocessor.util.FileUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for handling file operations
@@ -27,60 +46,389 @@ import java.util.UUID;
 public class FileService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileService.class);
-    private static final long MAX_FILE_SIZE = 50 * 1024 * 1024; // 50MB
     private static final String PDF_MIME_TYPE = "application/pdf";
+    private static final String STAGING_DIR_NAME = ".staging";
+    private static final String OBJECTS_DIR_NAME = "objects";
+    // Shorter queries have no trigram to narrow idx_documents_file_name_trgm by, so they match name prefixes only
+    private static final int MIN_FUZZY_QUERY_LENGTH = 3;
 
     private final DocumentRepository documentRepository;
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * Document count shown in the UI, dropped by DOCUMENT invalidations from any node
+     */
+    private Long documentCount;
+    private long documentInvalidations;
+
+    /**
+     * Stored file of recently served documents by id, in LRU order; entries are dropped by the same invalidations
+     */
+    private final LinkedHashMap<UUID, DocumentFile> documentFiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, DocumentFile> eldest) {
+            return size() > documentFileCacheSize;
+        }
+    };
+
+    @Value("${file.path-cache.max-entries:10000}")
+    private int documentFileCacheSize;
 
     @Value("${file.upload.dir:./uploads}")
     private String uploadDir;
 
-    public FileService(DocumentRepository documentRepository) {
+    @Value("${file.upload.max-size:52428800}") // 50MB
+    private long maxFileSize;
+
+    @Value("${file.upload.batch.parallelism:4}")
+    private int ingestParallelism;
+
+    private ExecutorService ingestExecutor;
+
+    /**
+     * This bean's proxy, for transactional calls made from the ingest pool
+     */
+    @Autowired
+    @Lazy
+    private FileService self;
+
+    public FileService(DocumentRepository documentRepository, CacheInvalidationBus invalidationBus) {
         this.documentRepository = documentRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(event -> {
+            if (event.kind() != CacheInvalidationEvent.Kind.ANALYSIS) {
+                invalidateDocument(event);
+            }
+        });
+    }
+
+    /**
+     * Position in the newest-first document list; the next page starts after this document
+     */
+    public record DocumentCursor(LocalDateTime uploadDate, UUID id) {
+
+        public static DocumentCursor of(DocumentSummary document) {
+            return new DocumentCursor(document.getUploadDate(), document.getId());
+        }
     }
+
+    /**
+     * A file that has been fully written to the staging area and hashed, but not yet registered
+     */
+    public record StagedUpload(Path stagedFile, String originalFileName, String mimeType, String contentHash) {
+    }
+
+    /**
+     * Outcome of one file in a batch upload
+     */
+    public record BatchItemResult(String fileName, Document document, String error) {
+
+        static BatchItemResult success(String fileName, Document document) {
+            return new BatchItemResult(fileName, document, null);
+        }
+
+        static BatchItemResult failure(String fileName, String error) {
+            return new BatchItemResult(fileName, null, error);
+        }
+
+        public boolean isSuccess() {
+            return document != null;
+        }
+    }
+
+    @PostConstruct
+    void startIngestPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ingestExecutor = Executors.newFixedThreadPool(ingestParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "file-ingest-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopIngestPool() {
+        ingestExecutor.shutdown();
+    }
+
     @Transactional
     public Document uploadFile(MultipartFile file) throws IOException, org.springframework.dao.DataAccessException {
-        logger.info("Starting file upload: {}", file.getOriginalFilename());
+        StagedUpload stagedUpload = stageMultipartFile(file);
+        return storeStagedFile(stagedUpload.stagedFile(), stagedUpload.originalFileName(), 
+            stagedUpload.mimeType(), stagedUpload.contentHash());
+    }
 
+    /**
+     * Ingest several multipart files at once. Each file is written, hashed and inserted on the
+     * bounded ingest pool; a failure only affects its own entry in the result.
+     */
+    public List<BatchItemResult> uploadFiles(List<MultipartFile> files) {
+        logger.info("Starting batch upload of {} files", files.size());
+        List<CompletableFuture<BatchItemResult>> futures = new ArrayList<>();
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    StagedUpload stagedUpload = stageMultipartFile(file);
+                    return BatchItemResult.success(file.getOriginalFilename(), storeStagedUpload(stagedUpload));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Batch upload of {} failed: {}", file.getOriginalFilename(), e.getMessage());
+                    return BatchItemResult.failure(file.getOriginalFilename(), e.getMessage());
+                }
+            }, ingestExecutor));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Register a batch of already staged files on the bounded ingest pool.
+     * Completes once every file is stored or has failed; callers on a UI thread should not block on it.
+     */
+    public CompletableFuture<List<BatchItemResult>> storeStagedFiles(List<StagedUpload> stagedUploads) {
+        logger.info("Storing batch of {} staged uploads", stagedUploads.size());
+        List<CompletableFuture<BatchItemResult>> futures = new ArrayList<>();
+        for (StagedUpload stagedUpload : stagedUploads) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return BatchItemResult.success(stagedUpload.originalFileName(), storeStagedUpload(stagedUpload));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Storing {} failed: {}", stagedUpload.originalFileName(), e.getMessage());
+                    return BatchItemResult.failure(stagedUpload.originalFileName(), e.getMessage());
+                }
+            }, ingestExecutor));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Runs on an ingest pool thread, so storeStagedFile is called through the proxy to get its transaction
+     */
+    private Document storeStagedUpload(StagedUpload stagedUpload) throws IOException {
+        return self.storeStagedFile(stagedUpload.stagedFile(), stagedUpload.originalFileName(),
+            stagedUpload.mimeType(), stagedUpload.contentHash());
+    }
+
+    /**
+     * Validate a multipart file and stream it into a staging file, hashing on the way through
+     */
+    private StagedUpload stageMultipartFile(MultipartFile file) throws IOException {
         // Validate file
-        if (file == null || file.isEmpty() || file.getSize() > MAX_FILE_SIZE || 
+        if (file == null || file.isEmpty() || file.getSize() > maxFileSize || 
             file.getOriginalFilename() == null || !file.getOriginalFilename().toLowerCase().endsWith(".pdf")) {
             throw new IllegalArgumentException("Invalid PDF file");
         }
+        logger.info("Starting file upload: {}", file.getOriginalFilename());
 
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        Path stagedFile = createStagingFile();
+        try {
+            MessageDigest digest = FileUtils.newSha256Digest();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, stagedFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new StagedUpload(stagedFile, file.getOriginalFilename(), file.getContentType(), FileUtils.toHex(digest));
+        } catch (IOException | RuntimeException e) {
+            discardStagedFile(stagedFile);
+            throw e;
         }
+    }
+
+    /**
+     * Create an empty staging file inside the upload directory.
+     * Staging lives on the same file system as the final location so the
+     * finished upload can be moved into place without copying its bytes.
+     */
+    public Path createStagingFile() throws IOException {
+        Path stagingPath = Paths.get(uploadDir).resolve(STAGING_DIR_NAME);
+        Files.createDirectories(stagingPath);
+        return Files.createTempFile(stagingPath, "upload-", ".part");
+    }
 
-        // Generate unique file name
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-        Path filePath = uploadPath.resolve(uniqueFileName);
+    /**
+     * Move a fully written staging file to its content-addressed location and register it as a document.
+     * If a blob with the same hash is already stored, the staging file is dropped and the blob is shared.
+     */
+    @Transactional
+    public Document storeStagedFile(Path stagedFile, String originalFileName, String mimeType, String contentHash) throws IOException {
+        long fileSize = Files.size(stagedFile);
+        if (fileSize == 0 || fileSize > maxFileSize ||
+            originalFileName == null || !originalFileName.toLowerCase().endsWith(".pdf")) {
+            discardStagedFile(stagedFile);
+            throw new IllegalArgumentException("Invalid PDF file");
+        }
 
-        // Save file to disk
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        logger.info("File saved to: {}", filePath);
+        // Held until commit: a concurrent delete of the last document with this content cannot remove
+        // the blob between the existence check and the insert of the new reference
+        documentRepository.lockContentHash(contentHash);
+        Path filePath = resolveContentPath(contentHash);
+        if (Files.exists(filePath)) {
+            discardStagedFile(stagedFile);
+            logger.info("Content {} already stored, reusing: {}", contentHash, filePath);
+        } else {
+            // Rename within the upload directory, no byte copy; the lock rules out a concurrent move to the same path
+            Files.createDirectories(filePath.getParent());
+            Files.move(stagedFile, filePath, StandardCopyOption.ATOMIC_MOVE);
+            deleteBlobOnRollback(contentHash, filePath.toString());
+            logger.info("File saved to: {}", filePath);
+        }
 
         // Create document entity
         Document document = new Document();
         document.setFileName(originalFileName);
-        document.setFileSize(file.getSize());
+        document.setFileSize(fileSize);
         document.setFilePath(filePath.toString());
-        document.setMimeType(file.getContentType());
+        document.setMimeType(mimeType != null ? mimeType : PDF_MIME_TYPE);
+        document.setContentHash(contentHash);
         document.setUploadDate(LocalDateTime.now());
 
         // Save to database
         Document savedDocument = documentRepository.save(document);
+        invalidationBus.publish(CacheInvalidationEvent.document(savedDocument.getId()));
         logger.info("Document saved to database with ID: {}", savedDocument.getId());
         return savedDocument;
     }
 
-    public List<Document> getAllDocuments() {
-        logger.info("Retrieving all documents");
-        return documentRepository.findAllByOrderByUploadDateDesc();
+    /**
+     * A blob this transaction moved into place has no row pointing at it if the transaction rolls back
+     */
+    private void deleteBlobOnRollback(String contentHash, String filePath) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    self.deleteBlobIfUnreferenced(contentHash, filePath);
+                }
+            }
+        });
+    }
+
+    /**
+     * Delete a stored blob unless a document refers to it. Runs in its own transaction under the
+     * content hash lock, so it cannot race an upload that is about to reuse the blob.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deleteBlobIfUnreferenced(String contentHash, String filePath) {
+        if (contentHash != null) {
+            documentRepository.lockContentHash(contentHash);
+        }
+        if (documentRepository.countByFilePath(filePath) > 0) {
+            logger.info("Physical file still referenced by other documents: {}", filePath);
+            return;
+        }
+        try {
+            if (Files.deleteIfExists(Paths.get(filePath))) {
+                logger.info("Physical file deleted: {}", filePath);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete physical file {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Content-addressed blob location: objects/ab/abcdef....pdf
+     */
+    private Path resolveContentPath(String contentHash) {
+        return Paths.get(uploadDir)
+            .resolve(OBJECTS_DIR_NAME)
+            .resolve(contentHash.substring(0, 2))
+            .resolve(contentHash + ".pdf");
+    }
+
+    /**
+     * Remove a staging file left behind by a failed or cancelled upload
+     */
+    public void discardStagedFile(Path stagedFile) {
+        if (stagedFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(stagedFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete staging file {}: {}", stagedFile, e.getMessage());
+        }
+    }
+
+    /**
+     * One page of document summaries, newest first, starting after the cursor (or at the top without one)
+     */
+    public List<DocumentSummary> getDocumentPage(DocumentCursor after, int limit) {
+        logger.debug("Retrieving {} documents after {}", limit, after);
+        if (after == null) {
+            return documentRepository.findFirstPage(limit);
+        }
+        return documentRepository.findPageAfter(after.uploadDate(), after.id(), limit);
+    }
+
+    /**
+     * One page of document summaries at a position, for jumps where no cursor is known
+     */
+    public List<DocumentSummary> getDocumentsAtOffset(int offset, int limit) {
+        logger.debug("Retrieving {} documents at offset {}", limit, offset);
+        return documentRepository.findPageAtOffset(offset, limit);
+    }
+
+    /**
+     * Number of documents
+     */
+    public long countDocuments() {
+        long stamp;
+        synchronized (this) {
+            if (documentCount != null) {
+                return documentCount;
+            }
+            stamp = documentInvalidations;
+        }
+
+        long count = documentRepository.count();
+        synchronized (this) {
+            // Not stored if a document changed while counting
+            if (stamp == documentInvalidations) {
+                documentCount = count;
+            }
+        }
+        return count;
+    }
+
+    private synchronized void invalidateDocument(CacheInvalidationEvent event) {
+        documentInvalidations++;
+        documentCount = null;
+        if (event.kind() == CacheInvalidationEvent.Kind.ALL) {
+            documentFiles.clear();
+        } else {
+            documentFiles.remove(event.documentId());
+        }
+    }
+
+    /**
+     * One page of documents whose name matches the query by prefix, substring or similarity, best matches first;
+     * queries under three characters match by prefix only, in name order
+     */
+    public List<DocumentSummary> searchDocuments(String query, int offset, int limit) {
+        String term = query.trim();
+        logger.debug("Searching {} documents at offset {} for '{}'", limit, offset, term);
+        String escaped = escapeLikePattern(term);
+        if (term.length() < MIN_FUZZY_QUERY_LENGTH) {
+            return documentRepository.searchByPrefix(escaped + "%", offset, limit);
+        }
+        return documentRepository.search(term, "%" + escaped + "%", escaped + "%", offset, limit);
+    }
+
+    /**
+     * Number of documents whose name matches the query
+     */
+    public long countSearchResults(String query) {
+        String term = query.trim();
+        String escaped = escapeLikePattern(term);
+        if (term.length() < MIN_FUZZY_QUERY_LENGTH) {
+            return documentRepository.countByPrefix(escaped + "%");
+        }
+        return documentRepository.countSearch(term, "%" + escaped + "%");
+    }
+
+    private static String escapeLikePattern(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     public Optional<Document> getDocumentById(UUID id) {
@@ -88,36 +436,66 @@ public class FileService {
         return documentRepository.findById(id);
     }
 
-    public Document getDocumentByFileName(String fileName) {
-        logger.info("Retrieving document with filename: {}", fileName);
-        return documentRepository.findByFileName(fileName);
+    /**
+     * Stored file of a document, by primary key and cached in memory
+     */
+    public Optional<DocumentFile> getDocumentFile(UUID id) {
+        long stamp;
+        synchronized (this) {
+            DocumentFile cached = documentFiles.get(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            stamp = documentInvalidations;
+        }
+
+        Optional<DocumentFile> documentFile = documentRepository.findFileById(id);
+        synchronized (this) {
+            // Not stored if a document changed while loading
+            if (documentFile.isPresent() && stamp == documentInvalidations) {
+                documentFiles.put(id, documentFile.get());
+            }
+        }
+        return documentFile;
+    }
+
+    /**
+     * File columns of the newest document with a filename, or null if there is none.
+     * Names are not unique; prefer getDocumentFile.
+     */
+    public DocumentFile getDocumentByFileName(String fileName) {
+        logger.debug("Retrieving document with filename: {}", fileName);
+        return documentRepository.findFirstByFileNameOrderByUploadDateDesc(fileName).orElse(null);
     }
 
     @Transactional
     public boolean deleteDocument(UUID id) {
         logger.info("Deleting document with ID: {}", id);
         
-        Optional<Document> documentOpt = documentRepository.findById(id);
-        if (documentOpt.isPresent()) {
-            Document document = documentOpt.get();
-            
-            // Delete physical file - sadece I/O işlemi için try-catch
-            try {
-                Path filePath = Paths.get(document.getFilePath());
-                if (Files.exists(filePath)) {
-                    Files.delete(filePath);
-                    logger.info("Physical file deleted: {}", filePath);
-                }
-            } catch (IOException e) {
-                logger.warn("Could not delete physical file: {}", e.getMessage());
+        Optional<DocumentFile> documentOpt = documentRepository.findFileById(id);
+        if (documentOpt.isEmpty()) {
+            return false;
+        }
+        DocumentFile document = documentOpt.get();
+
+        documentRepository.deleteById(id);
+
+        // The file goes only once the row delete has committed, so a rollback keeps both;
+        // deleteBlobIfUnreferenced takes the content hash lock that storeStagedFile holds
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                self.deleteBlobIfUnreferenced(document.contentHash(), document.filePath());
             }
+        });
 
-            // Delete from database - I/O işlemi değil, try-catch gereksiz
-            documentRepository.deleteById(id);
-            logger.info("Document deleted from database: {}", id);
-            return true;
-        }
-        return false;
+        invalidationBus.publish(CacheInvalidationEvent.document(id));
+        logger.info("Document deleted from database: {}", id);
+        return true;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
     }
 
     public String getFileSizeInHumanReadable(Long fileSize) {
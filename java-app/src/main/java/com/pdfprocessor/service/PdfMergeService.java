@@ -2,19 +2,29 @@ package com.pdfprocessor.service;
 
 import com.pdfprocessor.entity.AnalysisFile;
 import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.util.PngPdfWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Service for merging analysis images into PDF format
+ * Service for merging analysis images into PDF format.
+ * Pages are written in-process by PngPdfWriter while the next images are prepared in parallel.
  */
 @Service
 public class PdfMergeService {
@@ -22,118 +32,77 @@ public class PdfMergeService {
     private static final Logger logger = LoggerFactory.getLogger(PdfMergeService.class);
     
     /**
-     * Merge analysis images into a single PDF using Python script
+     * Write the merged PDF of the given page images to a file.
+     * The file is written under a temporary name and renamed, so readers never see a partial PDF.
      */
-    public byte[] mergeAnalysisImagesToPdf(Document document, String analysisType, List<AnalysisFile> analysisFiles) {
+    public Path createAnalysisPdf(Path pdfFilePath, List<AnalysisFile> analysisFiles) throws IOException {
+        Path analysisDir = pdfFilePath.toAbsolutePath().getParent();
+        Files.createDirectories(analysisDir);
+        Path tempFile = Files.createTempFile(analysisDir, ".merge-", ".pdf");
+        
         try {
-            // Use Python script to create PDF
-            String pdfPath = createAnalysisPdfWithPython(document.getId().toString(), analysisType);
-            
-            if (pdfPath == null) {
-                throw new RuntimeException("Failed to create PDF using Python script");
+            long startTime = System.currentTimeMillis();
+            int pages;
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                pages = writeAnalysisPdf(analysisFiles, out);
             }
-            
-            // Read the created PDF file
-            Path pdfFilePath = Paths.get(pdfPath);
-            byte[] pdfBytes = Files.readAllBytes(pdfFilePath);
-            
-            logger.info("Successfully created PDF with {} bytes for document {} using Python script", 
-                       pdfBytes.length, document.getId());
-            
-            return pdfBytes;
-            
-        } catch (Exception e) {
-            logger.error("Error merging analysis images to PDF for document {}: {}", 
-                        document.getId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to merge analysis images to PDF", e);
+            Files.move(tempFile, pdfFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Merged {} pages into {} in {} ms", pages, pdfFilePath, System.currentTimeMillis() - startTime);
+            return pdfFilePath;
+        } finally {
+            Files.deleteIfExists(tempFile);
         }
     }
     
     /**
-     * Create analysis PDF using Python script
+     * Stream the merged PDF of the given page images, in list order, to an output stream.
+     * Up to one image per core plus one is prepared ahead of the page being written; unreadable images are skipped.
+     *
+     * @return number of pages written
      */
-    private String createAnalysisPdfWithPython(String documentId, String analysisType) {
-        // Path to Python script
-        String pythonScriptPath = "../python-analysis-service/docling_to_pdf.py";
-        Path scriptPath = Paths.get(pythonScriptPath).toAbsolutePath();
-        
-        if (!Files.exists(scriptPath)) {
-            logger.error("Python script not found at: {}", scriptPath);
-            return null;
-        }
-        
-        // Path to Python executable in virtual environment
-        String pythonExecutable = "../python-analysis-service/myenv/bin/python";
-        Path pythonPath = Paths.get(pythonExecutable).toAbsolutePath();
-        
-        if (!Files.exists(pythonPath)) {
-            logger.error("Python executable not found at: {}", pythonPath);
-            return null;
-        }
-        
-        // Build command
-        ProcessBuilder processBuilder = new ProcessBuilder(
-            pythonPath.toString(), 
-            scriptPath.toString(),
-            documentId,
-            "--analysis-type", analysisType,
-            "--base-dir", "uploads/analysis"
-        );
-        
-        // Set working directory
-        processBuilder.directory(new File("."));
-        
-        // Redirect error stream to output stream
-        processBuilder.redirectErrorStream(true);
-        
-        logger.info("Executing Python script: {}", String.join(" ", processBuilder.command()));
+    public int writeAnalysisPdf(List<AnalysisFile> analysisFiles, OutputStream out) throws IOException {
+        int lookAhead = ForkJoinPool.commonPool().getParallelism() + 1;
+        Iterator<AnalysisFile> remaining = analysisFiles.iterator();
+        Deque<PreparedPage> pending = new ArrayDeque<>();
         
+        PngPdfWriter writer = new PngPdfWriter(out, PngPdfWriter.DEFAULT_DPI);
         try {
-            // Start process
-            Process process = processBuilder.start();
-            
-            // Read output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                    logger.debug("Python output: {}", line);
+            while (remaining.hasNext() || !pending.isEmpty()) {
+                while (pending.size() < lookAhead && remaining.hasNext()) {
+                    AnalysisFile analysisFile = remaining.next();
+                    Path imagePath = Paths.get(analysisFile.getResultFilePath());
+                    pending.add(new PreparedPage(analysisFile.getPageNumber(), 
+                        CompletableFuture.supplyAsync(() -> readImage(imagePath))));
                 }
-            }
-            
-            // Wait for process to complete (with timeout)
-            boolean finished = process.waitFor(30, TimeUnit.SECONDS);
-            
-            if (!finished) {
-                logger.error("Python script timed out after 30 seconds");
-                process.destroyForcibly();
-                return null;
-            }
-            
-            int exitCode = process.exitValue();
-            logger.info("Python script finished with exit code: {}", exitCode);
-            logger.info("Python script output: {}", output.toString());
-            
-            if (exitCode == 0) {
-                // Extract PDF path from output
-                String outputStr = output.toString();
-                if (outputStr.contains("SUCCESS:")) {
-                    String pdfPath = outputStr.substring(outputStr.indexOf("SUCCESS:") + 8).trim();
-                    logger.info("PDF created successfully at: {}", pdfPath);
-                    return pdfPath;
+                
+                PreparedPage next = pending.poll();
+                try {
+                    writer.addPage(next.image().join());
+                } catch (CompletionException e) {
+                    logger.error("Error processing image of page {}: {}", next.pageNumber(), e.getCause().getMessage());
                 }
             }
             
-            logger.error("Python script failed with exit code: {}", exitCode);
-            return null;
-            
-        } catch (Exception e) {
-            logger.error("Error executing Python script: {}", e.getMessage(), e);
-            return null;
+            if (writer.getPageCount() == 0) {
+                throw new IOException("No valid images could be processed");
+            }
+        } finally {
+            pending.forEach(page -> page.image().cancel(false));
+            writer.close();
         }
+        return writer.getPageCount();
     }
     
+    private static PngPdfWriter.PdfImage readImage(Path imagePath) {
+        try {
+            return PngPdfWriter.readImage(imagePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private record PreparedPage(int pageNumber, CompletableFuture<PngPdfWriter.PdfImage> image) {
+    }
     
     /**
      * Check if analysis results are available for merging
@@ -1,5 +1,14 @@
 package com.pdfprocessor.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
 /**
  * Utility class for file operations
  */
@@ -24,4 +33,36 @@ public class FileUtils {
 
         return String.format("%.1f %s", size, units[unitIndex]);
     }
+
+    /**
+     * Create a SHA-256 digest for content hashing
+     */
+    public static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Render a finished digest as lowercase hex
+     */
+    public static String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Compute the SHA-256 of a file by streaming it once
+     */
+    public static String sha256Hex(Path file) throws IOException {
+        MessageDigest digest = newSha256Digest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // digest is updated as the stream is read
+            }
+        }
+        return toHex(digest);
+    }
 }
@@ -0,0 +1,269 @@
+package com.pdfprocessor.util;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Utility for serving files over HTTP with byte-range and conditional request support.
+ * Handles single and multiple ranges (206, multipart/byteranges), If-Range, If-None-Match and
+ * If-Modified-Since (304).
+ * Single regions go through Tomcat's sendfile when the connector offers it, which is zero-copy.
+ * Without sendfile, and for every multipart/byteranges response, FileChannel.transferTo writes into a
+ * channel over the servlet output stream, which copies the bytes through a heap buffer.
+ */
+public class HttpFileSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpFileSender.class);
+
+    private static final int MAX_RANGES = 16;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CRLF = "\r\n";
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    private HttpFileSender() {
+    }
+
+    /**
+     * Write a file to the response, honouring conditional and Range request headers.
+     * Files may be rewritten under the same URL (analysis re-runs rewrite page images in place),
+     * so clients revalidate with the ETag or Last-Modified on every use.
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response,
+                            Path file, String fileName, String contentType) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            logger.warn("File not found: {}", file);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", CACHE_REVALIDATE);
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setHeader("Content-Disposition", "inline; filename=\"" + fileName + "\"");
+
+        boolean headOnly = "HEAD".equalsIgnoreCase(request.getMethod());
+        String rangeHeader = request.getHeader("Range");
+        List<long[]> ranges = null;
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+        }
+
+        if (ranges != null && ranges.isEmpty()) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        if (ranges == null || ranges.size() > MAX_RANGES) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!headOnly) {
+                sendRegion(request, response, file, 0, length);
+            }
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setContentType(contentType);
+            response.setHeader("Content-Range", contentRange(range, length));
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            if (!headOnly) {
+                sendRegion(request, response, file, range[0], range[1] + 1);
+            }
+            return;
+        }
+
+        sendMultipart(response, file, contentType, ranges, length, headOnly);
+    }
+
+    /**
+     * If-None-Match takes precedence; If-Modified-Since is only consulted without it
+     */
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison only; weak validators never match
+            return ifRange.equals(etag);
+        }
+        try {
+            long ifRangeDate = request.getDateHeader("If-Range");
+            return ifRangeDate != -1 && ifRangeDate / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse a Range header into inclusive [start, end] pairs.
+     *
+     * @return null if the header is malformed (it must then be ignored),
+     *         an empty list if no range is satisfiable
+     */
+    static List<long[]> parseRanges(String rangeHeader, long length) {
+        if (!rangeHeader.startsWith("bytes=")) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        for (String spec : rangeHeader.substring(6).split(",")) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // Suffix range: the final N bytes
+                    long suffixLength = Long.parseLong(last);
+                    if (suffixLength > 0 && length > 0) {
+                        ranges.add(new long[]{Math.max(0, length - suffixLength), length - 1});
+                    }
+                    continue;
+                }
+                long start = Long.parseLong(first);
+                if (last.isEmpty()) {
+                    // Open range: from start to the end of the file
+                    if (start < length) {
+                        ranges.add(new long[]{start, length - 1});
+                    }
+                    continue;
+                }
+                long end = Long.parseLong(last);
+                if (end < start) {
+                    return null;
+                }
+                if (start < length) {
+                    ranges.add(new long[]{start, Math.min(end, length - 1)});
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges;
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    /**
+     * Send [start, end) of the file. Uses Tomcat sendfile when the connector offers it,
+     * otherwise FileChannel.transferTo into the response stream (a buffered copy, not zero-copy).
+     */
+    private static void sendRegion(HttpServletRequest request, HttpServletResponse response,
+                                   Path file, long start, long end) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        ServletOutputStream out = response.getOutputStream();
+        transfer(file, start, end, Channels.newChannel(out));
+        out.flush();
+    }
+
+    private static void transfer(Path file, long start, long end, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private static void sendMultipart(HttpServletResponse response, Path file, String contentType,
+                                      List<long[]> ranges, long length, boolean headOnly) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] header = (CRLF + "--" + boundary + CRLF
+                + "Content-Type: " + contentType + CRLF
+                + "Content-Range: " + contentRange(range, length) + CRLF + CRLF)
+                .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (range[1] - range[0] + 1);
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (headOnly) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            transfer(file, range[0], range[1] + 1, channel);
+        }
+        out.write(closing);
+        out.flush();
+    }
+}
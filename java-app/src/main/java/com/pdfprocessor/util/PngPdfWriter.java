@@ -0,0 +1,322 @@
+package com.pdfprocessor.util;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Minimal streaming PDF writer with one full-page image per page.
+ * Pages are written as soon as they are added, so only the image being written is held in memory.
+ * Non-interlaced greyscale, RGB and palette PNGs of up to 8 bits are embedded as they are: their IDAT data
+ * is already a zlib stream with PNG predictors, which PDF decodes natively with FlateDecode and /Predictor 15.
+ * Every other image is decoded once and stored as deflated RGB.
+ */
+public class PngPdfWriter implements Closeable {
+
+    public static final float DEFAULT_DPI = 150f;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int CATALOG_OBJECT = 1;
+    private static final int PAGES_OBJECT = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CountingOutputStream out;
+    private final float dpi;
+    private final List<Long> objectOffsets = new ArrayList<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * An image ready to be embedded: its PDF colour space, optional decode parameters and stream data
+     */
+    public record PdfImage(int width, int height, String colorSpace, int bitsPerComponent,
+                           String decodeParms, byte[] data, boolean passThrough) {
+    }
+
+    /**
+     * @param dpi resolution of the page images; a page is width * 72 / dpi points wide
+     */
+    public PngPdfWriter(OutputStream out, float dpi) throws IOException {
+        this.out = new CountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.dpi = dpi;
+        // Catalog and page tree are written last but keep the first object numbers
+        objectOffsets.add(null);
+        objectOffsets.add(null);
+        // The binary comment marks the file as binary for transfer tools
+        write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+    }
+
+    public int getPageCount() {
+        return pageObjects.size();
+    }
+
+    /**
+     * Append a page showing the image at the writer's resolution
+     */
+    public void addPage(PdfImage image) throws IOException {
+        int imageObject = reserveObject();
+        int contentObject = reserveObject();
+        int pageObject = reserveObject();
+
+        float pageWidth = image.width() * 72f / dpi;
+        float pageHeight = image.height() * 72f / dpi;
+
+        StringBuilder imageDict = new StringBuilder("<< /Type /XObject /Subtype /Image")
+            .append(" /Width ").append(image.width())
+            .append(" /Height ").append(image.height())
+            .append(" /ColorSpace ").append(image.colorSpace())
+            .append(" /BitsPerComponent ").append(image.bitsPerComponent())
+            .append(" /Filter /FlateDecode");
+        if (image.decodeParms() != null) {
+            imageDict.append(" /DecodeParms ").append(image.decodeParms());
+        }
+        imageDict.append(" /Length ").append(image.data().length).append(" >>");
+        writeStreamObject(imageObject, imageDict.toString(), image.data());
+
+        byte[] content = String.format(Locale.ROOT, "q %.3f 0 0 %.3f 0 0 cm /Im0 Do Q\n", pageWidth, pageHeight)
+            .getBytes(StandardCharsets.US_ASCII);
+        writeStreamObject(contentObject, "<< /Length " + content.length + " >>", content);
+
+        beginObject(pageObject);
+        write(String.format(Locale.ROOT,
+            "<< /Type /Page /Parent %d 0 R /MediaBox [0 0 %.3f %.3f] /Resources << /XObject << /Im0 %d 0 R >> >> /Contents %d 0 R >>\n",
+            PAGES_OBJECT, pageWidth, pageHeight, imageObject, contentObject));
+        endObject();
+        pageObjects.add(pageObject);
+    }
+
+    /**
+     * Write the page tree, catalog and cross-reference table, then close the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            StringBuilder kids = new StringBuilder();
+            for (int pageObject : pageObjects) {
+                kids.append(pageObject).append(" 0 R ");
+            }
+            beginObject(PAGES_OBJECT);
+            write("<< /Type /Pages /Kids [" + kids.toString().trim() + "] /Count " + pageObjects.size() + " >>\n");
+            endObject();
+
+            beginObject(CATALOG_OBJECT);
+            write("<< /Type /Catalog /Pages " + PAGES_OBJECT + " 0 R >>\n");
+            endObject();
+
+            long xrefOffset = out.getCount();
+            StringBuilder xref = new StringBuilder("xref\n0 ").append(objectOffsets.size() + 1).append('\n');
+            xref.append("0000000000 65535 f \n");
+            for (Long offset : objectOffsets) {
+                xref.append(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+            }
+            write(xref.toString());
+            write("trailer\n<< /Size " + (objectOffsets.size() + 1) + " /Root " + CATALOG_OBJECT + " 0 R >>\n");
+            write("startxref\n" + xrefOffset + "\n%%EOF\n");
+        } finally {
+            out.close();
+        }
+    }
+
+    private int reserveObject() {
+        objectOffsets.add(null);
+        return objectOffsets.size();
+    }
+
+    private void beginObject(int objectNumber) throws IOException {
+        objectOffsets.set(objectNumber - 1, out.getCount());
+        write(objectNumber + " 0 obj\n");
+    }
+
+    private void endObject() throws IOException {
+        write("endobj\n");
+    }
+
+    private void writeStreamObject(int objectNumber, String dictionary, byte[] data) throws IOException {
+        beginObject(objectNumber);
+        write(dictionary + "\nstream\n");
+        out.write(data);
+        write("\nendstream\n");
+        endObject();
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Prepare an image file for embedding. Thread-safe; meant to be run ahead of the writer on other threads.
+     */
+    public static PdfImage readImage(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            byte[] signature = in.readNBytes(PNG_SIGNATURE.length);
+            if (Arrays.equals(signature, PNG_SIGNATURE)) {
+                PdfImage image = readPngWithoutDecoding(new DataInputStream(in));
+                if (image != null) {
+                    return image;
+                }
+            }
+        }
+        return decodeImage(file);
+    }
+
+    /**
+     * Copy the IDAT stream of a PNG the PDF can decode itself, or null if the PNG needs decoding
+     */
+    private static PdfImage readPngWithoutDecoding(DataInputStream in) throws IOException {
+        int width = 0;
+        int height = 0;
+        int bitDepth = 0;
+        int colorType = -1;
+        byte[] palette = null;
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                throw new IOException("Truncated PNG: no IEND chunk");
+            }
+            byte[] typeBytes = new byte[4];
+            in.readFully(typeBytes);
+            String type = new String(typeBytes, StandardCharsets.US_ASCII);
+
+            switch (type) {
+                case "IHDR" -> {
+                    width = in.readInt();
+                    height = in.readInt();
+                    bitDepth = in.readUnsignedByte();
+                    colorType = in.readUnsignedByte();
+                    int compression = in.readUnsignedByte();
+                    int filter = in.readUnsignedByte();
+                    int interlace = in.readUnsignedByte();
+                    boolean embeddable = compression == 0 && filter == 0 && interlace == 0 && bitDepth <= 8
+                        && (colorType == 0 || colorType == 2 || colorType == 3);
+                    if (!embeddable) {
+                        // Alpha channels, interlacing and 16-bit samples have no direct PDF equivalent
+                        return null;
+                    }
+                }
+                case "PLTE" -> palette = readChunkData(in, length);
+                case "IDAT" -> idat.write(readChunkData(in, length));
+                case "IEND" -> {
+                    return toPdfImage(width, height, bitDepth, colorType, palette, idat.toByteArray());
+                }
+                default -> in.skipNBytes(length);
+            }
+            in.skipNBytes(4); // CRC
+        }
+    }
+
+    private static byte[] readChunkData(DataInputStream in, int length) throws IOException {
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+
+    private static PdfImage toPdfImage(int width, int height, int bitDepth, int colorType,
+                                       byte[] palette, byte[] idat) throws IOException {
+        int colors = colorType == 2 ? 3 : 1;
+        String colorSpace;
+        if (colorType == 3) {
+            if (palette == null || palette.length % 3 != 0) {
+                throw new IOException("Palette PNG without a valid PLTE chunk");
+            }
+            colorSpace = "[/Indexed /DeviceRGB " + (palette.length / 3 - 1) + " <" + HexFormat.of().formatHex(palette) + ">]";
+        } else {
+            colorSpace = colorType == 2 ? "/DeviceRGB" : "/DeviceGray";
+        }
+        String decodeParms = "<< /Predictor 15 /Colors " + colors + " /BitsPerComponent " + bitDepth
+            + " /Columns " + width + " >>";
+        return new PdfImage(width, height, colorSpace, bitDepth, decodeParms, idat, true);
+    }
+
+    /**
+     * Decode any image ImageIO can read into deflated 8-bit RGB; transparency is flattened onto white
+     */
+    private static PdfImage decodeImage(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + file);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(compressed, deflater, BUFFER_SIZE)) {
+            int[] row = new int[width];
+            byte[] rgb = new byte[width * 3];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int argb = row[x];
+                    int alpha = hasAlpha ? argb >>> 24 : 255;
+                    rgb[x * 3] = (byte) blendOnWhite((argb >> 16) & 0xff, alpha);
+                    rgb[x * 3 + 1] = (byte) blendOnWhite((argb >> 8) & 0xff, alpha);
+                    rgb[x * 3 + 2] = (byte) blendOnWhite(argb & 0xff, alpha);
+                }
+                deflated.write(rgb);
+            }
+        } finally {
+            deflater.end();
+        }
+        return new PdfImage(width, height, "/DeviceRGB", 8, null, compressed.toByteArray(), false);
+    }
+
+    private static int blendOnWhite(int channel, int alpha) {
+        return (channel * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    /**
+     * Counts written bytes for the cross-reference table
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.pdfprocessor.vaadin.view;
 
 import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.repository.DocumentSummary;
 import com.pdfprocessor.service.FileService;
 import com.pdfprocessor.service.AnalysisService;
+import com.pdfprocessor.vaadin.view.component.AnalysisProgressBroadcaster;
 import com.pdfprocessor.vaadin.view.component.FileListComponent;
 import com.pdfprocessor.vaadin.view.component.FileUploadComponent;
 import com.pdfprocessor.vaadin.view.component.PdfPreviewComponent;
@@ -16,6 +18,8 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.theme.lumo.LumoUtility;
@@ -34,18 +38,24 @@ public class MainView extends AppLayout {
 
     private static final Logger logger = LoggerFactory.getLogger(MainView.class);
 
+    private static final int SEARCH_DEBOUNCE_MS = 300;
+
     private final FileService fileService;
     private final AnalysisService analysisService;
+    private final AnalysisProgressBroadcaster progressBroadcaster;
     private final VerticalLayout fileListContainer;
     private final VerticalLayout mainContent;
     private Button toggleButton;
     private boolean isSidebarOpen = true;
     private H2 fileListTitle;
+    private TextField searchField;
     private Document selectedDocument;
 
-    public MainView(FileService fileService, AnalysisService analysisService) {
+    public MainView(FileService fileService, AnalysisService analysisService, 
+                    AnalysisProgressBroadcaster progressBroadcaster) {
         this.fileService = fileService;
         this.analysisService = analysisService;
+        this.progressBroadcaster = progressBroadcaster;
         this.fileListContainer = new VerticalLayout();
         this.mainContent = new VerticalLayout();
         
@@ -71,20 +81,34 @@ public class MainView extends AppLayout {
         HorizontalLayout header = createSidebarHeader();
         
         // Upload section
-        Component uploadSection = FileUploadComponent.create(fileService, this::onFileUploaded);
+        Component uploadSection = FileUploadComponent.create(fileService, this::onFilesUploaded);
         
         // File list section
-        fileListTitle = new H2("Uploaded Files (" + getAllDocuments().size() + ")");
+        fileListTitle = new H2("Uploaded Files (" + fileService.countDocuments() + ")");
         fileListTitle.addClassName(LumoUtility.Margin.Top.MEDIUM);
         fileListTitle.addClassName(LumoUtility.Margin.Bottom.SMALL);
         
+        // Search box; typing is debounced so only the settled query is sent to the server
+        searchField = new TextField();
+        searchField.setPlaceholder("Search files");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setWidthFull();
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.setValueChangeTimeout(SEARCH_DEBOUNCE_MS);
+        searchField.addValueChangeListener(event -> updateFileList());
+        
         // File list container
         fileListContainer.setSpacing(false);
         fileListContainer.setPadding(false);
         fileListContainer.setWidthFull();
+        fileListContainer.getStyle().set("min-height", "0");
         updateFileList();
         
-        sidebar.add(header, uploadSection, fileListTitle, fileListContainer);
+        sidebar.add(header, uploadSection, fileListTitle, searchField, fileListContainer);
+        // The virtual list fills the remaining height and scrolls on its own
+        sidebar.setHeightFull();
+        sidebar.setFlexGrow(1, fileListContainer);
         addToDrawer(sidebar);
     }
     
@@ -121,7 +145,8 @@ public class MainView extends AppLayout {
         return header;
     }
 
-    private void onFileUploaded(Document document) {
+    private void onFilesUploaded(List<Document> documents) {
+        // One refresh per batch, however many files it contained
         updateFileList();
         updatePdfViewer();
         updateFileCount();
@@ -169,36 +194,41 @@ public class MainView extends AppLayout {
 
     private void updatePdfViewer() {
         mainContent.removeAll();
-        Component pdfPreview = PdfPreviewComponent.create(selectedDocument, fileService, analysisService);
+        Component pdfPreview = PdfPreviewComponent.create(selectedDocument, fileService, analysisService, 
+                                                           progressBroadcaster);
         mainContent.add(pdfPreview);
     }
     
     private void updateFileList() {
         fileListContainer.removeAll();
-        Component fileList = FileListComponent.create(getAllDocuments(), fileService, 
-            this::onFileDeleted, this::onFileSelected);
+        String searchQuery = searchField != null ? searchField.getValue() : null;
+        Component fileList = FileListComponent.create(fileService, searchQuery, this::onFileDeleted, this::onFileSelected);
         fileListContainer.add(fileList);
     }
     
-    private void onFileDeleted(Document document) {
+    private void onFileDeleted(DocumentSummary document) {
         updateFileList();
         updatePdfViewer();
         updateFileCount();
     }
     
-    private void onFileSelected(Document document) {
-        selectedDocument = document;
+    private void onFileSelected(DocumentSummary document) {
+        // The list only carries summaries; the viewer needs the stored file, so load the one selected document
+        selectedDocument = fileService.getDocumentById(document.getId()).orElse(null);
+        if (selectedDocument == null) {
+            Notification notification = Notification.show("File no longer exists: " + document.getFileName());
+            notification.addThemeVariants(NotificationVariant.LUMO_ERROR);
+            notification.setDuration(5000);
+            updateFileList();
+            updateFileCount();
+        }
         updatePdfViewer();
         logger.info("File selected: {}", document.getFileName());
     }
 
-    private List<Document> getAllDocuments() {
-        return fileService.getAllDocuments();
-    }
-    
     private void updateFileCount() {
         if (fileListTitle != null) {
-            int count = getAllDocuments().size();
+            long count = fileService.countDocuments();
             fileListTitle.setText("Uploaded Files (" + count + ")");
         }
     }
@@ -1,17 +1,15 @@
 package com.pdfprocessor.vaadin.view.component;
 
+import com.pdfprocessor.entity.AnalysisPriority;
 import com.pdfprocessor.entity.Document;
 import com.pdfprocessor.service.AnalysisService;
-import com.pdfprocessor.service.PdfMergeService;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
-import com.vaadin.flow.server.StreamResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 
 /**
  * Analysis panel component for starting and checking analysis
@@ -20,7 +18,8 @@ public class AnalysisPanel {
     
     private static final Logger logger = LoggerFactory.getLogger(AnalysisPanel.class);
     
-    public static Component create(String title, String analysisType, Document selectedDocument, AnalysisService analysisService) {
+    public static Component create(String title, String analysisType, Document selectedDocument, AnalysisService analysisService,
+                                   AnalysisProgressBroadcaster progressBroadcaster) {
         VerticalLayout column = new VerticalLayout();
         column.setSpacing(true);
         column.setPadding(true);
@@ -41,6 +40,7 @@ public class AnalysisPanel {
             column.add(createEmptyState());
         } else {
             Div resultsArea = createResultsArea(analysisType);
+            ResultsDisplay.enableLiveUpdates(resultsArea, selectedDocument, analysisType, analysisService, progressBroadcaster);
             Component controls = createControls(analysisType, selectedDocument, analysisService, resultsArea);
             column.add(controls, (Component) resultsArea);
         }
@@ -125,7 +125,7 @@ public class AnalysisPanel {
         
         startButton.addClickListener(event -> {
             try {
-                analysisService.startAnalysis(selectedDocument.getId(), analysisType);
+                analysisService.startAnalysis(selectedDocument.getId(), analysisType, AnalysisPriority.INTERACTIVE);
                 startButton.setText("Analysis Started...");
                 startButton.setEnabled(false);
                 startButton.getStyle().set("background", "var(--lumo-success-color)");
@@ -166,42 +166,21 @@ public class AnalysisPanel {
             pollButton.getStyle().set("box-shadow", "var(--lumo-box-shadow-xs)");
         });
         
+        // Pages are saved by the analysis callbacks and pushed by the AnalysisProgressBroadcaster;
+        // this reloads the stored results without waiting on the analysis service
         pollButton.addClickListener(event -> {
             try {
-                // Show loading state
-                pollButton.setEnabled(false);
-                pollButton.setText("Checking...");
-                pollButton.getStyle().set("background", "var(--lumo-contrast-10pct)");
+                // Refresh only this panel's results area
+                ResultsDisplay.refreshResultsDisplay(resultsArea, selectedDocument, analysisType, analysisService);
                 
-                // Poll for new results
-                analysisService.pollAndSaveAnalysisResults(selectedDocument.getId(), analysisType);
+                // Update button state
+                pollButton.setText("Results Checked");
+                pollButton.getStyle().set("background", "var(--lumo-primary-color)");
                 
-                // Refresh only this panel's results area using UI.access for thread safety
-                pollButton.getUI().ifPresent(ui -> {
-                    ui.access(() -> {
-                        try {
-                            // Refresh only this panel's results area
-                            ResultsDisplay.refreshResultsDisplay(resultsArea, selectedDocument, analysisType, analysisService);
-                            
-                            // Update button state
-                            pollButton.setEnabled(true);
-                            pollButton.setText("Results Checked");
-                            pollButton.getStyle().set("background", "var(--lumo-primary-color)");
-                            
-                            logger.info("Layout analysis results refreshed for {} analysis panel, document: {}", analysisType, selectedDocument.getId());
-                            
-                        } catch (Exception e) {
-                            logger.error("Error refreshing results display: {}", e.getMessage(), e);
-                            pollButton.setEnabled(true);
-                            pollButton.setText("Error: " + e.getMessage());
-                            pollButton.getStyle().set("background", "var(--lumo-error-color)");
-                        }
-                    });
-                });
+                logger.info("Layout analysis results refreshed for {} analysis panel, document: {}", analysisType, selectedDocument.getId());
                 
             } catch (Exception e) {
-                logger.error("Error polling analysis results: {}", e.getMessage(), e);
-                pollButton.setEnabled(true);
+                logger.error("Error refreshing results display: {}", e.getMessage(), e);
                 pollButton.setText("Error: " + e.getMessage());
                 pollButton.getStyle().set("background", "var(--lumo-error-color)");
             }
@@ -248,17 +227,13 @@ public class AnalysisPanel {
                     return;
                 }
                 
-                // Create PDF merge service (you'll need to inject this properly)
-                PdfMergeService pdfMergeService = new PdfMergeService();
-                byte[] pdfBytes = pdfMergeService.mergeAnalysisImagesToPdf(selectedDocument, analysisType, analysisResults);
-                
-                // Create download resource
-                String fileName = selectedDocument.getFileName().replace(".pdf", "") + "_" + analysisType + "_analysis.pdf";
-                StreamResource resource = new StreamResource(fileName, () -> new ByteArrayInputStream(pdfBytes));
+                // The export endpoint writes the merged PDF page by page into the download, with bounded memory
+                String pdfUrl = "/api/analysis/export/pdf?documentId=" + selectedDocument.getId() 
+                    + "&analysisType=" + analysisType;
                 
                 // Trigger download
                 pdfExportButton.getUI().ifPresent(ui -> {
-                    ui.getPage().executeJs("window.open($0, '_blank')", resource);
+                    ui.getPage().executeJs("window.open($0, '_blank')", pdfUrl);
                 });
                 
                 pdfExportButton.setText("PDF Downloaded!");
@@ -1,21 +1,27 @@
 package com.pdfprocessor.vaadin.view.component;
 
 import com.pdfprocessor.entity.AnalysisFile;
+import com.pdfprocessor.entity.AnalysisPriority;
 import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.service.AnalysisProgressEvent;
 import com.pdfprocessor.service.AnalysisService;
-import com.pdfprocessor.service.PdfMergeService;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.shared.Registration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,7 +31,8 @@ public class AnalysisPdfViewer {
     
     private static final Logger logger = LoggerFactory.getLogger(AnalysisPdfViewer.class);
     
-    public static Component create(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+    public static Component create(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                   AnalysisProgressBroadcaster progressBroadcaster) {
         VerticalLayout container = new VerticalLayout();
         container.setSpacing(true);
         container.setPadding(true);
@@ -43,83 +50,41 @@ public class AnalysisPdfViewer {
             container.add(createEmptyState());
         } else {
             // Header with title and controls
-            container.add(createHeader(selectedDocument, analysisType, analysisService));
+            container.add(createHeader(selectedDocument, analysisType, analysisService, progressBroadcaster));
             
             // Check if analysis results exist
-            if (hasAnalysisResults(selectedDocument, analysisType, analysisService)) {
+            if (isAnalysisRunning(selectedDocument, analysisType, analysisService)) {
+                // Live progress, updated by pushed events
+                container.add(createProgressArea(selectedDocument, analysisType, analysisService, progressBroadcaster));
+            } else if (hasAnalysisResults(selectedDocument, analysisType, analysisService)) {
                 // PDF viewer area
-                Div pdfViewerArea = createPdfViewerArea(selectedDocument, analysisType, analysisService);
+                Div pdfViewerArea = createPdfViewerArea(selectedDocument, analysisType, analysisService, progressBroadcaster);
                 container.add(pdfViewerArea);
             } else {
                 // Show analysis button to start Docling analysis
-                container.add(createAnalysisStartArea(selectedDocument, analysisType, analysisService));
+                container.add(createAnalysisStartArea(selectedDocument, analysisType, analysisService, progressBroadcaster));
             }
         }
         
         return container;
     }
     
+    private static boolean isAnalysisRunning(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+        String state = analysisService.getAnalysisState(selectedDocument.getId(), analysisType);
+        return "QUEUED".equals(state) || "IN_PROGRESS".equals(state);
+    }
+    
     private static boolean hasAnalysisResults(Document selectedDocument, String analysisType, AnalysisService analysisService) {
-        logger.info("Checking analysis results for document: {}, type: {}", selectedDocument.getId(), analysisType);
         List<AnalysisFile> results = analysisService.getAnalysisResults(selectedDocument.getId(), analysisType);
         
-        // More strict check - results must exist, not be null, and not be empty
+        // Served from the results cache; missing page files are reported when each image is loaded
         boolean hasResults = results != null && !results.isEmpty();
-        logger.info("Analysis results found in DB: {}, count: {}", hasResults, results != null ? results.size() : 0);
-        
-        // Additional check: verify that the physical files actually exist
-        if (hasResults) {
-            boolean physicalFilesExist = checkPhysicalFilesExist(selectedDocument.getId().toString(), analysisType);
-            logger.info("Physical files exist: {}", physicalFilesExist);
-            
-            if (!physicalFilesExist) {
-                logger.warn("Analysis results exist in DB but physical files are missing for document: {}", selectedDocument.getId());
-                return false; // Return false if files don't exist
-            }
-            
-            for (AnalysisFile result : results) {
-                logger.info("Analysis result: page={}", result.getPageNumber());
-            }
-        }
+        logger.debug("Analysis results for document: {}, type: {}: {}", selectedDocument.getId(), analysisType, 
+                     results != null ? results.size() : 0);
         
         return hasResults;
     }
     
-    private static boolean checkPhysicalFilesExist(String documentId, String analysisType) {
-        String analysisDir = "uploads/analysis/" + documentId + "/" + analysisType;
-        java.io.File dir = new java.io.File(analysisDir);
-        
-        if (!dir.exists() || !dir.isDirectory()) {
-            logger.info("Analysis directory does not exist: {}", analysisDir);
-            return false;
-        }
-        
-        // Check if there are any image files in the directory
-        String[] imageExtensions = {".png", ".jpg", ".jpeg", ".bmp", ".tiff", ".tif"};
-        java.io.File[] files = dir.listFiles();
-        
-        if (files == null || files.length == 0) {
-            logger.info("No files found in analysis directory: {}", analysisDir);
-            return false;
-        }
-        
-        // Check if any of the files are images
-        for (java.io.File file : files) {
-            if (file.isFile()) {
-                String fileName = file.getName().toLowerCase();
-                for (String ext : imageExtensions) {
-                    if (fileName.endsWith(ext)) {
-                        logger.info("Found image file: {}", file.getName());
-                        return true; // At least one image file exists
-                    }
-                }
-            }
-        }
-        
-        logger.info("No image files found in analysis directory: {}", analysisDir);
-        return false;
-    }
-    
     private static Component createEmptyState() {
         Div emptyState = new Div();
         emptyState.getStyle().set("text-align", "center");
@@ -137,7 +102,8 @@ public class AnalysisPdfViewer {
         return emptyState;
     }
     
-    private static Component createAnalysisStartArea(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+    private static Component createAnalysisStartArea(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                                     AnalysisProgressBroadcaster progressBroadcaster) {
         Div startArea = new Div();
         startArea.setWidth("calc(100% - 4rem)");
         startArea.setHeight("calc(100% - 100px + 189px)");
@@ -175,13 +141,14 @@ public class AnalysisPdfViewer {
         description.getStyle().set("line-height", "1.5");
         
         // Start Analysis Button
-        Button startAnalysisButton = createStartAnalysisButton(selectedDocument, analysisType, analysisService);
+        Button startAnalysisButton = createStartAnalysisButton(selectedDocument, analysisType, analysisService, progressBroadcaster);
         
         startArea.add(iconDiv, title, description, startAnalysisButton);
         return startArea;
     }
     
-    private static Button createStartAnalysisButton(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+    private static Button createStartAnalysisButton(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                                    AnalysisProgressBroadcaster progressBroadcaster) {
         Button startButton = new Button("Start " + analysisType + " Analysis");
         startButton.getStyle().set("background", "var(--lumo-primary-color)");
         startButton.getStyle().set("color", "var(--lumo-primary-contrast-color)");
@@ -211,20 +178,20 @@ public class AnalysisPdfViewer {
         startButton.addClickListener(event -> {
             try {
                 // Start the analysis
-                analysisService.startAnalysis(selectedDocument.getId(), analysisType);
+                analysisService.startAnalysis(selectedDocument.getId(), analysisType, AnalysisPriority.INTERACTIVE);
                 
                 // Update button state
                 startButton.setText("Analysis Started...");
                 startButton.setEnabled(false);
                 startButton.getStyle().set("background", "var(--lumo-success-color)");
+                logger.info("Analysis started for document: {}", selectedDocument.getId());
                 
-                // Show progress message
-                startButton.getUI().ifPresent(ui -> {
-                    ui.access(() -> {
-                        // You could add a progress indicator here
-                        logger.info("Analysis started for document: {}", selectedDocument.getId());
-                    });
-                });
+                // Swap the start area for live progress (or the results, if they could be reused)
+                Component mainContainer = findThisPdfViewerContainer(startButton);
+                if (mainContainer instanceof VerticalLayout) {
+                    refreshThisPdfViewerArea((VerticalLayout) mainContainer, selectedDocument, analysisType, analysisService, 
+                                             progressBroadcaster);
+                }
                 
             } catch (Exception e) {
                 logger.error("Error starting analysis: {}", e.getMessage(), e);
@@ -236,7 +203,8 @@ public class AnalysisPdfViewer {
         return startButton;
     }
     
-    private static Component createHeader(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+    private static Component createHeader(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                          AnalysisProgressBroadcaster progressBroadcaster) {
         HorizontalLayout header = new HorizontalLayout();
         header.setWidthFull();
         header.setJustifyContentMode(com.vaadin.flow.component.orderedlayout.FlexComponent.JustifyContentMode.BETWEEN);
@@ -263,7 +231,7 @@ public class AnalysisPdfViewer {
         HorizontalLayout actionButtons = new HorizontalLayout();
         actionButtons.setSpacing(true);
         
-        Button refreshButton = createRefreshButton(selectedDocument, analysisType, analysisService);
+        Button refreshButton = createRefreshButton(selectedDocument, analysisType, analysisService, progressBroadcaster);
         Button downloadButton = createDownloadButton(selectedDocument, analysisType, analysisService);
         
         actionButtons.add(refreshButton, downloadButton);
@@ -272,7 +240,8 @@ public class AnalysisPdfViewer {
         return header;
     }
     
-    private static Button createRefreshButton(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+    private static Button createRefreshButton(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                              AnalysisProgressBroadcaster progressBroadcaster) {
         Button refreshButton = new Button(VaadinIcon.REFRESH.create());
         refreshButton.getStyle().set("width", "40px");
         refreshButton.getStyle().set("height", "40px");
@@ -295,41 +264,27 @@ public class AnalysisPdfViewer {
             refreshButton.getStyle().set("transform", "scale(1)");
         });
         
-        // Click handler to refresh only this PDF viewer area
+        // Click handler to refresh only this PDF viewer area from the stored results; new pages are pushed
+        // by the AnalysisProgressBroadcaster, so nothing is fetched from the analysis service here
         refreshButton.addClickListener(event -> {
-            // Show loading state
-            refreshButton.setEnabled(false);
-            refreshButton.getStyle().set("background", "var(--lumo-contrast-10pct)");
-            
-            // Poll for new results
-            analysisService.pollAndSaveAnalysisResults(selectedDocument.getId(), analysisType);
+            // Find the main container (this AnalysisPdfViewer's container)
+            Component mainContainer = findThisPdfViewerContainer(refreshButton);
+            if (mainContainer instanceof VerticalLayout) {
+                refreshThisPdfViewerArea((VerticalLayout) mainContainer, selectedDocument, analysisType, analysisService, 
+                                         progressBroadcaster);
+            }
             
-            // Refresh only this PDF viewer area using UI.access for thread safety
-            refreshButton.getUI().ifPresent(ui -> {
-                ui.access(() -> {
-                    // Find the main container (this AnalysisPdfViewer's container)
-                    Component mainContainer = findThisPdfViewerContainer(refreshButton);
-                    if (mainContainer instanceof VerticalLayout) {
-                        refreshThisPdfViewerArea((VerticalLayout) mainContainer, selectedDocument, analysisType, analysisService);
-                    }
-                    
-                    // Reset button state
-                    refreshButton.setEnabled(true);
-                    refreshButton.getStyle().set("background", "var(--lumo-base-color)");
-                    
-                    // Check if results exist and update button color accordingly
-                    var analysisResults = analysisService.getAnalysisResults(selectedDocument.getId(), analysisType);
-                    if (analysisResults != null && !analysisResults.isEmpty()) {
-                        refreshButton.getStyle().set("background", "var(--lumo-success-color)");
-                        refreshButton.getStyle().set("color", "var(--lumo-success-contrast-color)");
-                        logger.info("PDF viewer area refreshed successfully for {} analysis, document: {}", analysisType, selectedDocument.getId());
-                    } else {
-                        refreshButton.getStyle().set("background", "var(--lumo-base-color)");
-                        refreshButton.getStyle().set("color", "var(--lumo-contrast-90pct)");
-                        logger.info("No analysis results found yet for {} analysis, document: {}", analysisType, selectedDocument.getId());
-                    }
-                });
-            });
+            // Check if results exist and update button color accordingly
+            var analysisResults = analysisService.getAnalysisResults(selectedDocument.getId(), analysisType);
+            if (analysisResults != null && !analysisResults.isEmpty()) {
+                refreshButton.getStyle().set("background", "var(--lumo-success-color)");
+                refreshButton.getStyle().set("color", "var(--lumo-success-contrast-color)");
+                logger.info("PDF viewer area refreshed successfully for {} analysis, document: {}", analysisType, selectedDocument.getId());
+            } else {
+                refreshButton.getStyle().set("background", "var(--lumo-base-color)");
+                refreshButton.getStyle().set("color", "var(--lumo-contrast-90pct)");
+                logger.info("No analysis results found yet for {} analysis, document: {}", analysisType, selectedDocument.getId());
+            }
         });
         
         return refreshButton;
@@ -361,7 +316,8 @@ public class AnalysisPdfViewer {
         return downloadButton;
     }
     
-    private static Div createPdfViewerArea(Document selectedDocument, String analysisType, AnalysisService analysisService) {
+    private static Div createPdfViewerArea(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                           AnalysisProgressBroadcaster progressBroadcaster) {
         Div pdfViewerArea = new Div();
         pdfViewerArea.setWidthFull();
         pdfViewerArea.setHeight("calc(100% - 100px + 189px)");
@@ -383,12 +339,12 @@ public class AnalysisPdfViewer {
                 logger.info("Analysis results found, attempting to create PDF viewer");
                 try {
                     // Create merged PDF viewer
-                    Component pdfViewer = createMergedPdfViewer(selectedDocument, analysisType, analysisResults);
+                    Component pdfViewer = createMergedPdfViewer(selectedDocument, analysisType);
                     pdfViewerArea.add(pdfViewer);
                 } catch (Exception pdfError) {
                     logger.error("Error creating merged PDF viewer: {}", pdfError.getMessage(), pdfError);
                     // If PDF creation fails, show analysis start area instead
-                    pdfViewerArea.add(createAnalysisStartArea(selectedDocument, analysisType, analysisService));
+                    pdfViewerArea.add(createAnalysisStartArea(selectedDocument, analysisType, analysisService, progressBroadcaster));
                 }
             }
             
@@ -432,24 +388,137 @@ public class AnalysisPdfViewer {
         return noResults;
     }
     
-    private static Component createMergedPdfViewer(Document selectedDocument, String analysisType, List<AnalysisFile> analysisResults) {
+    /**
+     * Progress area for a running analysis. Registers with the AnalysisProgressBroadcaster while attached;
+     * each pushed event updates the bar and appends the finished page's thumbnail, and completion swaps in the PDF viewer.
+     */
+    private static Div createProgressArea(Document selectedDocument, String analysisType, AnalysisService analysisService,
+                                          AnalysisProgressBroadcaster progressBroadcaster) {
+        Div progressArea = new Div();
+        progressArea.setWidthFull();
+        progressArea.setHeight("calc(100% - 100px + 189px)");
+        progressArea.getStyle().set("border", "1px solid var(--lumo-contrast-10pct)");
+        progressArea.getStyle().set("border-radius", "var(--lumo-border-radius-m)");
+        progressArea.getStyle().set("background", "var(--lumo-contrast-5pct)");
+        progressArea.getStyle().set("box-shadow", "inset 0 1px 3px rgba(0,0,0,0.1)");
+        progressArea.getStyle().set("padding", "2rem");
+        progressArea.getStyle().set("box-sizing", "border-box");
+        progressArea.getStyle().set("overflow-y", "auto");
+        
+        H4 title = new H4("Analysis in Progress");
+        title.getStyle().set("margin", "0 0 1rem 0");
+        title.getStyle().set("color", "var(--lumo-contrast-70pct)");
+        title.getStyle().set("font-size", "var(--lumo-font-size-l)");
+        
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setIndeterminate(true);
+        
+        boolean queued = "QUEUED".equals(analysisService.getAnalysisState(selectedDocument.getId(), analysisType));
+        Span statusText = new Span(queued ? "Queued, waiting for a free analysis worker..." : "Waiting for the first page...");
+        statusText.getStyle().set("color", "var(--lumo-contrast-60pct)");
+        statusText.getStyle().set("font-size", "var(--lumo-font-size-s)");
+        
+        Div thumbnails = new Div();
+        thumbnails.getStyle().set("display", "flex");
+        thumbnails.getStyle().set("flex-wrap", "wrap");
+        thumbnails.getStyle().set("gap", "0.5rem");
+        thumbnails.getStyle().set("margin-top", "1rem");
+        
+        // Pages that finished before this view was opened
+        Set<Integer> shownPages = new HashSet<>();
+        List<AnalysisFile> finishedPages = analysisService.getAnalysisResults(selectedDocument.getId(), analysisType);
+        for (AnalysisFile finishedPage : finishedPages) {
+            addPageThumbnail(thumbnails, shownPages, selectedDocument, analysisType, finishedPage.getPageNumber());
+        }
+        if (!finishedPages.isEmpty()) {
+            statusText.setText(finishedPages.size() + " pages analysed so far");
+        }
+        
+        progressArea.add(title, progressBar, statusText, thumbnails);
+        
+        progressArea.addAttachListener(attachEvent -> {
+            UI ui = attachEvent.getUI();
+            Registration registration = progressBroadcaster.register(selectedDocument.getId(), event -> {
+                if (analysisType.equals(event.analysisType())) {
+                    ui.access(() -> applyProgress(event, progressArea, progressBar, statusText, thumbnails, 
+                                                  shownPages, selectedDocument, analysisService, progressBroadcaster));
+                }
+            });
+            progressArea.addDetachListener(detachEvent -> {
+                registration.remove();
+                detachEvent.unregisterListener();
+            });
+        });
+        
+        return progressArea;
+    }
+    
+    private static void applyProgress(AnalysisProgressEvent event, Div progressArea, ProgressBar progressBar, 
+                                      Span statusText, Div thumbnails, Set<Integer> shownPages,
+                                      Document selectedDocument, AnalysisService analysisService,
+                                      AnalysisProgressBroadcaster progressBroadcaster) {
+        if (event.isCompleted()) {
+            Component mainContainer = findThisPdfViewerContainer(progressArea);
+            if (mainContainer instanceof VerticalLayout) {
+                refreshThisPdfViewerArea((VerticalLayout) mainContainer, selectedDocument, event.analysisType(), analysisService, 
+                                         progressBroadcaster);
+            }
+            return;
+        }
+        if ("QUEUED".equals(event.status())) {
+            statusText.setText("Queued, waiting for a free analysis worker...");
+            return;
+        }
+        if (event.isFailed()) {
+            progressBar.setVisible(false);
+            statusText.setText("Analysis failed after " + event.pagesDone() + " pages");
+            statusText.getStyle().set("color", "var(--lumo-error-color)");
+            return;
+        }
+        
+        if (event.pageNumber() != null) {
+            addPageThumbnail(thumbnails, shownPages, selectedDocument, event.analysisType(), event.pageNumber());
+        }
+        
+        StringBuilder text = new StringBuilder().append(event.pagesDone());
+        if (event.totalPages() != null && event.totalPages() > 0) {
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(Math.min(1.0, (double) event.pagesDone() / event.totalPages()));
+            text.append(" of ").append(event.totalPages());
+        }
+        text.append(" pages analysed");
+        if (event.etaSeconds() != null) {
+            text.append(", about ").append(event.etaSeconds()).append(" s remaining");
+        }
+        statusText.setText(text.toString());
+    }
+    
+    private static void addPageThumbnail(Div thumbnails, Set<Integer> shownPages, Document selectedDocument, 
+                                         String analysisType, int pageNumber) {
+        if (!shownPages.add(pageNumber)) {
+            return;
+        }
+        Image thumbnail = new Image("/api/files/analysis/" + selectedDocument.getId() + "/" + analysisType + "/" + pageNumber,
+                                    "Page " + pageNumber);
+        thumbnail.setWidth("80px");
+        thumbnail.getStyle().set("border", "1px solid var(--lumo-contrast-10pct)");
+        thumbnail.getStyle().set("border-radius", "var(--lumo-border-radius-s)");
+        thumbnail.getStyle().set("background", "var(--lumo-base-color)");
+        thumbnail.getElement().setAttribute("title", "Page " + pageNumber);
+        thumbnails.add(thumbnail);
+    }
+    
+    private static Component createMergedPdfViewer(Document selectedDocument, String analysisType) {
         try {
-            // Create PDF merge service
-            PdfMergeService pdfMergeService = new PdfMergeService();
-            byte[] pdfBytes = pdfMergeService.mergeAnalysisImagesToPdf(selectedDocument, analysisType, analysisResults);
-            
-            // Create iframe for PDF viewing using file path
+            // Create iframe for PDF viewing; the endpoint serves the cached merged PDF artifact
             Div pdfContainer = new Div();
             pdfContainer.setWidth("100%");
             pdfContainer.setHeight("100%");
             
-            // Get the PDF file name
-            String fileName = selectedDocument.getId() + "_" + analysisType + "_analysis.pdf";
-            
             // Create iframe HTML for PDF viewing using API endpoint
             String iframeHtml = String.format(
                 "<iframe src=\"%s#toolbar=1&navpanes=1&scrollbar=1\" width=\"100%%\" height=\"100%%\" style=\"border: none; border-radius: var(--lumo-border-radius-m);\"></iframe>",
-                "/api/files/analysis/" + selectedDocument.getId() + "/" + analysisType + "/pdf/" + fileName
+                "/api/files/analysis/" + selectedDocument.getId() + "/" + analysisType + "/merged.pdf"
             );
             
             pdfContainer.getElement().setProperty("innerHTML", iframeHtml);
@@ -500,7 +569,8 @@ public class AnalysisPdfViewer {
      * Refresh only this specific PDF viewer area without affecting other areas
      */
     private static void refreshThisPdfViewerArea(VerticalLayout mainContainer, Document selectedDocument, 
-                                               String analysisType, AnalysisService analysisService) {
+                                               String analysisType, AnalysisService analysisService,
+                                               AnalysisProgressBroadcaster progressBroadcaster) {
         // Remove ALL existing content areas (both start analysis and PDF viewer areas)
         // Find and remove any existing content divs
         List<Component> componentsToRemove = mainContainer.getChildren()
@@ -513,9 +583,11 @@ public class AnalysisPdfViewer {
             logger.info("Removed existing content area for {} analysis", analysisType);
         });
         
-        // Always create and add the new PDF viewer area
+        // Live progress while the analysis runs, otherwise the PDF viewer area
         // This will show either the PDF (if results exist) or "Analysis in Progress" (if no results yet)
-        Div newPdfViewerArea = createPdfViewerArea(selectedDocument, analysisType, analysisService);
+        Div newPdfViewerArea = isAnalysisRunning(selectedDocument, analysisType, analysisService)
+            ? createProgressArea(selectedDocument, analysisType, analysisService, progressBroadcaster)
+            : createPdfViewerArea(selectedDocument, analysisType, analysisService, progressBroadcaster);
         mainContainer.add(newPdfViewerArea);
         
         logger.info("Refreshed PDF viewer area for {} analysis, document: {} - Results exist: {}", 
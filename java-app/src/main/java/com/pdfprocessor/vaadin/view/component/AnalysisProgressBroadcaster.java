@@ -0,0 +1,98 @@
+package com.pdfprocessor.vaadin.view.component;
+
+import com.pdfprocessor.service.AnalysisProgressEvent;
+import com.pdfprocessor.service.CacheInvalidationBus;
+import com.vaadin.flow.shared.Registration;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Fans analysis progress events out to the views that have a document open.
+ * Views register per document while attached; each event is delivered once per registered view,
+ * off the thread that published it.
+ * Events published on another node arrive over the CacheInvalidationBus connection, so a view sees
+ * the progress of a run whose callbacks reach a different node.
+ */
+@Component
+public class AnalysisProgressBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisProgressBroadcaster.class);
+    private static final String CHANNEL = "pdf_analysis_progress";
+
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<UUID, List<Consumer<AnalysisProgressEvent>>> listeners = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analysis-progress-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AnalysisProgressBroadcaster(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribeChannel(CHANNEL, payload -> broadcast(AnalysisProgressEvent.fromPayload(payload)));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Listen for progress of one document. Remove the registration when the view detaches.
+     */
+    public Registration register(UUID documentId, Consumer<AnalysisProgressEvent> listener) {
+        listeners.computeIfAbsent(documentId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> listeners.computeIfPresent(documentId, (id, documentListeners) -> {
+            documentListeners.remove(listener);
+            return documentListeners.isEmpty() ? null : documentListeners;
+        });
+    }
+
+    /**
+     * Deliver an event to the views registered on this node
+     */
+    public void broadcast(AnalysisProgressEvent event) {
+        List<Consumer<AnalysisProgressEvent>> documentListeners = listeners.get(event.documentId());
+        if (documentListeners == null) {
+            return;
+        }
+        executor.execute(() -> {
+            for (Consumer<AnalysisProgressEvent> listener : documentListeners) {
+                try {
+                    listener.accept(event);
+                } catch (Exception e) {
+                    logger.warn("Analysis progress listener failed for document {}: {}", event.documentId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Sent within the publishing transaction, so Postgres hands it to the other nodes only if it commits
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void sendToOtherNodes(AnalysisProgressEvent event) {
+        invalidationBus.notifyOtherNodes(CHANNEL, event.toPayload());
+    }
+
+    /**
+     * Events are only forwarded once the page or status they describe is committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnalysisProgress(AnalysisProgressEvent event) {
+        broadcast(event);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pdfprocessor.vaadin.view.component;
+
+import com.pdfprocessor.service.FileService;
+import com.pdfprocessor.service.FileService.StagedUpload;
+import com.pdfprocessor.util.FileUtils;
+import com.vaadin.flow.component.upload.MultiFileReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upload receiver that streams each incoming file into its own staging file in the upload directory,
+ * computing its SHA-256 on the way through.
+ * Files are tracked per upload, not per name, so a batch may contain several files with the same name.
+ * Vaadin streams a file and fires its succeeded or failed event on the same request thread, so the
+ * upload being handled on the current thread identifies the file those events refer to.
+ */
+public class DiskUploadReceiver implements MultiFileReceiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskUploadReceiver.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileService fileService;
+    private final Map<UUID, ReceivedFile> receivedFiles = new ConcurrentHashMap<>();
+    private final ThreadLocal<UUID> currentUpload = new ThreadLocal<>();
+
+    public DiskUploadReceiver(FileService fileService) {
+        this.fileService = fileService;
+    }
+
+    @Override
+    public OutputStream receiveUpload(String fileName, String mimeType) {
+        try {
+            Path stagedFile = fileService.createStagingFile();
+            MessageDigest digest = FileUtils.newSha256Digest();
+            UUID uploadId = UUID.randomUUID();
+            receivedFiles.put(uploadId, new ReceivedFile(stagedFile, mimeType, digest));
+            currentUpload.set(uploadId);
+            logger.info("Receiving upload {} into {}", fileName, stagedFile);
+            return new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(stagedFile), BUFFER_SIZE), digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create staging file for " + fileName, e);
+        }
+    }
+
+    /**
+     * Hand over the file just received on this thread; the caller becomes responsible for its staging file
+     */
+    public StagedUpload takeStagedUpload(String fileName) {
+        ReceivedFile received = removeCurrentUpload();
+        if (received == null) {
+            return null;
+        }
+        return new StagedUpload(received.stagedFile(), fileName, received.mimeType(),
+            FileUtils.toHex(received.digest()));
+    }
+
+    /**
+     * Delete the staging file of the upload on this thread that failed or was rejected
+     */
+    public void discard() {
+        ReceivedFile received = removeCurrentUpload();
+        if (received != null) {
+            fileService.discardStagedFile(received.stagedFile());
+        }
+    }
+
+    /**
+     * Delete the staging files of uploads that were never handed over, e.g. when the dialog closes mid-batch
+     */
+    public void discardAll() {
+        receivedFiles.keySet().forEach(uploadId -> {
+            ReceivedFile received = receivedFiles.remove(uploadId);
+            if (received != null) {
+                fileService.discardStagedFile(received.stagedFile());
+            }
+        });
+    }
+
+    private ReceivedFile removeCurrentUpload() {
+        UUID uploadId = currentUpload.get();
+        currentUpload.remove();
+        return uploadId != null ? receivedFiles.remove(uploadId) : null;
+    }
+
+    private record ReceivedFile(Path stagedFile, String mimeType, MessageDigest digest) {
+    }
+}
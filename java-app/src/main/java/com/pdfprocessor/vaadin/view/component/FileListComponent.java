@@ -1,6 +1,7 @@
 package com.pdfprocessor.vaadin.view.component;
 
-import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.repository.DocumentSummary;
+import com.pdfprocessor.service.AnalysisService;
 import com.pdfprocessor.service.FileService;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.button.Button;
@@ -11,36 +12,93 @@ import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
-import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 
 /**
- * Reusable file list component
+ * Reusable file list component.
+ * A virtual list that only fetches and renders the rows in view, paging through documents by keyset.
  */
 public class FileListComponent {
     
     private static final Logger logger = LoggerFactory.getLogger(FileListComponent.class);
     
-    public static Component create(List<Document> files, FileService fileService, 
-                                 Consumer<Document> onFileDeleted, Consumer<Document> onFileSelected) {
-        VerticalLayout fileList = new VerticalLayout();
-        fileList.setSpacing(false);
-        fileList.setPadding(false);
+    /**
+     * A list of the documents matching a name search, best matches first, or of all documents without one
+     */
+    public static Component create(FileService fileService, String searchQuery,
+                                 Consumer<DocumentSummary> onFileDeleted, Consumer<DocumentSummary> onFileSelected) {
+        VirtualList<DocumentSummary> fileList = new VirtualList<>();
         fileList.setWidthFull();
+        fileList.setHeightFull();
         
-        for (Document document : files) {
-            fileList.add(createFileItem(document, fileService, onFileDeleted, onFileSelected));
+        if (searchQuery == null || searchQuery.isBlank()) {
+            DocumentPager pager = new DocumentPager(fileService);
+            fileList.setItems(DataProvider.fromCallbacks(
+                query -> pager.fetch(query.getOffset(), query.getLimit()).stream(),
+                query -> (int) Math.min(Integer.MAX_VALUE, fileService.countDocuments())));
+        } else {
+            // Search results are ranked by relevance, so they are paged by offset
+            fileList.setItems(DataProvider.fromCallbacks(
+                query -> fileService.searchDocuments(searchQuery, query.getOffset(), query.getLimit()).stream(),
+                query -> (int) Math.min(Integer.MAX_VALUE, fileService.countSearchResults(searchQuery))));
         }
+        fileList.setRenderer(new ComponentRenderer<>(document -> 
+            createFileItem(document, fileService, onFileDeleted, onFileSelected)));
         
         return fileList;
     }
     
-    private static Component createFileItem(Document document, FileService fileService,
-                                          Consumer<Document> onFileDeleted, Consumer<Document> onFileSelected) {
+    /**
+     * Remembers the last document of the ranges fetched near the current position, so scrolling on fetches
+     * the next range by keyset. Cursors further than CURSOR_WINDOW rows away are dropped, which bounds the map
+     * however far the list is scrolled. Jumps past the known ranges (e.g. dragging the scroll bar) fall back
+     * to an offset query.
+     */
+    static class DocumentPager {
+        
+        static final int CURSOR_WINDOW = 1000;
+        
+        private final FileService fileService;
+        private final NavigableMap<Integer, FileService.DocumentCursor> cursorsByIndex = new TreeMap<>();
+        
+        DocumentPager(FileService fileService) {
+            this.fileService = fileService;
+        }
+        
+        List<DocumentSummary> fetch(int offset, int limit) {
+            List<DocumentSummary> page;
+            if (offset == 0) {
+                page = fileService.getDocumentPage(null, limit);
+            } else {
+                FileService.DocumentCursor previous = cursorsByIndex.get(offset - 1);
+                page = previous != null
+                    ? fileService.getDocumentPage(previous, limit)
+                    : fileService.getDocumentsAtOffset(offset, limit);
+            }
+            if (!page.isEmpty()) {
+                cursorsByIndex.put(offset + page.size() - 1, FileService.DocumentCursor.of(page.get(page.size() - 1)));
+            }
+            cursorsByIndex.headMap(offset - CURSOR_WINDOW).clear();
+            cursorsByIndex.tailMap(offset + limit + CURSOR_WINDOW).clear();
+            return page;
+        }
+        
+        int cursorCount() {
+            return cursorsByIndex.size();
+        }
+    }
+    
+    private static Component createFileItem(DocumentSummary document, FileService fileService,
+                                          Consumer<DocumentSummary> onFileDeleted, Consumer<DocumentSummary> onFileSelected) {
         HorizontalLayout fileItem = new HorizontalLayout();
         fileItem.addClassName("file-item");
         fileItem.setWidthFull();
@@ -81,6 +139,7 @@ public class FileListComponent {
         fileNameSpan.getStyle().set("display", "block");
         
         leftSide.add(pdfIcon, fileNameSpan);
+        fileItem.getElement().setAttribute("title", describe(document, fileService));
         
         Button deleteButton = new Button(VaadinIcon.CLOSE_SMALL.create());
         deleteButton.addClassName("delete-button");
@@ -105,4 +164,19 @@ public class FileListComponent {
         
         return fileItem;
     }
+    
+    /**
+     * Tooltip text: file name, size and the status of each analysis that has run
+     */
+    private static String describe(DocumentSummary document, FileService fileService) {
+        StringBuilder text = new StringBuilder(document.getFileName())
+            .append(" (").append(fileService.getFileSizeInHumanReadable(document.getFileSize())).append(')');
+        for (String analysisType : AnalysisService.ANALYSIS_TYPES) {
+            String status = document.getStatus(analysisType);
+            if (status != null) {
+                text.append('\n').append(analysisType).append(": ").append(status);
+            }
+        }
+        return text.toString();
+    }
 }
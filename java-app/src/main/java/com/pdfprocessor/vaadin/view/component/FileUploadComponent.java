@@ -2,7 +2,10 @@ package com.pdfprocessor.vaadin.view.component;
 
 import com.pdfprocessor.entity.Document;
 import com.pdfprocessor.service.FileService;
+import com.pdfprocessor.service.FileService.BatchItemResult;
+import com.pdfprocessor.service.FileService.StagedUpload;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.html.Div;
@@ -14,15 +17,12 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.upload.Upload;
-import com.vaadin.flow.component.upload.receivers.MemoryBuffer;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -32,13 +32,15 @@ public class FileUploadComponent {
     
     private static final Logger logger = LoggerFactory.getLogger(FileUploadComponent.class);
     
-    public static Component create(FileService fileService, Consumer<Document> onUploadSuccess) {
+    private static final int MAX_FILES_PER_BATCH = 100;
+    
+    public static Component create(FileService fileService, Consumer<List<Document>> onUploadSuccess) {
         Div uploadContainer = new Div();
         uploadContainer.addClassName("upload-container");
         uploadContainer.setWidthFull();
         
         // Create upload button
-        Button uploadButton = new Button("Upload File...", VaadinIcon.UPLOAD.create());
+        Button uploadButton = new Button("Upload Files...", VaadinIcon.UPLOAD.create());
         uploadButton.addClassName("upload-button");
         uploadButton.setWidthFull();
         uploadButton.getStyle().set("background-color", "var(--lumo-primary-color)");
@@ -58,7 +60,7 @@ public class FileUploadComponent {
         return uploadContainer;
     }
     
-    private static void showFileUploadDialog(FileService fileService, Consumer<Document> onUploadSuccess) {
+    private static void showFileUploadDialog(FileService fileService, Consumer<List<Document>> onUploadSuccess) {
         Dialog dialog = new Dialog();
         dialog.setWidth("400px");
         dialog.setHeight("300px");
@@ -72,82 +74,60 @@ public class FileUploadComponent {
         dialogContent.setSizeFull();
         
         // Header
-        H3 header = new H3("Select PDF File");
+        H3 header = new H3("Select PDF Files");
         header.addClassName(LumoUtility.Margin.NONE);
         header.addClassName(LumoUtility.FontWeight.BOLD);
         
-        // Upload area
-        Div uploadArea = new Div();
-        uploadArea.setWidthFull();
-        uploadArea.setHeight("150px");
-        uploadArea.getStyle().set("border", "2px dashed var(--lumo-contrast-30pct)");
-        uploadArea.getStyle().set("border-radius", "8px");
-        uploadArea.getStyle().set("display", "flex");
-        uploadArea.getStyle().set("flex-direction", "column");
-        uploadArea.getStyle().set("align-items", "center");
-        uploadArea.getStyle().set("justify-content", "center");
-        uploadArea.getStyle().set("background-color", "var(--lumo-contrast-5pct)");
-        uploadArea.getStyle().set("cursor", "pointer");
-        uploadArea.getStyle().set("transition", "border-color 0.2s ease");
-        
-        // Upload icon and text
-        Span uploadIcon = new Span(VaadinIcon.UPLOAD.create());
-        uploadIcon.getStyle().set("font-size", "24px");
-        uploadIcon.getStyle().set("color", "var(--lumo-contrast-50pct)");
-        uploadIcon.getStyle().set("margin-bottom", "8px");
-        
-        Span uploadText = new Span("Click to select PDF file");
-        uploadText.getStyle().set("color", "var(--lumo-contrast-50pct)");
-        uploadText.getStyle().set("font-size", "14px");
-        
-        uploadArea.add(uploadIcon, uploadText);
-        
-        // Hidden upload component
-        MemoryBuffer buffer = new MemoryBuffer();
-        Upload upload = new Upload(buffer);
+        // Upload with its own select button and drop zone
+        DiskUploadReceiver receiver = new DiskUploadReceiver(fileService);
+        Upload upload = new Upload(receiver);
+        upload.setWidthFull();
         upload.setAcceptedFileTypes(".pdf");
-        upload.setMaxFiles(1);
+        upload.setMaxFiles(MAX_FILES_PER_BATCH);
         upload.setMaxFileSize(50 * 1024 * 1024); // 50MB
-        upload.getStyle().set("display", "none");
+        upload.setDropAllowed(true);
+        upload.setUploadButton(new Button("Select PDF files", VaadinIcon.UPLOAD.create()));
+        Span dropLabel = new Span("or drop PDF files here");
+        dropLabel.getStyle().set("color", "var(--lumo-contrast-50pct)");
+        dropLabel.getStyle().set("font-size", "14px");
+        upload.setDropLabel(dropLabel);
+        
+        // Files finished streaming to disk; registered together once the whole batch is in
+        List<StagedUpload> pendingBatch = new ArrayList<>();
         
         upload.addSucceededListener(event -> {
-            try {
-                logger.info("File upload started: {}", event.getFileName());
-                
-                InputStream inputStream = buffer.getInputStream();
-                byte[] fileBytes = inputStream.readAllBytes();
-                
-                MultipartFile multipartFile = new SimpleMultipartFile(event.getFileName(), fileBytes);
-                Document document = fileService.uploadFile(multipartFile);
-                
-                onUploadSuccess.accept(document);
-                
-                Notification notification = Notification.show("File uploaded successfully: " + document.getFileName());
-                notification.addThemeVariants(NotificationVariant.LUMO_SUCCESS);
-                notification.setDuration(3000);
-                
-                logger.info("File uploaded successfully: {}", document.getId());
-                
-                dialog.close();
-                
-            } catch (Exception e) {
-                logger.error("Upload error: {}", e.getMessage());
-                Notification notification = Notification.show("Upload failed: " + e.getMessage());
-                notification.addThemeVariants(NotificationVariant.LUMO_ERROR);
-                notification.setDuration(5000);
+            logger.info("File received: {}", event.getFileName());
+            StagedUpload stagedUpload = receiver.takeStagedUpload(event.getFileName());
+            if (stagedUpload != null) {
+                pendingBatch.add(stagedUpload);
             }
         });
         
         upload.addFailedListener(event -> {
+            receiver.discard();
             logger.error("File upload failed: {}", event.getReason().getMessage());
-            Notification notification = Notification.show("Upload failed: " + event.getReason().getMessage());
+            Notification notification = Notification.show("Upload failed: " + event.getFileName() + " - " + event.getReason().getMessage());
             notification.addThemeVariants(NotificationVariant.LUMO_ERROR);
             notification.setDuration(5000);
         });
         
-        // Make upload area clickable
-        uploadArea.addClickListener(event -> {
-            upload.getElement().executeJs("this.shadowRoot.querySelector('input[type=file]').click()");
+        upload.addAllFinishedListener(event -> {
+            if (pendingBatch.isEmpty()) {
+                return;
+            }
+            List<StagedUpload> batch = new ArrayList<>(pendingBatch);
+            pendingBatch.clear();
+            
+            // Registered on the ingest pool; the UI thread is not blocked while the batch is stored
+            UI ui = UI.getCurrent();
+            fileService.storeStagedFiles(batch).thenAccept(results -> 
+                ui.access(() -> showBatchResults(results, dialog, onUploadSuccess)));
+        });
+        
+        dialog.addOpenedChangeListener(event -> {
+            if (!event.isOpened()) {
+                receiver.discardAll();
+            }
         });
         
         // Buttons
@@ -161,45 +141,43 @@ public class FileUploadComponent {
         
         buttonLayout.add(cancelButton);
         
-        dialogContent.add(header, uploadArea, upload, buttonLayout);
+        dialogContent.add(header, upload, buttonLayout);
         dialog.add(dialogContent);
         
         dialog.open();
     }
     
-    private static class SimpleMultipartFile implements MultipartFile {
-        private final String fileName;
-        private final byte[] fileBytes;
-        
-        public SimpleMultipartFile(String fileName, byte[] fileBytes) {
-            this.fileName = fileName;
-            this.fileBytes = fileBytes;
+    private static void showBatchResults(List<BatchItemResult> results, Dialog dialog, 
+                                         Consumer<List<Document>> onUploadSuccess) {
+        List<Document> documents = results.stream()
+            .filter(BatchItemResult::isSuccess)
+            .map(BatchItemResult::document)
+            .toList();
+        
+        results.stream()
+            .filter(result -> !result.isSuccess())
+            .forEach(result -> {
+                logger.error("Upload error for {}: {}", result.fileName(), result.error());
+                Notification notification = Notification.show("Upload failed: " + result.fileName() + " - " + result.error());
+                notification.addThemeVariants(NotificationVariant.LUMO_ERROR);
+                notification.setDuration(5000);
+            });
+        
+        if (!documents.isEmpty()) {
+            onUploadSuccess.accept(documents);
+            
+            String message = documents.size() == 1
+                ? "File uploaded successfully: " + documents.get(0).getFileName()
+                : documents.size() + " files uploaded successfully";
+            Notification notification = Notification.show(message);
+            notification.addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+            notification.setDuration(3000);
+            
+            logger.info("Batch of {} files uploaded successfully", documents.size());
         }
         
-        @Override
-        public String getName() { return "file"; }
-        
-        @Override
-        public String getOriginalFilename() { return fileName; }
-        
-        @Override
-        public String getContentType() { return "application/pdf"; }
-        
-        @Override
-        public boolean isEmpty() { return fileBytes.length == 0; }
-        
-        @Override
-        public long getSize() { return fileBytes.length; }
-        
-        @Override
-        public byte[] getBytes() { return fileBytes; }
-        
-        @Override
-        public InputStream getInputStream() { return new ByteArrayInputStream(fileBytes); }
-        
-        @Override
-        public void transferTo(java.io.File dest) throws IOException, IllegalStateException {
-            // Not implemented for this use case
+        if (documents.size() == results.size()) {
+            dialog.close();
         }
     }
 }
@@ -12,7 +12,8 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
  */
 public class PdfPreviewComponent {
     
-    public static Component create(Document selectedDocument, FileService fileService, AnalysisService analysisService) {
+    public static Component create(Document selectedDocument, FileService fileService, AnalysisService analysisService,
+                                   AnalysisProgressBroadcaster progressBroadcaster) {
         // Main container with horizontal scroll
         Div mainContainer = new Div();
         mainContainer.setWidthFull();
@@ -38,12 +39,14 @@ public class PdfPreviewComponent {
         pdfViewer.getElement().getStyle().set("min-width", "500px");
         
         // Second column: Docling Analysis (middle)
-        Component doclingAnalysisViewer = AnalysisPdfViewer.create(selectedDocument, "docling", analysisService);
+        Component doclingAnalysisViewer = AnalysisPdfViewer.create(selectedDocument, "docling", analysisService, 
+                                                                    progressBroadcaster);
         doclingAnalysisViewer.getElement().getStyle().set("flex", "0 0 33.33%"); // Take one third of the width
         doclingAnalysisViewer.getElement().getStyle().set("min-width", "500px");
         
         // Third column: Deepdoctection Analysis (right side)
-        Component deepdoctectionAnalysisViewer = AnalysisPdfViewer.create(selectedDocument, "deepdoctection", analysisService);
+        Component deepdoctectionAnalysisViewer = AnalysisPdfViewer.create(selectedDocument, "deepdoctection", analysisService, 
+                                                                           progressBroadcaster);
         deepdoctectionAnalysisViewer.getElement().getStyle().set("flex", "0 0 33.33%"); // Take one third of the width
         deepdoctectionAnalysisViewer.getElement().getStyle().set("min-width", "500px");
         
@@ -5,12 +5,8 @@ import com.pdfprocessor.service.FileService;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
-import com.vaadin.flow.server.StreamResource;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
@@ -91,31 +87,23 @@ public class PdfViewer {
         pdfContainer.getStyle().set("box-shadow", "inset 0 1px 3px rgba(0,0,0,0.1)");
         pdfContainer.getStyle().set("overflow", "hidden");
         
-        try {
-            Div pdfViewerDiv = createPdfViewer(selectedDocument);
-            pdfContainer.add(pdfViewerDiv);
-        } catch (IOException e) {
+        if (Files.isRegularFile(Paths.get(selectedDocument.getFilePath()))) {
+            pdfContainer.add(createPdfViewer(selectedDocument));
+        } else {
             pdfContainer.add(createErrorState());
         }
         
         return pdfContainer;
     }
     
-    private static Div createPdfViewer(Document document) throws IOException {
-        Path filePath = Paths.get(document.getFilePath());
-        byte[] fileBytes = Files.readAllBytes(filePath);
-        
-        StreamResource resource = new StreamResource(
-            document.getFileName(),
-            () -> new ByteArrayInputStream(fileBytes)
-        );
-        
+    private static Div createPdfViewer(Document document) {
+        // The iframe fetches the file itself with range requests; nothing is loaded into the session here
         Div pdfContainer = new Div();
         pdfContainer.setWidth("100%");
         pdfContainer.setHeight("100%");
         
         // Create iframe for PDF viewing using browser's native PDF viewer
-        String pdfUrl = "/api/files/" + document.getFileName();
+        String pdfUrl = "/api/files/by-id/" + document.getId();
         String iframeHtml = String.format(
             "<iframe src=\"%s#toolbar=1&navpanes=1&scrollbar=1\" width=\"100%%\" height=\"100%%\" style=\"border: none; border-radius: var(--lumo-border-radius-m);\"></iframe>",
             pdfUrl
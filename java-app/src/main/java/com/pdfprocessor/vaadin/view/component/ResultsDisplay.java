@@ -2,10 +2,14 @@ package com.pdfprocessor.vaadin.view.component;
 
 import com.pdfprocessor.entity.AnalysisFile;
 import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.service.AnalysisProgressEvent;
 import com.pdfprocessor.service.AnalysisService;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.shared.Registration;
 
 import java.util.List;
 
@@ -14,6 +18,9 @@ import java.util.List;
  */
 public class ResultsDisplay {
     
+    private static final String HEADER_KEY = "resultsHeader";
+    private static final String IMAGE_CONTAINER_KEY = "resultsImageContainer";
+    
     /**
      * Refresh the results display with current analysis results
      */
@@ -27,11 +34,16 @@ public class ResultsDisplay {
             List<AnalysisFile> results = 
                 analysisService.getAnalysisResults(selectedDocument.getId(), analysisType);
             
+            ComponentUtil.setData(resultsArea, HEADER_KEY, null);
+            ComponentUtil.setData(resultsArea, IMAGE_CONTAINER_KEY, null);
             if (results.isEmpty()) {
                 resultsArea.add(createNoResultsState());
             } else {
-                resultsArea.add(createResultsHeader(results.size()));
-                resultsArea.add(createImageContainer(results, selectedDocument, analysisType));
+                Span header = createResultsHeader(results.size());
+                Div imageContainer = createImageContainer(results, selectedDocument, analysisType);
+                ComponentUtil.setData(resultsArea, HEADER_KEY, header);
+                ComponentUtil.setData(resultsArea, IMAGE_CONTAINER_KEY, imageContainer);
+                resultsArea.add(header, imageContainer);
             }
             
         } catch (Exception e) {
@@ -39,6 +51,54 @@ public class ResultsDisplay {
         }
     }
     
+    /**
+     * Keep the results display current while it is attached: each page pushed by the
+     * AnalysisProgressBroadcaster is appended in place instead of reloading every page
+     */
+    public static void enableLiveUpdates(Div resultsArea, Document selectedDocument, String analysisType, 
+                                         AnalysisService analysisService, AnalysisProgressBroadcaster progressBroadcaster) {
+        resultsArea.addAttachListener(attachEvent -> {
+            UI ui = attachEvent.getUI();
+            Registration registration = progressBroadcaster.register(selectedDocument.getId(), event -> {
+                if (analysisType.equals(event.analysisType()) && event.pageNumber() != null) {
+                    ui.access(() -> addPageResult(resultsArea, event, selectedDocument, analysisService));
+                }
+            });
+            resultsArea.addDetachListener(detachEvent -> {
+                registration.remove();
+                detachEvent.unregisterListener();
+            });
+        });
+    }
+    
+    private static void addPageResult(Div resultsArea, AnalysisProgressEvent event, 
+                                      Document selectedDocument, AnalysisService analysisService) {
+        Span header = (Span) ComponentUtil.getData(resultsArea, HEADER_KEY);
+        Div imageContainer = (Div) ComponentUtil.getData(resultsArea, IMAGE_CONTAINER_KEY);
+        if (header == null || imageContainer == null) {
+            // First page: replace the placeholder with the full display
+            refreshResultsDisplay(resultsArea, selectedDocument, event.analysisType(), analysisService);
+            return;
+        }
+        
+        // Pages normally finish in order; insert by page number in case they do not
+        int pageNumber = event.pageNumber();
+        List<Component> pages = imageContainer.getChildren().toList();
+        int index = 0;
+        for (Component page : pages) {
+            Integer existing = ComponentUtil.getData(page, Integer.class);
+            if (existing != null && existing == pageNumber) {
+                return;
+            }
+            if (existing != null && existing > pageNumber) {
+                break;
+            }
+            index++;
+        }
+        imageContainer.addComponentAtIndex(index, createPageResult(pageNumber, selectedDocument, event.analysisType()));
+        header.setText("Analysis Results (" + (pages.size() + 1) + " pages):");
+    }
+    
     private static Component createNoResultsState() {
         Span noResults = new Span("No analysis results found. Click 'Check Results' after analysis completes.");
         noResults.getStyle().set("color", "var(--lumo-contrast-50pct)");
@@ -47,7 +107,7 @@ public class ResultsDisplay {
         return noResults;
     }
     
-    private static Component createResultsHeader(int resultCount) {
+    private static Span createResultsHeader(int resultCount) {
         Span resultsHeader = new Span("Analysis Results (" + resultCount + " pages):");
         resultsHeader.getStyle().set("font-weight", "bold");
         resultsHeader.getStyle().set("margin-bottom", "0.5rem");
@@ -55,7 +115,7 @@ public class ResultsDisplay {
         return resultsHeader;
     }
     
-    private static Component createImageContainer(List<AnalysisFile> results, Document selectedDocument, String analysisType) {
+    private static Div createImageContainer(List<AnalysisFile> results, Document selectedDocument, String analysisType) {
         Div imageContainer = new Div();
         imageContainer.getStyle().set("max-height", "450px");
         imageContainer.getStyle().set("overflow-y", "auto");
@@ -64,18 +124,17 @@ public class ResultsDisplay {
         imageContainer.getStyle().set("padding", "0.5rem");
         imageContainer.getStyle().set("background", "var(--lumo-base-color)");
         
-        // Sort results by page number
-        results.sort((a, b) -> Integer.compare(a.getPageNumber(), b.getPageNumber()));
-        
+        // Results arrive ordered by page number and are shared with the results cache, so they are not sorted here
         for (AnalysisFile result : results) {
-            imageContainer.add(createPageResult(result, selectedDocument, analysisType));
+            imageContainer.add(createPageResult(result.getPageNumber(), selectedDocument, analysisType));
         }
         
         return imageContainer;
     }
     
-    private static Component createPageResult(AnalysisFile result, Document selectedDocument, String analysisType) {
+    private static Component createPageResult(int pageNumber, Document selectedDocument, String analysisType) {
         Div pageContainer = new Div();
+        ComponentUtil.setData(pageContainer, Integer.class, pageNumber);
         pageContainer.getStyle().set("margin-bottom", "1rem");
         pageContainer.getStyle().set("text-align", "center");
         
@@ -84,11 +143,11 @@ public class ResultsDisplay {
         pageHeader.getStyle().set("margin-bottom", "0.5rem");
         pageHeader.getStyle().set("font-weight", "bold");
         pageHeader.getStyle().set("color", "var(--lumo-contrast-70pct)");
-        pageHeader.setText("Page " + result.getPageNumber());
+        pageHeader.setText("Page " + pageNumber);
         
         // Create zoomable image element
-        String imageUrl = "/api/files/analysis/" + selectedDocument.getId() + "/" + analysisType + "/" + result.getPageNumber();
-        Component zoomableImage = ZoomableImage.create(imageUrl, "Analysis result for page " + result.getPageNumber());
+        String imageUrl = "/api/files/analysis/" + selectedDocument.getId() + "/" + analysisType + "/" + pageNumber;
+        Component zoomableImage = ZoomableImage.create(imageUrl, "Analysis result for page " + pageNumber);
         
         // Add error handling for image loading
         zoomableImage.getElement().addEventListener("error", e -> {
@@ -0,0 +1,4 @@
+-- Migration script for keyset pagination of the document list
+-- The sidebar pages through documents newest first on (upload_date, id)
+
+CREATE INDEX idx_documents_upload_date_id ON documents(upload_date DESC, id DESC);
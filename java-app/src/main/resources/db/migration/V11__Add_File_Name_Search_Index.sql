@@ -0,0 +1,7 @@
+-- Migration script for filename search
+-- Trigram index on file_name serves case-insensitive prefix and substring matches (ILIKE)
+-- as well as fuzzy matches (word similarity, <%)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_documents_file_name_trgm ON documents USING gin (file_name gin_trgm_ops);
@@ -0,0 +1,4 @@
+-- Migration script for the legacy file-name route
+-- Resolves the newest document with a name without scanning the table
+
+CREATE INDEX idx_documents_file_name ON documents(file_name, upload_date DESC);
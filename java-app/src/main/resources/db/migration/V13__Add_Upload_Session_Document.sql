@@ -0,0 +1,4 @@
+-- Migration script for idempotent finalization of chunked uploads
+-- A finalized upload keeps its session, pointing at the document it created, until it expires
+
+ALTER TABLE upload_sessions ADD COLUMN document_id UUID REFERENCES documents(id) ON DELETE CASCADE;
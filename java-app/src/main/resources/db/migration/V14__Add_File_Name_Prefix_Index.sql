@@ -0,0 +1,5 @@
+-- Migration script for short filename searches
+-- Queries under three characters have no trigram for idx_documents_file_name_trgm to narrow by;
+-- they match case-insensitive name prefixes, a range of this index read in order
+
+CREATE INDEX idx_documents_file_name_prefix ON documents ((lower(file_name) COLLATE "C"));
@@ -0,0 +1,7 @@
+-- Migration script for content-addressed document storage
+-- Records the SHA-256 of each uploaded file so identical uploads share one blob and one analysis run
+
+ALTER TABLE documents ADD COLUMN content_hash VARCHAR(64);
+
+-- Create index for content hash lookups during deduplication
+CREATE INDEX idx_documents_content_hash ON documents(content_hash);
@@ -0,0 +1,20 @@
+-- Migration script for resumable chunked uploads
+-- Tracks uploads whose bytes are still being appended to a staging file
+
+CREATE TABLE upload_sessions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    file_name VARCHAR(255) NOT NULL,
+    mime_type VARCHAR(100),
+    upload_length BIGINT NOT NULL,
+    upload_offset BIGINT NOT NULL DEFAULT 0,
+    staging_path VARCHAR(500) NOT NULL,
+    created_at TIMESTAMP DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW()
+);
+
+-- Create index for expiring abandoned uploads
+CREATE INDEX idx_upload_sessions_updated_at ON upload_sessions(updated_at);
+
+-- Add check constraint for offsets
+ALTER TABLE upload_sessions ADD CONSTRAINT chk_upload_offset 
+    CHECK (upload_offset >= 0 AND upload_offset <= upload_length);
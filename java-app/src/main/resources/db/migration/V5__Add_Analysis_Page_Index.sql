@@ -0,0 +1,4 @@
+-- Migration script for single-page analysis lookups
+-- Lets image endpoints resolve one page without loading every result row of the document
+
+CREATE INDEX idx_analysis_files_document_type_page ON analysis_files(document_id, analysis_type, page_number);
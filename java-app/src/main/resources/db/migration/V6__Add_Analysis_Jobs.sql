@@ -0,0 +1,37 @@
+-- Migration script for the durable analysis job queue
+-- Each row is one request to run an analysis engine on a document
+
+CREATE TABLE analysis_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    document_id UUID NOT NULL,
+    analysis_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    started_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW()
+);
+
+-- Add foreign key constraint
+ALTER TABLE analysis_jobs ADD CONSTRAINT fk_analysis_jobs_document 
+    FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE;
+
+-- Add check constraints for analysis_type and status
+ALTER TABLE analysis_jobs ADD CONSTRAINT chk_analysis_jobs_type 
+    CHECK (analysis_type IN ('deepdoctection', 'docling'));
+ALTER TABLE analysis_jobs ADD CONSTRAINT chk_analysis_jobs_status 
+    CHECK (status IN ('QUEUED', 'IN_PROGRESS', 'COMPLETED', 'FAILED'));
+
+-- Claiming scans queued jobs of one engine in due order
+CREATE INDEX idx_analysis_jobs_queued ON analysis_jobs(analysis_type, next_attempt_at) 
+    WHERE status = 'QUEUED';
+
+-- In-flight counting and stale job detection
+CREATE INDEX idx_analysis_jobs_in_progress ON analysis_jobs(analysis_type, started_at) 
+    WHERE status = 'IN_PROGRESS';
+
+-- At most one active job per document and analysis type
+CREATE UNIQUE INDEX uq_analysis_jobs_active ON analysis_jobs(document_id, analysis_type) 
+    WHERE status IN ('QUEUED', 'IN_PROGRESS');
@@ -0,0 +1,13 @@
+-- Migration script for analysis priority lanes
+-- Interactive requests are dispatched ahead of normal and bulk work
+
+ALTER TABLE analysis_jobs ADD COLUMN priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL';
+
+-- Add check constraint for priority
+ALTER TABLE analysis_jobs ADD CONSTRAINT chk_analysis_jobs_priority 
+    CHECK (priority IN ('INTERACTIVE', 'NORMAL', 'BULK'));
+
+-- Claiming now scans one lane of one engine in due order
+DROP INDEX idx_analysis_jobs_queued;
+CREATE INDEX idx_analysis_jobs_queued ON analysis_jobs(analysis_type, priority, next_attempt_at) 
+    WHERE status = 'QUEUED';
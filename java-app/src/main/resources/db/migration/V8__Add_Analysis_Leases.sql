@@ -0,0 +1,28 @@
+-- Migration script for multi-node analysis coordination
+-- One lease per (document, analysis type) with a fencing token, and at most one result row per page
+
+-- Remove duplicate page rows left by concurrent polls, keeping the first one
+DELETE FROM analysis_files a USING analysis_files b
+    WHERE a.document_id = b.document_id 
+      AND a.analysis_type = b.analysis_type 
+      AND a.page_number = b.page_number 
+      AND a.ctid > b.ctid;
+
+-- The unique constraint's index replaces the plain page lookup index
+DROP INDEX idx_analysis_files_document_type_page;
+ALTER TABLE analysis_files ADD CONSTRAINT uq_analysis_files_page 
+    UNIQUE (document_id, analysis_type, page_number);
+
+-- Create analysis_leases table
+CREATE TABLE analysis_leases (
+    document_id UUID NOT NULL,
+    analysis_type VARCHAR(50) NOT NULL,
+    owner VARCHAR(255) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (document_id, analysis_type)
+);
+
+-- Add foreign key constraint
+ALTER TABLE analysis_leases ADD CONSTRAINT fk_analysis_leases_document 
+    FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE;
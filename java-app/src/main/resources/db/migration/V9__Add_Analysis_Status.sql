@@ -0,0 +1,45 @@
+-- Migration script for per-analysis status rows
+-- One row per (document, analysis type) replaces the status entries in documents.analysis_results,
+-- so concurrent engines no longer overwrite each other's status
+
+CREATE TABLE analysis_status (
+    document_id UUID NOT NULL,
+    analysis_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    pages_done INTEGER NOT NULL DEFAULT 0,
+    max_page INTEGER NOT NULL DEFAULT 0,
+    total_pages INTEGER,
+    error TEXT,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (document_id, analysis_type)
+);
+
+-- Add foreign key constraint
+ALTER TABLE analysis_status ADD CONSTRAINT fk_analysis_status_document 
+    FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE;
+
+-- Add check constraints for analysis_type and status
+ALTER TABLE analysis_status ADD CONSTRAINT chk_analysis_status_type 
+    CHECK (analysis_type IN ('deepdoctection', 'docling'));
+ALTER TABLE analysis_status ADD CONSTRAINT chk_analysis_status_status 
+    CHECK (status IN ('QUEUED', 'IN_PROGRESS', 'COMPLETED', 'FAILED'));
+
+-- Copy the statuses recorded so far in the JSONB column
+INSERT INTO analysis_status (document_id, analysis_type, status, updated_at)
+SELECT d.id, e.key, e.value->>'status', 
+       COALESCE(to_timestamp((e.value->>'lastUpdated')::bigint / 1000.0)::timestamp, NOW())
+FROM documents d, jsonb_each(d.analysis_results) e
+WHERE jsonb_typeof(d.analysis_results) = 'object'
+  AND e.key IN ('deepdoctection', 'docling')
+  AND e.value->>'status' IN ('QUEUED', 'IN_PROGRESS', 'COMPLETED', 'FAILED');
+
+UPDATE analysis_status s SET completed_at = s.updated_at WHERE s.status IN ('COMPLETED', 'FAILED');
+
+-- Page counts of the results already stored
+UPDATE analysis_status s SET pages_done = f.pages, max_page = f.max_page
+FROM (SELECT document_id, analysis_type, COUNT(*) AS pages, MAX(page_number) AS max_page 
+      FROM analysis_files GROUP BY document_id, analysis_type) f
+WHERE s.document_id = f.document_id AND s.analysis_type = f.analysis_type;
@@ -0,0 +1,160 @@
+package com.pdfprocessor.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and tail latency of fetching results with 200 concurrent callers against a local stub of the
+ * Python service that takes 5 ms per request: AnalysisServiceClient against the bare RestTemplate it replaced,
+ * and how many calls its default in-flight cap sheds. Run with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class AnalysisServiceClientBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisServiceClientBenchmarkTest.class);
+
+    private static final int CALLERS = 200;
+    private static final int REQUESTS_PER_CALLER = 25;
+    private static final long SERVICE_MILLIS = 5;
+    private static final byte[] RESULTS_BODY =
+        "{\"results\":[{\"page_number\":1,\"file_path\":\"/r/page_1.png\",\"file_size\":42}],\"count\":1}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), CALLERS);
+        server.createContext("/results/", exchange -> {
+            try {
+                Thread.sleep(SERVICE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESULTS_BODY.length);
+            exchange.getResponseBody().write(RESULTS_BODY);
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(CALLERS);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void measuresThroughputAndTailLatencyUnderConcurrentCallers() throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        Result bare = run(() -> {
+            Map<?, ?> response = restTemplate.getForObject(baseUrl + "/results/" + UUID.randomUUID() + "/docling",
+                Map.class);
+            return response != null && response.get("count") != null;
+        });
+
+        // Timeouts of application.yml, with a slot for every caller
+        AnalysisServiceClient client = new AnalysisServiceClient(new ObjectMapper(), baseUrl, 2000, 10000, 15000,
+            5000, 10000, CALLERS);
+        Result pooled = run(() -> client.getResults(UUID.randomUUID(), "docling").join().count() == 1);
+
+        // The default cap of 64 sheds the calls beyond it at once instead of queueing them
+        AnalysisServiceClient capped = new AnalysisServiceClient(new ObjectMapper(), baseUrl, 2000, 10000, 15000,
+            5000, 10000, 64);
+        Result shed = run(() -> capped.getResults(UUID.randomUUID(), "docling").join().count() == 1);
+
+        logger.info("{} callers x {} requests: RestTemplate {} req/s, p50 {} ms, p99 {} ms; " +
+            "AnalysisServiceClient {} req/s, p50 {} ms, p99 {} ms; capped at 64, {} calls shed and p99 {} ms",
+            CALLERS, REQUESTS_PER_CALLER, bare.throughput(), bare.p50(), bare.p99(),
+            pooled.throughput(), pooled.p50(), pooled.p99(), shed.failures(), shed.p99());
+
+        assertThat(bare.failures()).isZero();
+        assertThat(pooled.failures()).isZero();
+        assertThat(pooled.p99()).isLessThan(10000);
+    }
+
+    private interface Call {
+        boolean execute() throws Exception;
+    }
+
+    /**
+     * Requests per second, latency percentiles in milliseconds and the number of failed calls
+     */
+    private record Result(double throughput, double p50, double p99, int failures) {
+    }
+
+    private Result run(Call call) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<double[]>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int caller = 0; caller < CALLERS; caller++) {
+                futures.add(callers.submit(() -> {
+                    double[] millis = new double[REQUESTS_PER_CALLER];
+                    for (int request = 0; request < REQUESTS_PER_CALLER; request++) {
+                        long requestStart = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = call.execute();
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        // Failed calls are marked with a negative latency
+                        millis[request] = ok ? (System.nanoTime() - requestStart) / 1e6 : -1;
+                    }
+                    return millis;
+                }));
+            }
+
+            double[] all = new double[CALLERS * REQUESTS_PER_CALLER];
+            int index = 0;
+            for (Future<double[]> future : futures) {
+                for (double millis : future.get()) {
+                    all[index++] = millis;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int failures = (int) Arrays.stream(all).filter(millis -> millis < 0).count();
+            double[] succeeded = Arrays.stream(all).filter(millis -> millis >= 0).sorted().toArray();
+            return new Result(all.length / seconds, percentile(succeeded, 50), percentile(succeeded, 99), failures);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static double percentile(double[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -0,0 +1,121 @@
+package com.pdfprocessor.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisServiceClientTest {
+
+    private static final String RESULTS_BODY = 
+        "{\"results\":[{\"page_number\":1,\"file_path\":\"/r/page_1.png\",\"file_size\":42}],\"count\":1}";
+
+    private HttpServer server;
+    private final CountDownLatch releaseSlowResponse = new CountDownLatch(1);
+    private final CountDownLatch slowResponseAborted = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/results/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                respondLate(exchange);
+            } else {
+                respond(exchange, RESULTS_BODY);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        releaseSlowResponse.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void parsesResults() {
+        AnalysisResultsResponse response = client(4).getResults(UUID.randomUUID(), "docling").join();
+
+        assertThat(response.count()).isEqualTo(1);
+        assertThat(response.results()).singleElement().satisfies(page -> {
+            assertThat(page.pageNumber()).isEqualTo(1);
+            assertThat(page.filePath()).isEqualTo("/r/page_1.png");
+            assertThat(page.fileSize()).isEqualTo(42L);
+        });
+    }
+
+    @Test
+    void cancelsTheExchangeWhenTheDeadlineExpires() throws InterruptedException {
+        AnalysisServiceClient client = client(1);
+
+        assertThatThrownBy(() -> client.getResults(UUID.randomUUID(), "slow").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(AnalysisClientException.class)
+            .hasMessageContaining("deadline");
+
+        // The connection was closed under the server, and the single slot is free again
+        releaseSlowResponse.countDown();
+        assertThat(slowResponseAborted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(client.getResults(UUID.randomUUID(), "docling").join().count()).isEqualTo(1);
+    }
+
+    @Test
+    void freesTheSlotBeforeTheCallerSeesTheResponse() {
+        AnalysisServiceClient client = client(1);
+
+        // Each call starts as soon as the previous one returned, so none may find the single slot still taken
+        for (int call = 0; call < 200; call++) {
+            assertThat(client.getResults(UUID.randomUUID(), "docling").join().count()).isEqualTo(1);
+        }
+    }
+
+    private AnalysisServiceClient client(int maxInFlight) {
+        String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        return new AnalysisServiceClient(new ObjectMapper(), baseUrl, 1000, 5000, 5000, 5000, 300, maxInFlight);
+    }
+
+    /**
+     * Stream a chunked body once released; writing only fails after the client has closed the connection
+     */
+    private void respondLate(HttpExchange exchange) {
+        try {
+            releaseSlowResponse.await();
+            exchange.sendResponseHeaders(200, 0);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < deadline) {
+                exchange.getResponseBody().write(new byte[8192]);
+                exchange.getResponseBody().flush();
+            }
+            exchange.close();
+        } catch (IOException e) {
+            slowResponseAborted.countDown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
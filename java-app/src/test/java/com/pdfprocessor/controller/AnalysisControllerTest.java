@@ -0,0 +1,93 @@
+package com.pdfprocessor.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.pdfprocessor.service.AnalysisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisControllerTest {
+
+    private static final UUID DOCUMENT_ID = UUID.fromString("4f1c2d3e-8a9b-4c5d-9e0f-1a2b3c4d5e6f");
+    private static final String SECRET = "secret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AnalysisService analysisService;
+    private AnalysisController analysisController;
+
+    @BeforeEach
+    void createController() {
+        analysisService = mock(AnalysisService.class);
+        when(analysisService.isCallbackAuthorized(SECRET)).thenReturn(true);
+        when(analysisService.isValidAnalysisType("docling")).thenReturn(true);
+        analysisController = new AnalysisController();
+        ReflectionTestUtils.setField(analysisController, "analysisService", analysisService);
+    }
+
+    @Test
+    void recordsPageEvents() throws Exception {
+        AnalysisCallbackRequest request = read("{\"document_id\": \"" + DOCUMENT_ID + "\", " +
+            "\"analysis_type\": \"docling\", \"event\": \"page\", \"fencing_token\": 7, \"page_number\": 3, " +
+            "\"file_path\": \"/results/page_3.png\", \"file_size\": 1024, \"total_pages\": 12}");
+
+        ResponseEntity<Map<String, Object>> response = analysisController.analysisCallback(SECRET, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(analysisService).recordPageResult(DOCUMENT_ID, "docling", 3, "/results/page_3.png", 1024L, 12, 7L);
+    }
+
+    @Test
+    void rejectsPageEventsWithoutAPageNumberWith400() throws Exception {
+        AnalysisCallbackRequest request = read("{\"document_id\": \"" + DOCUMENT_ID + "\", " +
+            "\"analysis_type\": \"docling\", \"event\": \"page\", \"file_path\": \"/results/page_3.png\"}");
+
+        ResponseEntity<Map<String, Object>> response = analysisController.analysisCallback(SECRET, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(analysisService, never()).recordPageResult(any(), anyString(), anyInt(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void fieldsOfTheWrongTypeDoNotBind() {
+        assertThatThrownBy(() -> read("{\"document_id\": \"" + DOCUMENT_ID + "\", \"analysis_type\": \"docling\", " +
+            "\"event\": \"heartbeat\", \"fencing_token\": \"seven\"}"))
+            .isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> read("{\"document_id\": 42, \"event\": \"page\"}"))
+            .isInstanceOf(MismatchedInputException.class);
+    }
+
+    @Test
+    void answersUnreadableBodiesWith400() {
+        HttpMessageNotReadableException exception = new HttpMessageNotReadableException("JSON parse error",
+            new IllegalArgumentException("Cannot deserialize value of type `java.lang.Long`"),
+            new MockHttpInputMessage("{}".getBytes(StandardCharsets.UTF_8)));
+
+        ResponseEntity<Map<String, Object>> response = analysisController.handleUnreadableBody(exception);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("success", false);
+    }
+
+    private AnalysisCallbackRequest read(String json) throws Exception {
+        return objectMapper.readValue(json, AnalysisCallbackRequest.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.pdfprocessor.controller;
+
+import com.pdfprocessor.service.FileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileControllerTest {
+
+    private FileService fileService;
+    private FileController fileController;
+
+    @BeforeEach
+    void createController() {
+        fileService = mock(FileService.class);
+        fileController = new FileController();
+        ReflectionTestUtils.setField(fileController, "fileService", fileService);
+    }
+
+    @Test
+    void searchesAtTheOffsetOfThePage() {
+        when(fileService.searchDocuments("report", 40, 20)).thenReturn(List.of());
+        when(fileService.countSearchResults("report")).thenReturn(0L);
+
+        ResponseEntity<Map<String, Object>> response = fileController.searchFiles("report", 2, 20);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(fileService).searchDocuments("report", 40, 20);
+    }
+
+    @Test
+    void rejectsPagesWhoseOffsetWouldOverflowWith400() {
+        ResponseEntity<Map<String, Object>> response = fileController.searchFiles("report", Integer.MAX_VALUE, 100);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("success", false);
+        verify(fileService, never()).searchDocuments(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void rejectsPagesBeyondTheOffsetCapWith400() {
+        ResponseEntity<Map<String, Object>> response = fileController.searchFiles("report", 101, 100);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(fileService, never()).searchDocuments(anyString(), anyInt(), anyInt());
+    }
+}
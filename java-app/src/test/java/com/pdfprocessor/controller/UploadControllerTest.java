@@ -0,0 +1,159 @@
+package com.pdfprocessor.controller;
+
+import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.entity.UploadSession;
+import com.pdfprocessor.service.ChunkedUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadControllerTest {
+
+    private static final UUID UPLOAD_ID = UUID.fromString("0b8c6f4e-5a2d-4e61-9f0a-7c3d2e1b4a55");
+    private static final String OFFSET_CONTENT_TYPE = "application/offset+octet-stream";
+
+    private ChunkedUploadService chunkedUploadService;
+    private UploadController uploadController;
+
+    @BeforeEach
+    void createController() {
+        chunkedUploadService = mock(ChunkedUploadService.class);
+        uploadController = new UploadController();
+        ReflectionTestUtils.setField(uploadController, "chunkedUploadService", chunkedUploadService);
+    }
+
+    @Test
+    void createsUploadFromTusMetadata() throws IOException {
+        UploadSession session = session(0);
+        when(chunkedUploadService.createUpload("report.pdf", "application/pdf", 100)).thenReturn(session);
+
+        ResponseEntity<Map<String, Object>> response = uploadController.createUpload(100,
+            "filename " + base64("report.pdf") + ",is_confidential");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getHeaders().getLocation()).hasToString("/api/uploads/" + UPLOAD_ID);
+        assertThat(response.getHeaders().getFirst("Tus-Resumable")).isEqualTo("1.0.0");
+        assertThat(response.getBody()).containsEntry("uploadId", UPLOAD_ID);
+    }
+
+    @Test
+    void rejectsInvalidUploadWith400() throws IOException {
+        when(chunkedUploadService.createUpload(any(), any(), anyLong()))
+            .thenThrow(new IllegalArgumentException("Invalid PDF file name: null"));
+
+        assertThat(uploadController.createUpload(100, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void reportsStoredOffset() {
+        when(chunkedUploadService.getUpload(UPLOAD_ID)).thenReturn(Optional.of(session(40)));
+
+        ResponseEntity<Void> response = uploadController.getUploadOffset(UPLOAD_ID);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("Upload-Offset")).isEqualTo("40");
+        assertThat(response.getHeaders().getFirst("Upload-Length")).isEqualTo("100");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+    }
+
+    @Test
+    void reportsUnknownUploadWith404() {
+        when(chunkedUploadService.getUpload(UPLOAD_ID)).thenReturn(Optional.empty());
+
+        assertThat(uploadController.getUploadOffset(UPLOAD_ID).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(uploadController.appendChunk(UPLOAD_ID, 0, OFFSET_CONTENT_TYPE, chunkRequest()).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void appendsChunkAndReturnsNewOffset() throws IOException {
+        MockHttpServletRequest request = chunkRequest();
+        when(chunkedUploadService.getUpload(UPLOAD_ID)).thenReturn(Optional.of(session(40)));
+        when(chunkedUploadService.appendChunk(eq(UPLOAD_ID), eq(40L), any())).thenReturn(50L);
+
+        ResponseEntity<Void> response = uploadController.appendChunk(UPLOAD_ID, 40, OFFSET_CONTENT_TYPE, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(response.getHeaders().getFirst("Upload-Offset")).isEqualTo("50");
+    }
+
+    @Test
+    void rejectsChunkWithWrongContentTypeWith415() throws IOException {
+        ResponseEntity<Void> response = uploadController.appendChunk(UPLOAD_ID, 0, "application/pdf", chunkRequest());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        verify(chunkedUploadService, never()).appendChunk(any(), anyLong(), any());
+    }
+
+    @Test
+    void rejectsOffsetMismatchWith409() throws IOException {
+        when(chunkedUploadService.getUpload(UPLOAD_ID)).thenReturn(Optional.of(session(40)));
+        when(chunkedUploadService.appendChunk(eq(UPLOAD_ID), eq(30L), any()))
+            .thenThrow(new IllegalStateException("Upload offset mismatch: expected 40 but got 30"));
+
+        assertThat(uploadController.appendChunk(UPLOAD_ID, 30, OFFSET_CONTENT_TYPE, chunkRequest()).getStatusCode())
+            .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void finalizesUploadIntoDocument() throws IOException {
+        Document document = new Document("report.pdf", 100L, "uploads/report.pdf", "application/pdf");
+        document.setId(UUID.randomUUID());
+        when(chunkedUploadService.finalizeUpload(UPLOAD_ID)).thenReturn(Optional.of(document));
+
+        ResponseEntity<Map<String, Object>> response = uploadController.finalizeUpload(UPLOAD_ID);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).containsEntry("documentId", document.getId());
+    }
+
+    @Test
+    void mapsFinalizeFailuresToStatusCodes() throws IOException {
+        when(chunkedUploadService.finalizeUpload(UPLOAD_ID))
+            .thenReturn(Optional.empty())
+            .thenThrow(new IllegalStateException("Upload is incomplete: 40 of 100 bytes received"))
+            .thenThrow(new IllegalArgumentException("Not a valid PDF"));
+
+        assertThat(uploadController.finalizeUpload(UPLOAD_ID).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(uploadController.finalizeUpload(UPLOAD_ID).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(uploadController.finalizeUpload(UPLOAD_ID).getStatusCode())
+            .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private static UploadSession session(long offset) {
+        UploadSession session = new UploadSession("report.pdf", "application/pdf", 100L, "/tmp/upload.part");
+        session.setId(UPLOAD_ID);
+        session.setUploadOffset(offset);
+        return session;
+    }
+
+    private static MockHttpServletRequest chunkRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/uploads/" + UPLOAD_ID);
+        request.setContentType(OFFSET_CONTENT_TYPE);
+        request.setContent(new byte[10]);
+        return request;
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.repository.AnalysisFileRepositoryCustom.PageRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a real PostgreSQL given by TEST_DATABASE_URL (plus TEST_DATABASE_USERNAME and
+ * TEST_DATABASE_PASSWORD), in a throwaway schema with the analysis_files columns and page constraint
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class AnalysisFileRepositoryImplTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AnalysisFileRepositoryImpl repository;
+    private String schema;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new SingleConnectionDataSource(System.getenv("TEST_DATABASE_URL") + 
+            (System.getenv("TEST_DATABASE_URL").contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+            System.getenv("TEST_DATABASE_USERNAME"), System.getenv("TEST_DATABASE_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schema = "analysis_files_test_" + UUID.randomUUID().toString().replace("-", "");
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        jdbcTemplate.execute("CREATE TABLE analysis_files (id UUID PRIMARY KEY, document_id UUID NOT NULL, " +
+            "analysis_type VARCHAR(50) NOT NULL, page_number INTEGER NOT NULL, result_file_path VARCHAR(500) NOT NULL, " +
+            "file_size BIGINT, created_at TIMESTAMP NOT NULL, " +
+            "CONSTRAINT uq_analysis_files_page UNIQUE (document_id, analysis_type, page_number))");
+        repository = new AnalysisFileRepositoryImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void countsInsertedPages() {
+        assertThat(repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(1, 3))).isEqualTo(3);
+        assertThat(countRows()).isEqualTo(3);
+    }
+
+    @Test
+    void reportsNothingInsertedWhenTheSamePagesArriveAgain() {
+        repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(1, 3));
+
+        assertThat(repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(1, 3))).isZero();
+        assertThat(countRows()).isEqualTo(3);
+    }
+
+    @Test
+    void countsOnlyTheNewPagesOfAnOverlappingBatch() {
+        repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(1, 3));
+
+        assertThat(repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(2, 5))).isEqualTo(2);
+        assertThat(countRows()).isEqualTo(5);
+    }
+
+    @Test
+    void insertsBatchesLargerThanOneChunk() {
+        assertThat(repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(1, 1200))).isEqualTo(1200);
+        assertThat(repository.insertAllIfAbsent(DOCUMENT_ID, "docling", pages(1, 1200))).isZero();
+    }
+
+    private List<PageRow> pages(int first, int last) {
+        List<PageRow> pages = new ArrayList<>();
+        for (int page = first; page <= last; page++) {
+            pages.add(new PageRow(page, "/results/" + DOCUMENT_ID + "/docling/page_" + page + ".png", 
+                page % 2 == 0 ? null : 1000L + page));
+        }
+        return pages;
+    }
+
+    private int countRows() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analysis_files", Integer.class);
+        return rows != null ? rows : 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.repository.AnalysisFileRepositoryCustom.PageRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages ingested per second for 300-page documents: the batched path of saveAnalysisResults (one document
+ * check, parallel size probes, one insertAllIfAbsent) against the previous per-page path (document load,
+ * exists query, size probe and single-row insert, then a document reload, for every page).
+ * Runs against a real PostgreSQL given by TEST_DATABASE_URL (plus TEST_DATABASE_USERNAME and
+ * TEST_DATABASE_PASSWORD) with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class AnalysisIngestBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisIngestBenchmarkTest.class);
+
+    private static final int PAGES = 300;
+    private static final int DOCUMENTS = 5;
+
+    @TempDir
+    Path resultsDir;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AnalysisFileRepositoryImpl repository;
+    private String schema;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new SingleConnectionDataSource(System.getenv("TEST_DATABASE_URL") +
+            (System.getenv("TEST_DATABASE_URL").contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+            System.getenv("TEST_DATABASE_USERNAME"), System.getenv("TEST_DATABASE_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schema = "analysis_ingest_bench_" + UUID.randomUUID().toString().replace("-", "");
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        jdbcTemplate.execute("CREATE TABLE documents (id UUID PRIMARY KEY, file_name VARCHAR(255) NOT NULL, " +
+            "analysis_results JSONB)");
+        jdbcTemplate.execute("CREATE TABLE analysis_files (id UUID PRIMARY KEY, document_id UUID NOT NULL, " +
+            "analysis_type VARCHAR(50) NOT NULL, page_number INTEGER NOT NULL, result_file_path VARCHAR(500) NOT NULL, " +
+            "file_size BIGINT, created_at TIMESTAMP NOT NULL, " +
+            "CONSTRAINT uq_analysis_files_page UNIQUE (document_id, analysis_type, page_number))");
+        repository = new AnalysisFileRepositoryImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void batchedIngestOutpacesPerPageSaves() throws IOException {
+        // One warm-up document per path
+        ingestPerPage(document());
+        ingestBatched(document());
+
+        List<UUID> perPageDocuments = new ArrayList<>();
+        List<UUID> batchedDocuments = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            perPageDocuments.add(document());
+            batchedDocuments.add(document());
+        }
+
+        long start = System.nanoTime();
+        for (UUID documentId : perPageDocuments) {
+            ingestPerPage(documentId);
+        }
+        double perPageRate = DOCUMENTS * PAGES / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        for (UUID documentId : batchedDocuments) {
+            ingestBatched(documentId);
+        }
+        double batchedRate = DOCUMENTS * PAGES / ((System.nanoTime() - start) / 1e9);
+
+        logger.info("{} documents of {} pages: per-page saves {} pages/s, batched upsert {} pages/s",
+            DOCUMENTS, PAGES, perPageRate, batchedRate);
+
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analysis_files", Integer.class);
+        assertThat(rows).isEqualTo((DOCUMENTS + 1) * PAGES * 2);
+        assertThat(batchedRate).isGreaterThan(perPageRate);
+    }
+
+    /**
+     * The round trips the previous saveAnalysisResult made for every page
+     */
+    private void ingestPerPage(UUID documentId) throws IOException {
+        for (Path page : pageFiles(documentId)) {
+            int pageNumber = pageNumber(page);
+            jdbcTemplate.queryForMap("SELECT * FROM documents WHERE id = ?", documentId);
+            Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM analysis_files " +
+                "WHERE document_id = ? AND analysis_type = 'docling' AND page_number = ?)", Boolean.class,
+                documentId, pageNumber);
+            if (Boolean.FALSE.equals(exists)) {
+                jdbcTemplate.update("INSERT INTO analysis_files (id, document_id, analysis_type, page_number, " +
+                    "result_file_path, file_size, created_at) VALUES (?, ?, 'docling', ?, ?, ?, ?)", UUID.randomUUID(),
+                    documentId, pageNumber, page.toString(), Files.size(page), Timestamp.valueOf(LocalDateTime.now()));
+            }
+            jdbcTemplate.queryForMap("SELECT * FROM documents WHERE id = ?", documentId);
+        }
+    }
+
+    private void ingestBatched(UUID documentId) throws IOException {
+        jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM documents WHERE id = ?)", Boolean.class, documentId);
+        List<PageRow> rows = pageFiles(documentId).parallelStream()
+            .map(page -> {
+                try {
+                    return new PageRow(pageNumber(page), page.toString(), Files.size(page));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .toList();
+        assertThat(repository.insertAllIfAbsent(documentId, "docling", rows)).isEqualTo(PAGES);
+    }
+
+    private UUID document() throws IOException {
+        UUID documentId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO documents (id, file_name, analysis_results) VALUES (?, ?, '{}'::jsonb)",
+            documentId, documentId + ".pdf");
+        Path dir = Files.createDirectories(resultsDir.resolve(documentId.toString()).resolve("docling"));
+        for (int page = 1; page <= PAGES; page++) {
+            Files.write(dir.resolve("page_" + page + ".png"), new byte[page]);
+        }
+        return documentId;
+    }
+
+    private List<Path> pageFiles(UUID documentId) {
+        List<Path> pages = new ArrayList<>();
+        for (int page = 1; page <= PAGES; page++) {
+            pages.add(resultsDir.resolve(documentId.toString()).resolve("docling").resolve("page_" + page + ".png"));
+        }
+        return pages;
+    }
+
+    private static int pageNumber(Path page) {
+        String name = page.getFileName().toString();
+        return Integer.parseInt(name.substring("page_".length(), name.length() - ".png".length()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.pdfprocessor.repository;
+
+import com.pdfprocessor.repository.AnalysisFileRepositoryCustom.PageRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of serving one analysis page image as documents grow from 10 to 1,000 pages: the indexed
+ * single-row lookup against the previous path, which loaded every page row of the document and checked
+ * each file before filtering. Runs against a real PostgreSQL given by TEST_DATABASE_URL (plus
+ * TEST_DATABASE_USERNAME and TEST_DATABASE_PASSWORD) with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class AnalysisPageLookupBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisPageLookupBenchmarkTest.class);
+
+    private static final int[] PAGE_COUNTS = {10, 100, 1000};
+    private static final int LOOKUPS = 200;
+
+    // What Hibernate issues for findFirstByDocumentIdAndAnalysisTypeAndPageNumber
+    private static final String PAGE_QUERY = "SELECT * FROM analysis_files " +
+        "WHERE document_id = ? AND analysis_type = ? AND page_number = ? LIMIT 1";
+    private static final String ALL_PAGES_QUERY = "SELECT * FROM analysis_files " +
+        "WHERE document_id = ? AND analysis_type = ? ORDER BY page_number";
+
+    @TempDir
+    Path resultsDir;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private String schema;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new SingleConnectionDataSource(System.getenv("TEST_DATABASE_URL") +
+            (System.getenv("TEST_DATABASE_URL").contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+            System.getenv("TEST_DATABASE_USERNAME"), System.getenv("TEST_DATABASE_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schema = "analysis_lookup_bench_" + UUID.randomUUID().toString().replace("-", "");
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        jdbcTemplate.execute("CREATE TABLE analysis_files (id UUID PRIMARY KEY, document_id UUID NOT NULL, " +
+            "analysis_type VARCHAR(50) NOT NULL, page_number INTEGER NOT NULL, result_file_path VARCHAR(500) NOT NULL, " +
+            "file_size BIGINT, created_at TIMESTAMP NOT NULL, " +
+            "CONSTRAINT uq_analysis_files_page UNIQUE (document_id, analysis_type, page_number))");
+        jdbcTemplate.execute("CREATE INDEX idx_analysis_files_document_type_page " +
+            "ON analysis_files(document_id, analysis_type, page_number)");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void singlePageLatencyStaysFlatAsDocumentsGrow() throws IOException {
+        AnalysisFileRepositoryImpl repository = new AnalysisFileRepositoryImpl(jdbcTemplate);
+        double[] indexedMicros = new double[PAGE_COUNTS.length];
+        for (int i = 0; i < PAGE_COUNTS.length; i++) {
+            UUID documentId = UUID.randomUUID();
+            repository.insertAllIfAbsent(documentId, "docling", pages(documentId, PAGE_COUNTS[i]));
+        }
+        jdbcTemplate.execute("ANALYZE analysis_files");
+
+        List<UUID> documents = jdbcTemplate.queryForList(
+            "SELECT document_id FROM analysis_files GROUP BY document_id ORDER BY count(*)", UUID.class);
+        for (int i = 0; i < PAGE_COUNTS.length; i++) {
+            UUID documentId = documents.get(i);
+            int pageCount = PAGE_COUNTS[i];
+            indexedMicros[i] = medianMicros(pageCount, page ->
+                jdbcTemplate.queryForList(PAGE_QUERY, documentId, "docling", page).size());
+            double scanMicros = medianMicros(pageCount, page -> {
+                int found = 0;
+                for (Map<String, Object> row : jdbcTemplate.queryForList(ALL_PAGES_QUERY, documentId, "docling")) {
+                    if (Files.exists(Paths.get((String) row.get("result_file_path")))
+                            && ((Integer) row.get("page_number")) == page) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+            logger.info("{} pages: indexed lookup {} us, load and check every page {} us per image (median of {})",
+                pageCount, indexedMicros[i], scanMicros, LOOKUPS);
+        }
+
+        // Flat: a hundredfold more pages may not make the indexed lookup more than twice as slow
+        assertThat(indexedMicros[PAGE_COUNTS.length - 1]).isLessThan(indexedMicros[0] * 2);
+    }
+
+    private interface Lookup {
+        int find(int page);
+    }
+
+    private double medianMicros(int pageCount, Lookup lookup) {
+        Random random = new Random(pageCount);
+        for (int run = 0; run < LOOKUPS / 10; run++) {
+            lookup.find(1 + random.nextInt(pageCount));
+        }
+        double[] micros = new double[LOOKUPS];
+        for (int run = 0; run < LOOKUPS; run++) {
+            int page = 1 + random.nextInt(pageCount);
+            long start = System.nanoTime();
+            assertThat(lookup.find(page)).isEqualTo(1);
+            micros[run] = (System.nanoTime() - start) / 1e3;
+        }
+        Arrays.sort(micros);
+        return micros[LOOKUPS / 2];
+    }
+
+    private List<PageRow> pages(UUID documentId, int count) throws IOException {
+        Path dir = Files.createDirectories(resultsDir.resolve(documentId.toString()).resolve("docling"));
+        List<PageRow> pages = new ArrayList<>();
+        for (int page = 1; page <= count; page++) {
+            Path file = Files.write(dir.resolve("page_" + page + ".png"), new byte[] {(byte) page});
+            pages.add(new PageRow(page, file.toString(), 1L));
+        }
+        return pages;
+    }
+}
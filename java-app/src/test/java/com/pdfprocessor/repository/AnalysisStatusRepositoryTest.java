@@ -0,0 +1,35 @@
+package com.pdfprocessor.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The version column keys cached analysis artifacts, so no write path may skip incrementing it
+ */
+class AnalysisStatusRepositoryTest {
+
+    @Test
+    void offersNoSaveThatWouldBypassTheVersion() {
+        assertThat(AnalysisStatusRepository.class.getMethods())
+            .extracting(Method::getName)
+            .noneMatch(name -> name.startsWith("save") || name.startsWith("delete"));
+    }
+
+    @Test
+    void everyUpdateIncrementsTheVersion() {
+        List<Method> updates = Arrays.stream(AnalysisStatusRepository.class.getDeclaredMethods())
+            .filter(method -> method.isAnnotationPresent(Modifying.class))
+            .toList();
+
+        assertThat(updates).isNotEmpty();
+        assertThat(updates).allSatisfy(method -> assertThat(method.getAnnotation(Query.class).value())
+            .contains("version = analysis_status.version + 1"));
+    }
+}
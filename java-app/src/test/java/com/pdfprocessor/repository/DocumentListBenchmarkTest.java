@@ -0,0 +1,140 @@
+package com.pdfprocessor.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second and bytes allocated per row when listing 10,000 documents: the DocumentSummary columns
+ * against the previous whole-row load, which deserialized the analysis_results JSONB column into a Map for
+ * every document. Runs against a real PostgreSQL given by TEST_DATABASE_URL (plus TEST_DATABASE_USERNAME
+ * and TEST_DATABASE_PASSWORD) with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class DocumentListBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentListBenchmarkTest.class);
+
+    private static final int DOCUMENTS = 10_000;
+    private static final int RUNS = 7;
+
+    private static final String SUMMARY_QUERY = DocumentSummary.SELECT_FROM + "ORDER BY d.upload_date DESC, d.id DESC";
+    // What Hibernate selected for findAll ordered by upload date while Document mapped analysis_results
+    private static final String ENTITY_QUERY = "SELECT * FROM documents ORDER BY upload_date DESC, id DESC";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private String schema;
+
+    private record Summary(UUID id, String fileName, Long fileSize, LocalDateTime uploadDate,
+                           String deepdoctectionStatus, String doclingStatus) {
+    }
+
+    private record Hydrated(UUID id, String fileName, Long fileSize, LocalDateTime uploadDate, String filePath,
+                            String mimeType, String contentHash, Map<String, Object> analysisResults) {
+    }
+
+    @BeforeEach
+    void seedDocuments() {
+        dataSource = new SingleConnectionDataSource(System.getenv("TEST_DATABASE_URL"),
+            System.getenv("TEST_DATABASE_USERNAME"), System.getenv("TEST_DATABASE_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schema = "document_list_bench_" + UUID.randomUUID().toString().replace("-", "");
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        jdbcTemplate.execute("CREATE TABLE documents (id UUID PRIMARY KEY, file_name VARCHAR(255) NOT NULL, " +
+            "file_size BIGINT NOT NULL, upload_date TIMESTAMP NOT NULL, file_path VARCHAR(500) NOT NULL, " +
+            "mime_type VARCHAR(100) NOT NULL, content_hash VARCHAR(64), analysis_results JSONB)");
+        jdbcTemplate.execute("CREATE TABLE analysis_status (document_id UUID NOT NULL, " +
+            "analysis_type VARCHAR(50) NOT NULL, status VARCHAR(20) NOT NULL, " +
+            "PRIMARY KEY (document_id, analysis_type))");
+        // The map updateAnalysisStatus kept for each engine before V9
+        jdbcTemplate.update("INSERT INTO documents SELECT gen_random_uuid(), 'scan_' || i || '.pdf', 1000000 + i, " +
+            "NOW() - i * INTERVAL '1 minute', '/uploads/scan_' || i || '.pdf', 'application/pdf', md5(i::text), " +
+            "jsonb_build_object(" +
+            "'deepdoctection', jsonb_build_object('status', 'COMPLETED', 'lastUpdated', 1700000000000 + i), " +
+            "'docling', jsonb_build_object('status', 'COMPLETED', 'lastUpdated', 1700000000000 + i)) " +
+            "FROM generate_series(1, ?) i", DOCUMENTS);
+        jdbcTemplate.execute("INSERT INTO analysis_status SELECT id, t, 'COMPLETED' FROM documents, " +
+            "unnest(ARRAY['deepdoctection', 'docling']) t");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void summaryListingOutpacesHydratedEntities() {
+        Run summary = run(() -> jdbcTemplate.query(SUMMARY_QUERY, (rs, rowNum) -> new Summary(
+            rs.getObject("id", UUID.class), rs.getString("fileName"), rs.getLong("fileSize"),
+            rs.getObject("uploadDate", LocalDateTime.class), rs.getString("deepdoctectionStatus"),
+            rs.getString("doclingStatus"))));
+        Run hydrated = run(() -> jdbcTemplate.query(ENTITY_QUERY, (rs, rowNum) -> new Hydrated(
+            rs.getObject("id", UUID.class), rs.getString("file_name"), rs.getLong("file_size"),
+            rs.getObject("upload_date", LocalDateTime.class), rs.getString("file_path"), rs.getString("mime_type"),
+            rs.getString("content_hash"), readMap(rs.getString("analysis_results")))));
+
+        logger.info("{} documents: summary projection {} rows/s, {} bytes/row; " +
+            "whole rows with analysis_results {} rows/s, {} bytes/row", DOCUMENTS,
+            summary.rowsPerSecond(), summary.bytesPerRow(), hydrated.rowsPerSecond(), hydrated.bytesPerRow());
+
+        assertThat(summary.bytesPerRow()).isLessThan(hydrated.bytesPerRow());
+    }
+
+    /**
+     * Median rows per second and bytes allocated per row by this thread over the runs
+     */
+    private record Run(double rowsPerSecond, long bytesPerRow) {
+    }
+
+    private Run run(Supplier<List<?>> listing) {
+        assertThat(listing.get()).hasSize(DOCUMENTS);
+        double[] rates = new double[RUNS];
+        long[] bytes = new long[RUNS];
+        long threadId = Thread.currentThread().getId();
+        for (int run = 0; run < RUNS; run++) {
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            int rows = listing.get().size();
+            rates[run] = rows / ((System.nanoTime() - start) / 1e9);
+            bytes[run] = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / rows;
+        }
+        Arrays.sort(rates);
+        Arrays.sort(bytes);
+        return new Run(rates[RUNS / 2], bytes[RUNS / 2]);
+    }
+
+    private Map<String, Object> readMap(String json) {
+        try {
+            return json == null ? null : objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.pdfprocessor.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans and timings of the search queries of DocumentRepository over a seeded documents table with the
+ * V11 and V14 indexes. Runs against a real PostgreSQL given by TEST_DATABASE_URL (plus TEST_DATABASE_USERNAME
+ * and TEST_DATABASE_PASSWORD) in a throwaway schema
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class DocumentSearchQueryTest {
+
+    private static final int DOCUMENTS = 200_000;
+    private static final long TARGET_MILLIS = 50;
+    private static final int RUNS = 9;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedTemplate;
+    private String schema;
+
+    @BeforeEach
+    void seedDocuments() throws IOException {
+        dataSource = new SingleConnectionDataSource(System.getenv("TEST_DATABASE_URL"),
+            System.getenv("TEST_DATABASE_USERNAME"), System.getenv("TEST_DATABASE_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        schema = "document_search_test_" + UUID.randomUUID().toString().replace("-", "");
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        // pg_trgm may already be installed in public
+        jdbcTemplate.execute("SET search_path TO " + schema + ", public");
+        jdbcTemplate.execute("CREATE TABLE documents (id UUID PRIMARY KEY, file_name VARCHAR(255) NOT NULL, " +
+            "file_size BIGINT NOT NULL, upload_date TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE analysis_status (document_id UUID NOT NULL, " +
+            "analysis_type VARCHAR(50) NOT NULL, status VARCHAR(20) NOT NULL, " +
+            "PRIMARY KEY (document_id, analysis_type))");
+        jdbcTemplate.update("INSERT INTO documents SELECT gen_random_uuid(), md5(i::text) || '_scan.pdf', 1000, " +
+            "NOW() - i * INTERVAL '1 minute' FROM generate_series(1, ?) i", DOCUMENTS);
+        runMigration("V11__Add_File_Name_Search_Index.sql");
+        runMigration("V14__Add_File_Name_Prefix_Index.sql");
+        jdbcTemplate.execute("ANALYZE documents");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void searchUsesTheTrigramIndexWithinTarget() {
+        String name = jdbcTemplate.queryForObject("SELECT md5('4242') || '_scan.pdf'", String.class);
+        String query = name.substring(4, 14);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("query", query)
+            .addValue("pattern", "%" + query + "%")
+            .addValue("prefix", query + "%")
+            .addValue("offset", 0)
+            .addValue("limit", 20);
+
+        assertThat(plan(DocumentRepository.SEARCH_QUERY, params)).contains("idx_documents_file_name_trgm");
+        assertThat(namedTemplate.queryForList(DocumentRepository.SEARCH_QUERY, params))
+            .first().extracting(row -> row.get("fileName")).isEqualTo(name);
+        assertThat(medianMillis(DocumentRepository.SEARCH_QUERY, params)).isLessThan(TARGET_MILLIS);
+
+        String count = "SELECT count(*) FROM documents d " + DocumentRepository.SEARCH_WHERE;
+        assertThat(plan(count, params)).contains("idx_documents_file_name_trgm");
+        assertThat(medianMillis(count, params)).isLessThan(TARGET_MILLIS);
+    }
+
+    @Test
+    void shortQueriesUseThePrefixIndexWithinTarget() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("prefix", "AB%")
+            .addValue("offset", 0)
+            .addValue("limit", 20);
+
+        assertThat(plan(DocumentRepository.PREFIX_SEARCH_QUERY, params)).contains("idx_documents_file_name_prefix");
+        List<String> names = namedTemplate.queryForList(DocumentRepository.PREFIX_SEARCH_QUERY, params).stream()
+            .map(row -> (String) row.get("fileName"))
+            .toList();
+        assertThat(names).hasSize(20).allMatch(fileName -> fileName.startsWith("ab")).isSorted();
+        assertThat(medianMillis(DocumentRepository.PREFIX_SEARCH_QUERY, params)).isLessThan(TARGET_MILLIS);
+
+        String count = "SELECT count(*) FROM documents d " + DocumentRepository.PREFIX_WHERE;
+        assertThat(plan(count, params)).contains("idx_documents_file_name_prefix");
+        assertThat(medianMillis(count, params)).isLessThan(TARGET_MILLIS);
+    }
+
+    private void runMigration(String fileName) throws IOException {
+        jdbcTemplate.execute(new ClassPathResource("db/migration/" + fileName).getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private String plan(String sql, MapSqlParameterSource params) {
+        return String.join("\n", namedTemplate.queryForList("EXPLAIN " + sql, params, String.class));
+    }
+
+    /**
+     * Median wall time of the query, after one warm-up run
+     */
+    private long medianMillis(String sql, MapSqlParameterSource params) {
+        namedTemplate.queryForList(sql, params);
+        long[] millis = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            namedTemplate.queryForList(sql, params);
+            millis[run] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
@@ -0,0 +1,182 @@
+package com.pdfprocessor.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdfprocessor.client.AnalysisServiceClient;
+import com.pdfprocessor.client.AnalyzeRequest;
+import com.pdfprocessor.client.AnalyzeResponse;
+import com.pdfprocessor.entity.AnalysisJob;
+import com.pdfprocessor.entity.AnalysisPriority;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of the job scheduler against a local stand-in for the Python service that takes 20 ms per
+ * analysis, and the peak load it puts on the stand-in, next to firing every request at once as
+ * startAnalysis used to. The job table is kept in memory; claiming follows the cap of claimJobs.
+ * Run with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class AnalysisJobSchedulerBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobSchedulerBenchmarkTest.class);
+
+    private static final int JOBS_PER_ENGINE = 100;
+    private static final int MAX_IN_FLIGHT_PER_ENGINE = 4;
+    private static final long ANALYSIS_MILLIS = 20;
+    private static final long POLL_MILLIS = 5;
+    private static final byte[] ACCEPTED = "{\"status\":\"accepted\",\"message\":\"queued\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final Map<String, Deque<AnalysisJob>> queued = new HashMap<>();
+    private final Map<String, Integer> inFlight = new HashMap<>();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AnalysisServiceClient client;
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/analyze", exchange -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(ANALYSIS_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, ACCEPTED.length);
+            exchange.getResponseBody().write(ACCEPTED);
+            exchange.close();
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        client = new AnalysisServiceClient(new ObjectMapper(), baseUrl, 2000, 10000, 15000, 5000, 10000, 1024);
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void dispatchesAtTheCapWithoutFloodingTheService() throws Exception {
+        int jobs = JOBS_PER_ENGINE * AnalysisService.ANALYSIS_TYPES.size();
+
+        // Before: every request fired at once
+        long start = System.nanoTime();
+        List<CompletableFuture<AnalyzeResponse>> fired = new ArrayList<>();
+        for (int job = 0; job < jobs; job++) {
+            fired.add(analyze(UUID.randomUUID(), "docling"));
+        }
+        CompletableFuture.allOf(fired.toArray(CompletableFuture[]::new)).join();
+        double unboundedSeconds = (System.nanoTime() - start) / 1e9;
+        int unboundedPeak = peak.getAndSet(0);
+
+        // After: the scheduler claims and dispatches at most the cap per engine
+        CountDownLatch finished = new CountDownLatch(jobs);
+        AnalysisJobScheduler scheduler = scheduler(finished);
+        start = System.nanoTime();
+        while (!finished.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            scheduler.dispatchJobs();
+        }
+        double scheduledSeconds = (System.nanoTime() - start) / 1e9;
+
+        logger.info("{} jobs of {} ms: fired at once {} jobs/s with {} concurrent at the service; " +
+            "scheduled with {} per engine {} jobs/s with {} concurrent (ideal {} jobs/s)", jobs, ANALYSIS_MILLIS,
+            jobs / unboundedSeconds, unboundedPeak, MAX_IN_FLIGHT_PER_ENGINE, jobs / scheduledSeconds, peak.get(),
+            MAX_IN_FLIGHT_PER_ENGINE * AnalysisService.ANALYSIS_TYPES.size() * 1000.0 / ANALYSIS_MILLIS);
+
+        assertThat(peak.get()).isLessThanOrEqualTo(MAX_IN_FLIGHT_PER_ENGINE * AnalysisService.ANALYSIS_TYPES.size());
+    }
+
+    private AnalysisJobScheduler scheduler(CountDownLatch finished) {
+        for (String analysisType : AnalysisService.ANALYSIS_TYPES) {
+            Deque<AnalysisJob> jobs = new ArrayDeque<>();
+            for (int job = 0; job < JOBS_PER_ENGINE; job++) {
+                AnalysisJob analysisJob = new AnalysisJob(UUID.randomUUID(), analysisType, AnalysisPriority.BULK);
+                analysisJob.setId(UUID.randomUUID());
+                jobs.add(analysisJob);
+            }
+            queued.put(analysisType, jobs);
+            inFlight.put(analysisType, 0);
+        }
+
+        AnalysisJobService analysisJobService = mock(AnalysisJobService.class);
+        when(analysisJobService.claimJobs(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            String analysisType = invocation.getArgument(0);
+            int maxInFlight = invocation.getArgument(1);
+            List<AnalysisJob> claimed = new ArrayList<>();
+            synchronized (this) {
+                Deque<AnalysisJob> jobs = queued.get(analysisType);
+                while (inFlight.get(analysisType) < maxInFlight && !jobs.isEmpty()) {
+                    claimed.add(jobs.poll());
+                    inFlight.merge(analysisType, 1, Integer::sum);
+                }
+            }
+            return claimed;
+        });
+
+        // Dispatch as AnalysisService does, finishing the job once the service has taken it
+        AnalysisService analysisService = mock(AnalysisService.class);
+        when(analysisService.dispatchAnalysis(any(), anyString())).thenAnswer(invocation -> {
+            String analysisType = invocation.getArgument(1);
+            return analyze(invocation.getArgument(0), analysisType).whenComplete((response, error) -> {
+                synchronized (this) {
+                    inFlight.merge(analysisType, -1, Integer::sum);
+                }
+                finished.countDown();
+            });
+        });
+
+        AnalysisJobScheduler scheduler = new AnalysisJobScheduler(analysisJobService, analysisService,
+            mock(AnalysisLeaseService.class));
+        ReflectionTestUtils.setField(scheduler, "maxInFlightPerEngine", MAX_IN_FLIGHT_PER_ENGINE);
+        ReflectionTestUtils.setField(scheduler, "interactiveReservedSlots", 1);
+        return scheduler;
+    }
+
+    private CompletableFuture<AnalyzeResponse> analyze(UUID documentId, String analysisType) {
+        return client.analyze(new AnalyzeRequest(documentId.toString(), analysisType, "/uploads/" + documentId + ".pdf",
+            documentId + ".pdf", "http://localhost/api/analysis/callback", 1L, "secret"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisJob;
+import com.pdfprocessor.entity.AnalysisPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisJobSchedulerTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+
+    private AnalysisJobService analysisJobService;
+    private AnalysisService analysisService;
+    private AnalysisLeaseService analysisLeaseService;
+    private AnalysisJobScheduler scheduler;
+
+    @BeforeEach
+    void createScheduler() {
+        analysisJobService = mock(AnalysisJobService.class);
+        analysisService = mock(AnalysisService.class);
+        analysisLeaseService = mock(AnalysisLeaseService.class);
+        scheduler = new AnalysisJobScheduler(analysisJobService, analysisService, analysisLeaseService);
+
+        AnalysisJob job = new AnalysisJob(DOCUMENT_ID, "docling", AnalysisPriority.NORMAL);
+        job.setStatus(AnalysisJob.IN_PROGRESS);
+        when(analysisJobService.findStaleJobs(anyLong())).thenReturn(List.of(job));
+    }
+
+    @Test
+    void leavesRunsWithALiveLeaseAlone() {
+        when(analysisLeaseService.isHeld(DOCUMENT_ID, "docling")).thenReturn(true);
+
+        scheduler.requeueStaleJobs();
+
+        verify(analysisService, never()).handleAttemptFailure(any(), anyString(), anyString(), any());
+        verify(analysisService, never()).handleAttemptFailure(any(), anyString(), anyString());
+    }
+
+    @Test
+    void failsALostRunUnderItsExpiredLease() {
+        when(analysisLeaseService.isHeld(DOCUMENT_ID, "docling")).thenReturn(false);
+        when(analysisLeaseService.findToken(DOCUMENT_ID, "docling")).thenReturn(Optional.of(7L));
+
+        scheduler.requeueStaleJobs();
+
+        verify(analysisService).handleAttemptFailure(eq(DOCUMENT_ID), eq("docling"), anyString(), eq(7L));
+    }
+
+    @Test
+    void toleratesALeaseTakenOverByAnotherNode() {
+        when(analysisLeaseService.isHeld(DOCUMENT_ID, "docling")).thenReturn(false);
+        when(analysisLeaseService.findToken(DOCUMENT_ID, "docling")).thenReturn(Optional.of(7L));
+        doThrow(new IllegalStateException("Stale fencing token 7"))
+            .when(analysisService).handleAttemptFailure(eq(DOCUMENT_ID), eq("docling"), anyString(), eq(7L));
+
+        scheduler.requeueStaleJobs();
+
+        verify(analysisJobService, never()).finish(any(), anyString(), anyBoolean());
+    }
+}
@@ -0,0 +1,96 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisJob;
+import com.pdfprocessor.entity.AnalysisPriority;
+import com.pdfprocessor.repository.AnalysisJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisJobServiceTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+
+    private AnalysisJobRepository repository;
+    private AnalysisJobService service;
+
+    @BeforeEach
+    void createService() {
+        repository = mock(AnalysisJobRepository.class);
+        service = new AnalysisJobService(repository);
+    }
+
+    @Test
+    void enqueueReportsANewJob() {
+        when(repository.findFirstByDocumentIdAndAnalysisTypeAndStatusIn(eq(DOCUMENT_ID), eq("docling"), any()))
+            .thenReturn(Optional.empty());
+        when(repository.save(any(AnalysisJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(service.enqueue(DOCUMENT_ID, "docling", AnalysisPriority.NORMAL)).isTrue();
+    }
+
+    @Test
+    void enqueueLeavesARunningJobAlone() {
+        AnalysisJob running = new AnalysisJob(DOCUMENT_ID, "docling", AnalysisPriority.BULK);
+        running.setStatus(AnalysisJob.IN_PROGRESS);
+        when(repository.findFirstByDocumentIdAndAnalysisTypeAndStatusIn(eq(DOCUMENT_ID), eq("docling"), any()))
+            .thenReturn(Optional.of(running));
+
+        assertThat(service.enqueue(DOCUMENT_ID, "docling", AnalysisPriority.INTERACTIVE)).isFalse();
+        assertThat(running.getPriority()).isEqualTo(AnalysisPriority.BULK);
+        verify(repository, never()).save(any(AnalysisJob.class));
+    }
+
+    @Test
+    void enqueueRaisesThePriorityOfAWaitingJob() {
+        AnalysisJob queued = new AnalysisJob(DOCUMENT_ID, "docling", AnalysisPriority.BULK);
+        when(repository.findFirstByDocumentIdAndAnalysisTypeAndStatusIn(eq(DOCUMENT_ID), eq("docling"), any()))
+            .thenReturn(Optional.of(queued));
+
+        assertThat(service.enqueue(DOCUMENT_ID, "docling", AnalysisPriority.INTERACTIVE)).isFalse();
+        assertThat(queued.getPriority()).isEqualTo(AnalysisPriority.INTERACTIVE);
+        verify(repository).save(queued);
+    }
+
+    @Test
+    void claimTakesTheEngineLockBeforeCounting() {
+        when(repository.countByAnalysisTypeAndStatus("docling", AnalysisJob.IN_PROGRESS)).thenReturn(2L);
+
+        assertThat(service.claimJobs("docling", 2, 1)).isEmpty();
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).lockEngine("docling");
+        order.verify(repository).countByAnalysisTypeAndStatus("docling", AnalysisJob.IN_PROGRESS);
+        verify(repository, never()).lockDueJobs(anyString(), anyString(), any(), anyInt());
+    }
+
+    @Test
+    void claimFillsFreeSlots() {
+        AnalysisJob job = new AnalysisJob(DOCUMENT_ID, "docling", AnalysisPriority.INTERACTIVE);
+        when(repository.countByAnalysisTypeAndStatus("docling", AnalysisJob.IN_PROGRESS)).thenReturn(1L);
+        when(repository.lockDueJobs(eq("docling"), eq("INTERACTIVE"), any(), eq(1)))
+            .thenReturn(List.of(job), List.of());
+        when(repository.lockDueJobs(eq("docling"), eq("NORMAL"), any(), eq(1))).thenReturn(List.of());
+        when(repository.lockDueJobs(eq("docling"), eq("BULK"), any(), eq(1))).thenReturn(List.of());
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(service.claimJobs("docling", 2, 1)).containsExactly(job);
+        assertThat(job.getStatus()).isEqualTo(AnalysisJob.IN_PROGRESS);
+        assertThat(job.getAttempts()).isEqualTo(1);
+    }
+}
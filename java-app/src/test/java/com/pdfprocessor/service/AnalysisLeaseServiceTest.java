@@ -0,0 +1,54 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.repository.AnalysisLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisLeaseServiceTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+
+    private AnalysisLeaseRepository repository;
+    private AnalysisLeaseService service;
+
+    @BeforeEach
+    void createService() {
+        repository = mock(AnalysisLeaseRepository.class);
+        service = new AnalysisLeaseService(repository, "node-1", 300000);
+    }
+
+    @Test
+    void acquireReadsTheTokenItJustAssigned() {
+        when(repository.tryAcquire(DOCUMENT_ID, "docling", "node-1", 300.0)).thenReturn(1);
+        when(repository.findFencingToken(DOCUMENT_ID, "docling")).thenReturn(Optional.of(7L));
+
+        assertThat(service.acquire(DOCUMENT_ID, "docling")).contains(7L);
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).tryAcquire(DOCUMENT_ID, "docling", "node-1", 300.0);
+        order.verify(repository).findFencingToken(DOCUMENT_ID, "docling");
+    }
+
+    @Test
+    void acquireLeavesAHeldLeaseAlone() {
+        when(repository.tryAcquire(eq(DOCUMENT_ID), eq("docling"), anyString(), anyDouble())).thenReturn(0);
+
+        assertThat(service.acquire(DOCUMENT_ID, "docling")).isEmpty();
+        verify(repository, never()).findFencingToken(any(), anyString());
+    }
+}
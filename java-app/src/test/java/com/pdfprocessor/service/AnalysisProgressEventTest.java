@@ -0,0 +1,36 @@
+package com.pdfprocessor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisProgressEventTest {
+
+    private static final UUID DOCUMENT_ID = UUID.fromString("2c8f6a31-0d4e-4b79-9e15-b3a7d6c2f048");
+
+    @Test
+    void roundTripsThroughTheNotifyPayload() {
+        AnalysisProgressEvent event = new AnalysisProgressEvent(DOCUMENT_ID, "docling", 12, 12, 40, 95L, "IN_PROGRESS");
+
+        assertThat(AnalysisProgressEvent.fromPayload(event.toPayload())).isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsAbsentParts() {
+        AnalysisProgressEvent event = new AnalysisProgressEvent(DOCUMENT_ID, "docling", null, 0, null, null, "QUEUED");
+
+        assertThat(event.toPayload()).isEqualTo(DOCUMENT_ID + " docling - 0 - - QUEUED");
+        assertThat(AnalysisProgressEvent.fromPayload(event.toPayload())).isEqualTo(event);
+    }
+
+    @Test
+    void rejectsMalformedPayloads() {
+        assertThatThrownBy(() -> AnalysisProgressEvent.fromPayload("docling 1 2"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AnalysisProgressEvent.fromPayload(DOCUMENT_ID + " docling x 0 - - QUEUED"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AnalysisResultsCacheTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+    private static final UUID OTHER_DOCUMENT_ID = UUID.randomUUID();
+
+    private AnalysisResultsCache cache;
+    private Consumer<CacheInvalidationEvent> subscriber;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+        cache = new AnalysisResultsCache(100, invalidationBus);
+        ArgumentCaptor<Consumer<CacheInvalidationEvent>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(captor.capture());
+        subscriber = captor.getValue();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void keepsALoadWhenAnotherAnalysisIsInvalidatedMeanwhile() {
+        load(DOCUMENT_ID, "docling", () -> subscriber.accept(CacheInvalidationEvent.analysis(DOCUMENT_ID, "deepdoctection")));
+        load(DOCUMENT_ID, "docling", () -> { });
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void keepsALoadWhenAnotherDocumentIsInvalidatedMeanwhile() {
+        load(DOCUMENT_ID, "docling", () -> subscriber.accept(CacheInvalidationEvent.document(OTHER_DOCUMENT_ID)));
+        load(DOCUMENT_ID, "docling", () -> { });
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void dropsALoadWhoseAnalysisIsInvalidatedMeanwhile() {
+        load(DOCUMENT_ID, "docling", () -> subscriber.accept(CacheInvalidationEvent.analysis(DOCUMENT_ID, "docling")));
+        load(DOCUMENT_ID, "docling", () -> { });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void dropsALoadWhoseDocumentIsInvalidatedMeanwhile() {
+        load(DOCUMENT_ID, "docling", () -> subscriber.accept(CacheInvalidationEvent.document(DOCUMENT_ID)));
+        load(DOCUMENT_ID, "docling", () -> { });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void dropsEveryLoadOnInvalidateAll() {
+        load(DOCUMENT_ID, "docling", () -> subscriber.accept(CacheInvalidationEvent.all()));
+        load(DOCUMENT_ID, "docling", () -> { });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidatesOnlyTheStatusOfTheNamedAnalysis() {
+        cache.getState(DOCUMENT_ID, "docling", () -> Optional.of("COMPLETED"));
+        cache.getState(DOCUMENT_ID, "deepdoctection", () -> Optional.of("COMPLETED"));
+
+        subscriber.accept(CacheInvalidationEvent.analysis(DOCUMENT_ID, "docling"));
+
+        assertThat(cache.getState(DOCUMENT_ID, "docling", () -> Optional.of("IN_PROGRESS"))).contains("IN_PROGRESS");
+        assertThat(cache.getState(DOCUMENT_ID, "deepdoctection", () -> Optional.of("IN_PROGRESS"))).contains("COMPLETED");
+    }
+
+    /**
+     * Fetch the page list of an analysis, running duringLoad while the loader holds no lock
+     */
+    private void load(UUID documentId, String analysisType, Runnable duringLoad) {
+        cache.get(documentId, analysisType, () -> {
+            loads.incrementAndGet();
+            duringLoad.run();
+            return List.of(new AnalysisFile());
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.client.AnalysisResultsResponse.PageResult;
+import com.pdfprocessor.entity.AnalysisFile;
+import com.pdfprocessor.repository.AnalysisFileRepository;
+import com.pdfprocessor.repository.AnalysisStatusRepository;
+import com.pdfprocessor.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisServiceTest {
+
+    private static final UUID DOCUMENT_ID = UUID.fromString("6f1c2a0e-3f1b-4c8e-9a57-2d4b8e0c1a11");
+
+    @TempDir
+    Path resultsDir;
+
+    private AnalysisFileRepository analysisFileRepository;
+    private AnalysisStatusRepository analysisStatusRepository;
+    private CacheInvalidationBus invalidationBus;
+    private AnalysisResultsCache analysisResultsCache;
+    private AnalysisService analysisService;
+
+    @BeforeEach
+    void createService() {
+        analysisFileRepository = mock(AnalysisFileRepository.class);
+        analysisStatusRepository = mock(AnalysisStatusRepository.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        analysisResultsCache = new AnalysisResultsCache(10, invalidationBus);
+        DocumentRepository documentRepository = mock(DocumentRepository.class);
+        when(documentRepository.existsById(DOCUMENT_ID)).thenReturn(true);
+        analysisService = new AnalysisService(analysisFileRepository, analysisStatusRepository, analysisResultsCache, invalidationBus,
+            documentRepository, null, null, null, null, null);
+        ReflectionTestUtils.setField(analysisService, "analysisResultsDir", resultsDir.toString());
+        ReflectionTestUtils.setField(analysisService, "callbackSecret", "s3cret");
+    }
+
+    @Test
+    void acceptsPageInsideTheAnalysisDirectory() {
+        Path page = resultsDir.resolve(DOCUMENT_ID.toString()).resolve("docling").resolve("page_1.png");
+
+        assertThat(analysisService.resolveResultPath(DOCUMENT_ID, "docling", page.toString()))
+            .isEqualTo(page.toAbsolutePath().normalize());
+    }
+
+    @Test
+    void normalizesDotSegmentsThatStayInside() {
+        Path dir = resultsDir.resolve(DOCUMENT_ID.toString()).resolve("docling");
+        String reported = dir + "/tmp/../page_2.png";
+
+        assertThat(analysisService.resolveResultPath(DOCUMENT_ID, "docling", reported))
+            .isEqualTo(dir.resolve("page_2.png").toAbsolutePath().normalize());
+    }
+
+    @Test
+    void rejectsPathsOutsideTheAnalysisDirectory() {
+        Path dir = resultsDir.resolve(DOCUMENT_ID.toString()).resolve("docling");
+
+        assertThatThrownBy(() -> analysisService.resolveResultPath(DOCUMENT_ID, "docling", "/etc/passwd"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analysisService.resolveResultPath(DOCUMENT_ID, "docling", dir + "/../../../secret.pdf"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analysisService.resolveResultPath(DOCUMENT_ID, "deepdoctection", dir + "/page_1.png"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analysisService.resolveResultPath(UUID.randomUUID(), "docling", dir + "/page_1.png"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analysisService.resolveResultPath(DOCUMENT_ID, "docling", dir.toString()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void authorizesOnlyTheConfiguredCallbackSecret() {
+        assertThat(analysisService.isCallbackAuthorized("s3cret")).isTrue();
+        assertThat(analysisService.isCallbackAuthorized("s3cre")).isFalse();
+        assertThat(analysisService.isCallbackAuthorized(null)).isFalse();
+    }
+
+    @Test
+    void generatesASecretWhenNoneIsConfigured() {
+        ReflectionTestUtils.setField(analysisService, "callbackSecret", "");
+        analysisService.initCallbackSecret();
+
+        assertThat(analysisService.isCallbackAuthorized("")).isFalse();
+        assertThat((String) ReflectionTestUtils.getField(analysisService, "callbackSecret")).hasSizeGreaterThan(20);
+    }
+
+    @Test
+    void countsNewlyInsertedPages() {
+        when(analysisFileRepository.insertAllIfAbsent(eq(DOCUMENT_ID), eq("docling"), anyList())).thenReturn(1);
+
+        analysisService.saveAnalysisResults(DOCUMENT_ID, "docling", List.of(page(1), page(2)));
+
+        verify(analysisStatusRepository).addPages(DOCUMENT_ID, "docling", 1, 2, null);
+        verify(invalidationBus).publish(any());
+    }
+
+    @Test
+    void repollingStoredPagesChangesNothing() {
+        when(analysisFileRepository.insertAllIfAbsent(eq(DOCUMENT_ID), eq("docling"), anyList())).thenReturn(0);
+
+        analysisService.saveAnalysisResults(DOCUMENT_ID, "docling", List.of(page(1), page(2)));
+
+        verify(analysisStatusRepository, never()).addPages(any(), any(), anyInt(), anyInt(), any());
+        verify(invalidationBus, never()).publish(any());
+    }
+
+    @Test
+    void skipsResultsOutsideTheAnalysisDirectory() {
+        analysisService.saveAnalysisResults(DOCUMENT_ID, "docling", 
+            List.of(new PageResult(1, "/etc/passwd", 10L, null)));
+
+        verify(analysisFileRepository).insertAllIfAbsent(DOCUMENT_ID, "docling", List.of());
+    }
+
+    @Test
+    void unchangedStatusIsNotBroadcast() {
+        when(analysisStatusRepository.upsertStatus(DOCUMENT_ID, "docling", "COMPLETED", null)).thenReturn(0);
+
+        analysisService.updateAnalysisStatus(DOCUMENT_ID, "docling", "COMPLETED", null);
+
+        verify(invalidationBus, never()).publish(any());
+    }
+
+    @Test
+    void looksUpAnUncachedPageWithASingleRowQuery() {
+        AnalysisFile stored = storedPage(7);
+        when(analysisFileRepository.findFirstByDocumentIdAndAnalysisTypeAndPageNumber(DOCUMENT_ID, "docling", 7))
+            .thenReturn(Optional.of(stored));
+
+        assertThat(analysisService.getAnalysisResultPage(DOCUMENT_ID, "docling", 7)).contains(stored);
+        verify(analysisFileRepository, never()).findByDocumentIdAndAnalysisTypeOrderByPageNumber(any(), anyString());
+    }
+
+    @Test
+    void findsCachedPagesWithoutQuerying() {
+        List<AnalysisFile> pages = List.of(storedPage(1), storedPage(2), storedPage(4), storedPage(9));
+        when(analysisFileRepository.findByDocumentIdAndAnalysisTypeOrderByPageNumber(DOCUMENT_ID, "docling"))
+            .thenReturn(pages);
+        analysisService.getAnalysisResults(DOCUMENT_ID, "docling");
+
+        assertThat(analysisService.getAnalysisResultPage(DOCUMENT_ID, "docling", 1)).contains(pages.get(0));
+        assertThat(analysisService.getAnalysisResultPage(DOCUMENT_ID, "docling", 4)).contains(pages.get(2));
+        assertThat(analysisService.getAnalysisResultPage(DOCUMENT_ID, "docling", 9)).contains(pages.get(3));
+        assertThat(analysisService.getAnalysisResultPage(DOCUMENT_ID, "docling", 3)).isEmpty();
+        assertThat(analysisService.getAnalysisResultPage(DOCUMENT_ID, "docling", 10)).isEmpty();
+        verify(analysisFileRepository, never())
+            .findFirstByDocumentIdAndAnalysisTypeAndPageNumber(any(), anyString(), any());
+    }
+
+    private PageResult page(int pageNumber) {
+        Path file = resultsDir.resolve(DOCUMENT_ID.toString()).resolve("docling").resolve("page_" + pageNumber + ".png");
+        return new PageResult(pageNumber, file.toString(), 100L, null);
+    }
+
+    private static AnalysisFile storedPage(int pageNumber) {
+        AnalysisFile page = new AnalysisFile();
+        page.setPageNumber(pageNumber);
+        return page;
+    }
+}
@@ -0,0 +1,189 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.entity.UploadSession;
+import com.pdfprocessor.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadServiceTest {
+
+    private static final byte[] CONTENT = "%PDF-1.4 chunked upload body".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path stagingDir;
+
+    private final Map<UUID, UploadSession> sessions = new HashMap<>();
+    private UploadSessionRepository uploadSessionRepository;
+    private FileService fileService;
+    private ChunkedUploadService chunkedUploadService;
+
+    @BeforeEach
+    void createService() throws IOException {
+        uploadSessionRepository = mock(UploadSessionRepository.class);
+        when(uploadSessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            if (session.getId() == null) {
+                session.setId(UUID.randomUUID());
+            }
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(uploadSessionRepository.findById(any())).thenAnswer(
+            invocation -> Optional.ofNullable(sessions.get(invocation.<UUID>getArgument(0))));
+        when(uploadSessionRepository.findByIdForUpdate(any())).thenAnswer(
+            invocation -> Optional.ofNullable(sessions.get(invocation.<UUID>getArgument(0))));
+        when(uploadSessionRepository.findByIdForUpdateNoWait(any())).thenAnswer(
+            invocation -> Optional.ofNullable(sessions.get(invocation.<UUID>getArgument(0))));
+        doAnswer(invocation -> sessions.remove(invocation.<UploadSession>getArgument(0).getId()))
+            .when(uploadSessionRepository).delete(any(UploadSession.class));
+
+        fileService = mock(FileService.class);
+        when(fileService.getMaxFileSize()).thenReturn(1024L);
+        when(fileService.createStagingFile()).thenAnswer(invocation -> Files.createTempFile(stagingDir, "upload-", ".part"));
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        chunkedUploadService = new ChunkedUploadService(uploadSessionRepository, fileService, transactionTemplate);
+    }
+
+    @Test
+    void assemblesChunksAndFinalizesIntoOneDocument() throws IOException {
+        Document document = storedDocument();
+        UploadSession session = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length);
+        UUID uploadId = session.getId();
+
+        assertThat(chunkedUploadService.appendChunk(uploadId, 0, chunk(0, 10))).isEqualTo(10);
+        assertThat(chunkedUploadService.getUpload(uploadId).orElseThrow().getUploadOffset()).isEqualTo(10);
+        assertThat(chunkedUploadService.appendChunk(uploadId, 10, chunk(10, CONTENT.length)))
+            .isEqualTo(CONTENT.length);
+        assertThat(Files.readAllBytes(Path.of(session.getStagingPath()))).isEqualTo(CONTENT);
+
+        assertThat(chunkedUploadService.finalizeUpload(uploadId)).contains(document);
+        // A retried finalize after a lost response returns the same document without storing it again
+        assertThat(chunkedUploadService.finalizeUpload(uploadId)).contains(document);
+        verify(fileService, times(1)).storeStagedFile(any(), eq("report.pdf"), eq("application/pdf"), anyString());
+    }
+
+    @Test
+    void rejectsChunkAtTheWrongOffset() throws IOException {
+        UUID uploadId = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length).getId();
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(0, 10));
+
+        assertThatThrownBy(() -> chunkedUploadService.appendChunk(uploadId, 5, chunk(5, 15)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(chunkedUploadService.getUpload(uploadId).orElseThrow().getUploadOffset()).isEqualTo(10);
+    }
+
+    @Test
+    void keepsBytesOfAnInterruptedChunkSoTheClientCanResume() throws IOException {
+        UUID uploadId = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length).getId();
+
+        // The body ends early, as when the connection drops mid-chunk
+        assertThat(chunkedUploadService.appendChunk(uploadId, 0, chunk(0, 7))).isEqualTo(7);
+        assertThat(chunkedUploadService.appendChunk(uploadId, 7, chunk(7, CONTENT.length)))
+            .isEqualTo(CONTENT.length);
+    }
+
+    @Test
+    void commitsTheOffsetOfABodyThatFailsMidChunk() throws IOException {
+        UUID uploadId = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length).getId();
+        InputStream brokenBody = new SequenceInputStream(chunk(0, 7), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        assertThatThrownBy(() -> chunkedUploadService.appendChunk(uploadId, 0, brokenBody))
+            .isInstanceOf(IOException.class);
+        assertThat(chunkedUploadService.getUpload(uploadId).orElseThrow().getUploadOffset()).isEqualTo(7);
+    }
+
+    @Test
+    void rejectsAChunkWhileAnotherNodeHoldsTheUpload() throws IOException {
+        UUID uploadId = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length).getId();
+        when(uploadSessionRepository.findByIdForUpdateNoWait(uploadId))
+            .thenThrow(new CannotAcquireLockException("could not obtain lock on row in relation \"upload_sessions\""));
+
+        assertThatThrownBy(() -> chunkedUploadService.appendChunk(uploadId, 0, chunk(0, 10)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(chunkedUploadService.getUpload(uploadId).orElseThrow().getUploadOffset()).isZero();
+    }
+
+    @Test
+    void refusesToFinalizeAnIncompleteUpload() throws IOException {
+        UUID uploadId = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length).getId();
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(0, 10));
+
+        assertThatThrownBy(() -> chunkedUploadService.finalizeUpload(uploadId))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(sessions).containsKey(uploadId);
+    }
+
+    @Test
+    void deletesTheUploadWhenItsContentIsRejected() throws IOException {
+        when(fileService.storeStagedFile(any(), anyString(), anyString(), anyString()))
+            .thenThrow(new IllegalArgumentException("Not a valid PDF"));
+        UUID uploadId = chunkedUploadService.createUpload("report.pdf", "application/pdf", CONTENT.length).getId();
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(0, CONTENT.length));
+
+        assertThatThrownBy(() -> chunkedUploadService.finalizeUpload(uploadId))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(chunkedUploadService.getUpload(uploadId)).isEmpty();
+    }
+
+    @Test
+    void finalizingAnUnknownUploadFindsNothing() throws IOException {
+        assertThat(chunkedUploadService.finalizeUpload(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void validatesNewUploads() {
+        assertThatThrownBy(() -> chunkedUploadService.createUpload("report.txt", "text/plain", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunkedUploadService.createUpload("report.pdf", "application/pdf", 4096))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Document storedDocument() throws IOException {
+        Document document = new Document("report.pdf", (long) CONTENT.length, "uploads/report.pdf", "application/pdf");
+        document.setId(UUID.randomUUID());
+        when(fileService.storeStagedFile(any(), anyString(), anyString(), anyString())).thenReturn(document);
+        when(fileService.getDocumentById(document.getId())).thenReturn(Optional.of(document));
+        return document;
+    }
+
+    private static ByteArrayInputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(CONTENT, from, to - from);
+    }
+}
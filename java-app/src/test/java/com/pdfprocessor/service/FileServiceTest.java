@@ -0,0 +1,199 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.Document;
+import com.pdfprocessor.repository.DocumentFile;
+import com.pdfprocessor.repository.DocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileServiceTest {
+
+    private static final UUID DOCUMENT_ID = UUID.fromString("3d7e9b52-1c4a-4f08-8e6b-5a2f0c9d7e13");
+    private static final String CONTENT_HASH = "ab54d286f8a3bf2e5c1d9e07a4b6c3f1d2e8a9b0c7f6e5d4c3b2a1908f7e6d5c";
+
+    @TempDir
+    Path uploadDir;
+
+    private DocumentRepository documentRepository;
+    private Consumer<CacheInvalidationEvent> invalidations;
+    private FileService fileService;
+    private FileService proxy;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createService() {
+        documentRepository = mock(DocumentRepository.class);
+        CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+        fileService = new FileService(documentRepository, invalidationBus);
+        ReflectionTestUtils.setField(fileService, "documentFileCacheSize", 10);
+        ReflectionTestUtils.setField(fileService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(fileService, "maxFileSize", 1024L);
+        proxy = mock(FileService.class);
+        ReflectionTestUtils.setField(fileService, "self", proxy);
+
+        ArgumentCaptor<Consumer<CacheInvalidationEvent>> subscriber = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(subscriber.capture());
+        invalidations = subscriber.getValue();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void searchesWithWildcardsOfTheQueryEscaped() {
+        assertThat(fileService.searchDocuments("  50%_off\\ ", 40, 20)).isEmpty();
+        verify(documentRepository).search("50%_off\\", "%50\\%\\_off\\\\%", "50\\%\\_off\\\\%", 40, 20);
+    }
+
+    @Test
+    void countsSearchResultsWithTheSameFilter() {
+        when(documentRepository.countSearch("report", "%report%")).thenReturn(7L);
+
+        assertThat(fileService.countSearchResults(" report")).isEqualTo(7);
+    }
+
+    @Test
+    void searchesShortQueriesByPrefixOnly() {
+        assertThat(fileService.searchDocuments(" a_ ", 0, 20)).isEmpty();
+        verify(documentRepository).searchByPrefix("a\\_%", 0, 20);
+        verify(documentRepository, never()).search(anyString(), anyString(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void countsShortQueriesByPrefix() {
+        when(documentRepository.countByPrefix("ab%")).thenReturn(3L);
+
+        assertThat(fileService.countSearchResults("ab")).isEqualTo(3);
+        verify(documentRepository, never()).countSearch(anyString(), anyString());
+    }
+
+    @Test
+    void servesDocumentFilesFromTheProjectionCache() {
+        DocumentFile file = new DocumentFile(DOCUMENT_ID, "report.pdf", "uploads/objects/ab/ab.pdf", "ab");
+        when(documentRepository.findFileById(DOCUMENT_ID)).thenReturn(Optional.of(file));
+
+        assertThat(fileService.getDocumentFile(DOCUMENT_ID)).contains(file);
+        assertThat(fileService.getDocumentFile(DOCUMENT_ID)).contains(file);
+        verify(documentRepository, times(1)).findFileById(DOCUMENT_ID);
+    }
+
+    @Test
+    void reloadsDocumentFileOnlyAfterADocumentInvalidation() {
+        DocumentFile file = new DocumentFile(DOCUMENT_ID, "report.pdf", "uploads/objects/ab/ab.pdf", "ab");
+        when(documentRepository.findFileById(DOCUMENT_ID)).thenReturn(Optional.of(file));
+        fileService.getDocumentFile(DOCUMENT_ID);
+
+        invalidations.accept(CacheInvalidationEvent.analysis(DOCUMENT_ID, "docling"));
+        fileService.getDocumentFile(DOCUMENT_ID);
+        verify(documentRepository, times(1)).findFileById(DOCUMENT_ID);
+
+        invalidations.accept(CacheInvalidationEvent.document(DOCUMENT_ID));
+        fileService.getDocumentFile(DOCUMENT_ID);
+        verify(documentRepository, times(2)).findFileById(DOCUMENT_ID);
+    }
+
+    @Test
+    void cachesDocumentCountUntilADocumentChanges() {
+        when(documentRepository.count()).thenReturn(3L, 4L);
+
+        assertThat(fileService.countDocuments()).isEqualTo(3);
+        assertThat(fileService.countDocuments()).isEqualTo(3);
+
+        invalidations.accept(CacheInvalidationEvent.document(DOCUMENT_ID));
+
+        assertThat(fileService.countDocuments()).isEqualTo(4);
+        verify(documentRepository, times(2)).count();
+    }
+
+    @Test
+    void removesANewBlobWhenTheStoreRollsBack() throws IOException {
+        when(documentRepository.save(any(Document.class))).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            document.setId(DOCUMENT_ID);
+            return document;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+
+        Document document = fileService.storeStagedFile(stagedFile(), "report.pdf", "application/pdf", CONTENT_HASH);
+
+        assertThat(Path.of(document.getFilePath())).exists();
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(proxy).deleteBlobIfUnreferenced(CONTENT_HASH, document.getFilePath());
+    }
+
+    @Test
+    void leavesAReusedBlobAloneWhenTheStoreRollsBack() throws IOException {
+        when(documentRepository.save(any(Document.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Path blob = uploadDir.resolve("objects").resolve(CONTENT_HASH.substring(0, 2)).resolve(CONTENT_HASH + ".pdf");
+        Files.createDirectories(blob.getParent());
+        Files.writeString(blob, "%PDF-1.4 stored earlier");
+        TransactionSynchronizationManager.initSynchronization();
+
+        fileService.storeStagedFile(stagedFile(), "report.pdf", "application/pdf", CONTENT_HASH);
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(proxy, never()).deleteBlobIfUnreferenced(anyString(), anyString());
+    }
+
+    @Test
+    void deletesTheBlobOnlyOnceTheDocumentDeleteCommits() {
+        DocumentFile file = new DocumentFile(DOCUMENT_ID, "report.pdf", "uploads/objects/ab/ab.pdf", CONTENT_HASH);
+        when(documentRepository.findFileById(DOCUMENT_ID)).thenReturn(Optional.of(file));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(fileService.deleteDocument(DOCUMENT_ID)).isTrue();
+
+        verify(proxy, never()).deleteBlobIfUnreferenced(anyString(), anyString());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(proxy).deleteBlobIfUnreferenced(CONTENT_HASH, file.filePath());
+    }
+
+    @Test
+    void keepsBlobsThatAreStillReferenced() throws IOException {
+        Path blob = Files.writeString(uploadDir.resolve("shared.pdf"), "%PDF-1.4");
+        when(documentRepository.countByFilePath(blob.toString())).thenReturn(1L, 0L);
+
+        fileService.deleteBlobIfUnreferenced(CONTENT_HASH, blob.toString());
+        assertThat(blob).exists();
+
+        fileService.deleteBlobIfUnreferenced(CONTENT_HASH, blob.toString());
+        assertThat(blob).doesNotExist();
+        verify(documentRepository, times(2)).lockContentHash(CONTENT_HASH);
+    }
+
+    private Path stagedFile() throws IOException {
+        Path staged = fileService.createStagingFile();
+        return Files.writeString(staged, "%PDF-1.4 uploaded");
+    }
+
+    private static void completeTransaction(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,173 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and peak memory of merging 10, 100 and 500 A4 page images at 150 dpi into one PDF: in-process with
+ * PdfMergeService (peak heap) against the docling_to_pdf.py subprocess it replaced (peak RSS of the child).
+ * The subprocess runs only when ANALYSIS_PYTHON names a Python with Pillow, such as
+ * python-analysis-service/myenv/bin/python. Run with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class PdfMergeServiceBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfMergeServiceBenchmarkTest.class);
+
+    private static final int[] PAGE_COUNTS = {10, 100, 500};
+    private static final int WIDTH = 1240;
+    private static final int HEIGHT = 1754;
+    // The hard limit the subprocess ran under
+    private static final long SUBPROCESS_TIMEOUT_SECONDS = 30;
+    private static final Path SCRIPT = Paths.get("../python-analysis-service/docling_to_pdf.py");
+
+    private final PdfMergeService pdfMergeService = new PdfMergeService();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mergesPagesInProcess() throws Exception {
+        Path image = writePageImage();
+        String python = System.getenv("ANALYSIS_PYTHON");
+
+        for (int pageCount : PAGE_COUNTS) {
+            UUID documentId = UUID.randomUUID();
+            List<AnalysisFile> pages = copyPages(image, documentId, pageCount);
+
+            resetPeakHeap();
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(tempDir.resolve(documentId + ".pdf"))) {
+                assertThat(pdfMergeService.writeAnalysisPdf(pages, out)).isEqualTo(pageCount);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long peakHeapMb = peakHeap() / (1024 * 1024);
+
+            if (python != null && !python.isBlank() && Files.exists(SCRIPT)) {
+                Subprocess subprocess = runSubprocess(python, documentId);
+                logger.info("{} pages: in-process {} s, peak heap {} MB; subprocess {} s, peak RSS {} MB{}",
+                    pageCount, seconds, peakHeapMb, subprocess.seconds(), subprocess.peakRssMb(),
+                    subprocess.seconds() > SUBPROCESS_TIMEOUT_SECONDS ? " (past its 30 s timeout)" : "");
+            } else {
+                logger.info("{} pages: in-process {} s, peak heap {} MB (set ANALYSIS_PYTHON to compare the subprocess)",
+                    pageCount, seconds, peakHeapMb);
+            }
+            assertThat(seconds).isLessThan(SUBPROCESS_TIMEOUT_SECONDS);
+        }
+    }
+
+    /**
+     * Wall time and peak resident memory of one docling_to_pdf.py run
+     */
+    private record Subprocess(double seconds, long peakRssMb) {
+    }
+
+    private Subprocess runSubprocess(String python, UUID documentId) throws IOException, InterruptedException {
+        // ru_maxrss of the child itself, in kilobytes on Linux
+        String wrapper = "import resource, runpy, sys\n" +
+            "sys.argv = ['docling_to_pdf.py', sys.argv[1], '--base-dir', sys.argv[2]]\n" +
+            "try:\n" +
+            "    runpy.run_path('" + SCRIPT.toAbsolutePath() + "', run_name='__main__')\n" +
+            "except SystemExit:\n" +
+            "    pass\n" +
+            "print('MAXRSS_KB', resource.getrusage(resource.RUSAGE_SELF).ru_maxrss)\n";
+        Process process = new ProcessBuilder(python, "-c", wrapper, documentId.toString(), tempDir.toString())
+            .redirectErrorStream(true)
+            .start();
+        long start = System.nanoTime();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(10, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long peakRssKb = output.lines()
+            .filter(line -> line.startsWith("MAXRSS_KB "))
+            .mapToLong(line -> Long.parseLong(line.substring("MAXRSS_KB ".length()).trim()))
+            .findFirst()
+            .orElse(-1024);
+        assertThat(output).contains("SUCCESS");
+        return new Subprocess(seconds, peakRssKb / 1024);
+    }
+
+    private List<AnalysisFile> copyPages(Path image, UUID documentId, int count) throws IOException {
+        // Where the analysis service writes results and the subprocess looked for them
+        Path dir = Files.createDirectories(tempDir.resolve(documentId.toString()).resolve("docling"));
+        List<AnalysisFile> pages = new ArrayList<>();
+        for (int pageNumber = 1; pageNumber <= count; pageNumber++) {
+            Path page = Files.copy(image, dir.resolve("page_" + pageNumber + ".png"));
+            AnalysisFile analysisFile = new AnalysisFile();
+            analysisFile.setPageNumber(pageNumber);
+            analysisFile.setResultFilePath(page.toString());
+            pages.add(analysisFile);
+        }
+        return pages;
+    }
+
+    /**
+     * A page like the analysis renders: white, with coloured layout boxes and text
+     */
+    private Path writePageImage() throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+        graphics.setFont(new Font(Font.SERIF, Font.PLAIN, 18));
+        for (int block = 0; block < 12; block++) {
+            int top = 100 + block * 130;
+            graphics.setColor(block % 3 == 0 ? Color.RED : Color.BLUE);
+            graphics.drawRect(100, top, WIDTH - 200, 110);
+            graphics.setColor(Color.BLACK);
+            for (int line = 0; line < 4; line++) {
+                graphics.drawString("Block " + block + " line " + line + ": the quick brown fox jumps over the lazy dog",
+                    120, top + 25 + line * 24);
+            }
+        }
+        graphics.dispose();
+        Path file = tempDir.resolve("page.png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
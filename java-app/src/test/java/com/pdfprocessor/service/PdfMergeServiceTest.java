@@ -0,0 +1,135 @@
+package com.pdfprocessor.service;
+
+import com.pdfprocessor.entity.AnalysisFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfMergeServiceTest {
+
+    private final PdfMergeService pdfMergeService = new PdfMergeService();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void skipsUnreadableImages() throws IOException {
+        Path image = writeNoiseImage(20);
+        List<AnalysisFile> pages = pages(image, 2);
+        pages.add(1, page(3, tempDir.resolve("missing.png")));
+
+        assertThat(pdfMergeService.writeAnalysisPdf(pages, OutputStream.nullOutputStream())).isEqualTo(2);
+    }
+
+    @Test
+    void failsWhenNoImageIsReadable() {
+        List<AnalysisFile> pages = List.of(page(1, tempDir.resolve("missing.png")));
+
+        assertThatThrownBy(() -> pdfMergeService.writeAnalysisPdf(pages, OutputStream.nullOutputStream()))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void peakHeapDoesNotGrowWithPageCount() throws IOException {
+        Path image = writeNoiseImage(800);
+        long pageBytes = Files.size(image);
+        // Past the look-ahead window both runs hold the same number of prepared pages
+        int lookAhead = ForkJoinPool.commonPool().getParallelism() + 1;
+        int fewPages = 2 * lookAhead;
+        int manyPages = 8 * lookAhead;
+
+        long fewPeak = peakHeapWhileWriting(pages(image, fewPages), pageBytes);
+        long manyPeak = peakHeapWhileWriting(pages(image, manyPages), pageBytes);
+
+        // Retaining written pages would add (manyPages - fewPages) * pageBytes
+        assertThat(manyPeak - fewPeak).isLessThan((manyPages - fewPages) * pageBytes / 2);
+    }
+
+    private long peakHeapWhileWriting(List<AnalysisFile> pages, long pageBytes) throws IOException {
+        HeapSamplingStream out = new HeapSamplingStream(pageBytes);
+        out.sample();
+        assertThat(pdfMergeService.writeAnalysisPdf(pages, out)).isEqualTo(pages.size());
+        assertThat(out.written).isGreaterThan(pages.size() * pageBytes / 2);
+        return out.peak;
+    }
+
+    private Path writeNoiseImage(int size) throws IOException {
+        // Random pixels do not compress, so every embedded page costs about as much as its file
+        Random random = new Random(42);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        Path file = tempDir.resolve("page-" + size + ".png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    private static List<AnalysisFile> pages(Path image, int count) {
+        List<AnalysisFile> pages = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            pages.add(page(i, image));
+        }
+        return pages;
+    }
+
+    private static AnalysisFile page(int pageNumber, Path image) {
+        AnalysisFile page = new AnalysisFile();
+        page.setPageNumber(pageNumber);
+        page.setResultFilePath(image.toString());
+        return page;
+    }
+
+    /**
+     * Discards what is written and records the live heap after a GC about once per page
+     */
+    private static class HeapSamplingStream extends OutputStream {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long sampleEvery;
+        private long written;
+        private long sinceSample;
+        private long peak;
+
+        HeapSamplingStream(long sampleEvery) {
+            this.sampleEvery = sampleEvery;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+            sinceSample += len;
+            if (sinceSample >= sampleEvery) {
+                sinceSample = 0;
+                sample();
+            }
+        }
+
+        void sample() {
+            System.gc();
+            peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pdfprocessor.util;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time to first page and CPU of serving a 40 MB PDF from an embedded Tomcat: HttpFileSender (ranges, sendfile)
+ * against the previous path, a stream copy of the whole file. A viewer without ranges has to wait for the
+ * whole file; with them it asks for the first 64 KB, as pdf.js does. Run with RUN_BENCHMARKS=true
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class HttpFileSenderBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpFileSenderBenchmarkTest.class);
+
+    private static final int FILE_SIZE = 40 * 1024 * 1024;
+    private static final String FIRST_PAGE_RANGE = "bytes=0-65535";
+    private static final int WARMUP_RUNS = 3;
+    private static final int RUNS = 10;
+
+    @TempDir
+    Path tempDir;
+
+    private Tomcat tomcat;
+    private HttpClient client;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException, LifecycleException {
+        byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(tempDir.resolve("large.pdf"), content);
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(tempDir.resolve("tomcat").toString());
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "ranged", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                HttpFileSender.send(request, response, file, "large.pdf", "application/pdf");
+            }
+        });
+        Tomcat.addServlet(context, "streamed", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType("application/pdf");
+                response.setContentLengthLong(Files.size(file));
+                Files.copy(file, response.getOutputStream());
+            }
+        });
+        context.addServletMappingDecoded("/ranged", "ranged");
+        context.addServletMappingDecoded("/streamed", "streamed");
+        tomcat.getConnector();
+        tomcat.start();
+
+        baseUrl = "http://localhost:" + tomcat.getConnector().getLocalPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void stopServer() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    @Test
+    void firstPageArrivesBeforeTheWholeFileWould() throws Exception {
+        Measurement streamed = measure("/streamed", null, 200);
+        Measurement ranged = measure("/ranged", FIRST_PAGE_RANGE, 206);
+        Measurement rangedWhole = measure("/ranged", null, 200);
+
+        logger.info("40 MB PDF, median of {} requests: stream copy of the whole file {} ms ({} ms CPU), " +
+            "first 64 KB range {} ms ({} ms CPU), whole file through HttpFileSender {} ms ({} ms CPU)", RUNS,
+            streamed.millis(), streamed.cpuMillis(), ranged.millis(), ranged.cpuMillis(),
+            rangedWhole.millis(), rangedWhole.cpuMillis());
+
+        assertThat(ranged.millis()).isLessThan(streamed.millis());
+    }
+
+    /**
+     * Median wall time and process CPU time of one request, client side included
+     */
+    private record Measurement(double millis, double cpuMillis) {
+    }
+
+    private Measurement measure(String path, String range, int expectedStatus) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (range != null) {
+            builder.header("Range", range);
+        }
+        HttpRequest request = builder.build();
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        double[] millis = new double[RUNS];
+        double[] cpuMillis = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long cpuStart = os.getProcessCpuTime();
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            millis[run] = (System.nanoTime() - start) / 1e6;
+            cpuMillis[run] = (os.getProcessCpuTime() - cpuStart) / 1e6;
+            assertThat(response.statusCode()).isEqualTo(expectedStatus);
+        }
+        return new Measurement(median(millis), median(cpuMillis));
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+}
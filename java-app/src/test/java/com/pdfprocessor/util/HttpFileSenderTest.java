@@ -0,0 +1,144 @@
+package com.pdfprocessor.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpFileSenderTest {
+
+    private static final long LENGTH = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        content = new byte[(int) LENGTH];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(tempDir.resolve("test.pdf"), content);
+    }
+
+    @Test
+    void parsesClosedRange() {
+        assertRanges(HttpFileSender.parseRanges("bytes=0-99", LENGTH), 0, 99);
+    }
+
+    @Test
+    void parsesOpenRangeToEndOfFile() {
+        assertRanges(HttpFileSender.parseRanges("bytes=900-", LENGTH), 900, 999);
+    }
+
+    @Test
+    void clampsRangeEndToFileLength() {
+        assertRanges(HttpFileSender.parseRanges("bytes=500-5000", LENGTH), 500, 999);
+    }
+
+    @Test
+    void parsesSuffixRange() {
+        assertRanges(HttpFileSender.parseRanges("bytes=-100", LENGTH), 900, 999);
+    }
+
+    @Test
+    void clampsSuffixLongerThanFile() {
+        assertRanges(HttpFileSender.parseRanges("bytes=-5000", LENGTH), 0, 999);
+    }
+
+    @Test
+    void parsesMultipleRangesInRequestOrder() {
+        assertRanges(HttpFileSender.parseRanges("bytes=0-9, 20-29", LENGTH), 0, 9, 20, 29);
+    }
+
+    @Test
+    void keepsOverlappingRangesAsRequested() {
+        assertRanges(HttpFileSender.parseRanges("bytes=0-50,25-75", LENGTH), 0, 50, 25, 75);
+    }
+
+    @Test
+    void dropsUnsatisfiableRangesOfAMultiRangeRequest() {
+        assertRanges(HttpFileSender.parseRanges("bytes=0-9,2000-", LENGTH), 0, 9);
+    }
+
+    @Test
+    void reportsUnsatisfiableRangesAsEmpty() {
+        assertThat(HttpFileSender.parseRanges("bytes=1000-", LENGTH)).isEmpty();
+        assertThat(HttpFileSender.parseRanges("bytes=-0", LENGTH)).isEmpty();
+        assertThat(HttpFileSender.parseRanges("bytes=0-10", 0)).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedHeaders() {
+        assertThat(HttpFileSender.parseRanges("items=0-1", LENGTH)).isNull();
+        assertThat(HttpFileSender.parseRanges("bytes=", LENGTH)).isNull();
+        assertThat(HttpFileSender.parseRanges("bytes=abc", LENGTH)).isNull();
+        assertThat(HttpFileSender.parseRanges("bytes=5-1", LENGTH)).isNull();
+        assertThat(HttpFileSender.parseRanges("bytes=1-x", LENGTH)).isNull();
+        assertThat(HttpFileSender.parseRanges("bytes=0-9,oops", LENGTH)).isNull();
+    }
+
+    @Test
+    void answersUnsatisfiableRangeWith416() throws IOException {
+        MockHttpServletResponse response = send("bytes=5000-");
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */1000");
+    }
+
+    @Test
+    void servesSingleRangeAsPartialContent() throws IOException {
+        MockHttpServletResponse response = send("bytes=10-19");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 10-19/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+    }
+
+    @Test
+    void servesMultipleRangesAsMultipart() throws IOException {
+        MockHttpServletResponse response = send("bytes=0-9,20-29");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = new String(response.getContentAsByteArray(), StandardCharsets.ISO_8859_1);
+        assertThat(body).contains("Content-Range: bytes 0-9/1000", "Content-Range: bytes 20-29/1000");
+        assertThat(response.getContentAsByteArray()).hasSize((int) response.getContentLengthLong());
+    }
+
+    @Test
+    void ignoresMalformedRangeAndServesWholeFile() throws IOException {
+        MockHttpServletResponse response = send("bytes=abc");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    private MockHttpServletResponse send(String range) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/test.pdf");
+        request.addHeader("Range", range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpFileSender.send(request, response, file, "test.pdf", "application/pdf");
+        return response;
+    }
+
+    private static void assertRanges(List<long[]> ranges, long... expected) {
+        assertThat(ranges).isNotNull().hasSize(expected.length / 2);
+        for (int i = 0; i < ranges.size(); i++) {
+            assertThat(ranges.get(i)).containsExactly(expected[2 * i], expected[2 * i + 1]);
+        }
+    }
+}
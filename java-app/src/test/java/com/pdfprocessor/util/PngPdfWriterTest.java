@@ -0,0 +1,162 @@
+package com.pdfprocessor.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PngPdfWriterTest {
+
+    private static final int WIDTH = 30;
+    private static final int HEIGHT = 20;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void embedsRgbPngWithoutDecoding() throws IOException, DataFormatException {
+        PngPdfWriter.PdfImage image = PngPdfWriter.readImage(writePng("rgb.png", BufferedImage.TYPE_INT_RGB));
+
+        assertThat(image.passThrough()).isTrue();
+        assertThat(image.colorSpace()).isEqualTo("/DeviceRGB");
+        assertThat(image.bitsPerComponent()).isEqualTo(8);
+        assertThat(image.decodeParms()).contains("/Predictor 15", "/Colors 3", "/Columns " + WIDTH);
+        // Still PNG-filtered scanlines: one filter byte per row before the samples
+        assertThat(inflate(image.data())).hasSize(HEIGHT * (1 + WIDTH * 3));
+    }
+
+    @Test
+    void embedsGreyscalePngWithoutDecoding() throws IOException, DataFormatException {
+        PngPdfWriter.PdfImage image = PngPdfWriter.readImage(writePng("grey.png", BufferedImage.TYPE_BYTE_GRAY));
+
+        assertThat(image.passThrough()).isTrue();
+        assertThat(image.colorSpace()).isEqualTo("/DeviceGray");
+        assertThat(image.decodeParms()).contains("/Colors 1");
+        assertThat(inflate(image.data())).hasSize(HEIGHT * (1 + WIDTH));
+    }
+
+    @Test
+    void embedsPalettePngWithItsPalette() throws IOException {
+        PngPdfWriter.PdfImage image = PngPdfWriter.readImage(writePng("palette.png", BufferedImage.TYPE_BYTE_INDEXED));
+
+        assertThat(image.passThrough()).isTrue();
+        assertThat(image.colorSpace()).startsWith("[/Indexed /DeviceRGB ");
+        assertThat(image.decodeParms()).contains("/Colors 1");
+    }
+
+    @Test
+    void decodesPngWithAlphaAndFlattensItOntoWhite() throws IOException, DataFormatException {
+        BufferedImage argb = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        argb.setRGB(0, 0, 0x00000000);
+        argb.setRGB(1, 0, 0xFF102030);
+        Path file = tempDir.resolve("alpha.png");
+        ImageIO.write(argb, "png", file.toFile());
+
+        PngPdfWriter.PdfImage image = PngPdfWriter.readImage(file);
+
+        assertThat(image.passThrough()).isFalse();
+        assertThat(image.colorSpace()).isEqualTo("/DeviceRGB");
+        assertThat(image.decodeParms()).isNull();
+        byte[] rgb = inflate(image.data());
+        assertThat(rgb).hasSize(WIDTH * HEIGHT * 3);
+        assertThat(new byte[]{rgb[0], rgb[1], rgb[2]}).containsExactly((byte) 255, (byte) 255, (byte) 255);
+        assertThat(new byte[]{rgb[3], rgb[4], rgb[5]}).containsExactly((byte) 0x10, (byte) 0x20, (byte) 0x30);
+    }
+
+    @Test
+    void decodesNonPngImagesThroughImageIo() throws IOException {
+        BufferedImage rgb = pattern(BufferedImage.TYPE_INT_RGB);
+        Path file = tempDir.resolve("page.bmp");
+        ImageIO.write(rgb, "bmp", file.toFile());
+
+        PngPdfWriter.PdfImage image = PngPdfWriter.readImage(file);
+
+        assertThat(image.passThrough()).isFalse();
+        assertThat(image.width()).isEqualTo(WIDTH);
+        assertThat(image.height()).isEqualTo(HEIGHT);
+    }
+
+    @Test
+    void rejectsFilesThatAreNoImage() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("page.png"), "not an image");
+
+        assertThatThrownBy(() -> PngPdfWriter.readImage(file)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void writesACrossReferenceTablePointingAtEveryObject() throws IOException {
+        PngPdfWriter.PdfImage rgb = PngPdfWriter.readImage(writePng("rgb.png", BufferedImage.TYPE_INT_RGB));
+        PngPdfWriter.PdfImage grey = PngPdfWriter.readImage(writePng("grey.png", BufferedImage.TYPE_BYTE_GRAY));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PngPdfWriter writer = new PngPdfWriter(out, PngPdfWriter.DEFAULT_DPI)) {
+            writer.addPage(rgb);
+            writer.addPage(grey);
+            assertThat(writer.getPageCount()).isEqualTo(2);
+        }
+
+        byte[] pdf = out.toByteArray();
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        assertThat(text).startsWith("%PDF-1.4\n").endsWith("%%EOF\n").contains("/Type /Pages", "/Count 2");
+
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$").matcher(text);
+        assertThat(startxref.find()).isTrue();
+        int xrefOffset = Integer.parseInt(startxref.group(1));
+        assertThat(text.substring(xrefOffset)).startsWith("xref\n0 ");
+
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(text.substring(xrefOffset));
+        int objectNumber = 0;
+        while (entries.find()) {
+            objectNumber++;
+            int offset = Integer.parseInt(entries.group(1));
+            assertThat(text.substring(offset)).startsWith(objectNumber + " 0 obj\n");
+        }
+        // Catalog, page tree and an image, content stream and page object per page
+        assertThat(objectNumber).isEqualTo(2 + 2 * 3);
+        assertThat(text).contains("/Size " + (objectNumber + 1));
+    }
+
+    private Path writePng(String name, int type) throws IOException {
+        Path file = tempDir.resolve(name);
+        ImageIO.write(pattern(type), "png", file.toFile());
+        return file;
+    }
+
+    private static BufferedImage pattern(int type) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, (x * 8) << 16 | (y * 12) << 8 | ((x + y) * 4));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        while (!inflater.finished()) {
+            int n = inflater.inflate(buffer);
+            if (n == 0 && inflater.needsInput()) {
+                throw new DataFormatException("Truncated deflate stream");
+            }
+            out.write(buffer, 0, n);
+        }
+        inflater.end();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,90 @@
+package com.pdfprocessor.vaadin.view.component;
+
+import com.pdfprocessor.service.AnalysisProgressEvent;
+import com.pdfprocessor.service.CacheInvalidationBus;
+import com.vaadin.flow.shared.Registration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AnalysisProgressBroadcasterTest {
+
+    private static final UUID DOCUMENT_ID = UUID.fromString("9a4d1e27-6b3c-4f85-a0e2-7c1b5d8f3a64");
+
+    private CacheInvalidationBus invalidationBus;
+    private AnalysisProgressBroadcaster broadcaster;
+    private Consumer<String> otherNodes;
+
+    @BeforeEach
+    void createBroadcaster() {
+        invalidationBus = mock(CacheInvalidationBus.class);
+        broadcaster = new AnalysisProgressBroadcaster(invalidationBus);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<String>> subscriber = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribeChannel(eq("pdf_analysis_progress"), subscriber.capture());
+        otherNodes = subscriber.getValue();
+    }
+
+    @AfterEach
+    void stopBroadcaster() {
+        broadcaster.stopExecutor();
+    }
+
+    @Test
+    void deliversLocalEventsToTheDocumentsListeners() throws Exception {
+        AnalysisProgressEvent event = new AnalysisProgressEvent(DOCUMENT_ID, "docling", 3, 3, 10, 42L, "IN_PROGRESS");
+        CompletableFuture<AnalysisProgressEvent> received = new CompletableFuture<>();
+        broadcaster.register(DOCUMENT_ID, received::complete);
+
+        broadcaster.onAnalysisProgress(event);
+
+        assertThat(received.get(5, TimeUnit.SECONDS)).isEqualTo(event);
+    }
+
+    @Test
+    void sendsEventsToTheOtherNodes() {
+        AnalysisProgressEvent event = new AnalysisProgressEvent(DOCUMENT_ID, "docling", null, 10, 10, null, "COMPLETED");
+
+        broadcaster.sendToOtherNodes(event);
+
+        verify(invalidationBus).notifyOtherNodes("pdf_analysis_progress", event.toPayload());
+    }
+
+    @Test
+    void deliversEventsFromOtherNodes() throws Exception {
+        AnalysisProgressEvent event = new AnalysisProgressEvent(DOCUMENT_ID, "deepdoctection", 7, 7, null, null, "IN_PROGRESS");
+        CompletableFuture<AnalysisProgressEvent> received = new CompletableFuture<>();
+        broadcaster.register(DOCUMENT_ID, received::complete);
+
+        otherNodes.accept(event.toPayload());
+
+        assertThat(received.get(5, TimeUnit.SECONDS)).isEqualTo(event);
+    }
+
+    @Test
+    void stopsDeliveringOnceTheRegistrationIsRemoved() throws Exception {
+        CompletableFuture<AnalysisProgressEvent> removed = new CompletableFuture<>();
+        CompletableFuture<AnalysisProgressEvent> kept = new CompletableFuture<>();
+        Registration registration = broadcaster.register(DOCUMENT_ID, removed::complete);
+        broadcaster.register(DOCUMENT_ID, kept::complete);
+        registration.remove();
+
+        broadcaster.broadcast(new AnalysisProgressEvent(DOCUMENT_ID, "docling", 1, 1, null, null, "IN_PROGRESS"));
+
+        // Listeners run in registration order on one thread, so the removed one would have run first
+        kept.get(5, TimeUnit.SECONDS);
+        assertThat(removed).isNotDone();
+    }
+}
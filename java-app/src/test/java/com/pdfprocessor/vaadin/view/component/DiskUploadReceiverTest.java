@@ -0,0 +1,102 @@
+package com.pdfprocessor.vaadin.view.component;
+
+import com.pdfprocessor.service.FileService;
+import com.pdfprocessor.service.FileService.StagedUpload;
+import com.pdfprocessor.util.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DiskUploadReceiverTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    Path stagingDir;
+
+    private FileService fileService;
+    private DiskUploadReceiver receiver;
+
+    @BeforeEach
+    void createReceiver() throws IOException {
+        fileService = mock(FileService.class);
+        when(fileService.createStagingFile()).thenAnswer(invocation -> Files.createTempFile(stagingDir, "upload-", ".part"));
+        receiver = new DiskUploadReceiver(fileService);
+    }
+
+    @Test
+    void stagesUploadWithItsContentHash() throws IOException {
+        upload("report.pdf", 2 * MB);
+
+        StagedUpload staged = receiver.takeStagedUpload("report.pdf");
+
+        assertThat(staged.originalFileName()).isEqualTo("report.pdf");
+        assertThat(staged.mimeType()).isEqualTo("application/pdf");
+        assertThat(Files.size(staged.stagedFile())).isEqualTo(2L * MB);
+        assertThat(staged.contentHash()).isEqualTo(FileUtils.sha256Hex(staged.stagedFile()));
+        // Handed over: the receiver no longer knows about it
+        assertThat(receiver.takeStagedUpload("report.pdf")).isNull();
+    }
+
+    @Test
+    void discardsTheStagingFileOfAFailedUpload() throws IOException {
+        upload("broken.pdf", MB);
+        Path stagedFile;
+        try (var files = Files.list(stagingDir)) {
+            stagedFile = files.findFirst().orElseThrow();
+        }
+
+        receiver.discard();
+
+        verify(fileService).discardStagedFile(stagedFile);
+        assertThat(receiver.takeStagedUpload("broken.pdf")).isNull();
+    }
+
+    @Test
+    void peakHeapDoesNotGrowWithFileSize() throws IOException {
+        long smallPeak = upload("small.pdf", 4 * MB);
+        receiver.takeStagedUpload("small.pdf");
+        long largePeak = upload("large.pdf", 64 * MB);
+        receiver.takeStagedUpload("large.pdf");
+
+        // Buffering the upload in memory would add the 60 MB difference in file size
+        assertThat(largePeak - smallPeak).isLessThan(16L * MB);
+    }
+
+    /**
+     * Stream random bytes through the receiver in 64 KB writes, as Vaadin does, sampling the live heap after
+     * a GC every 4 MB
+     *
+     * @return peak heap use seen during the upload
+     */
+    private long upload(String fileName, int size) throws IOException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        byte[] buffer = new byte[64 * 1024];
+        new Random(size).nextBytes(buffer);
+        long peak = 0;
+        try (OutputStream out = receiver.receiveUpload(fileName, "application/pdf")) {
+            for (int written = 0; written < size; written += buffer.length) {
+                if (written % (4 * MB) == 0) {
+                    System.gc();
+                    peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+                }
+                out.write(buffer);
+            }
+        }
+        System.gc();
+        return Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+    }
+}
@@ -0,0 +1,93 @@
+package com.pdfprocessor.vaadin.view.component;
+
+import com.pdfprocessor.repository.DocumentSummary;
+import com.pdfprocessor.service.FileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentPagerTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    private FileService fileService;
+    private FileListComponent.DocumentPager pager;
+
+    @BeforeEach
+    void createPager() {
+        fileService = mock(FileService.class);
+        when(fileService.getDocumentPage(any(), anyInt())).thenAnswer(invocation -> page(invocation.getArgument(1)));
+        when(fileService.getDocumentsAtOffset(anyInt(), anyInt())).thenAnswer(invocation -> page(invocation.getArgument(1)));
+        pager = new FileListComponent.DocumentPager(fileService);
+    }
+
+    @Test
+    void scrollingOnUsesTheKeysetOfThePreviousRange() {
+        for (int offset = 0; offset < 20 * PAGE_SIZE; offset += PAGE_SIZE) {
+            assertThat(pager.fetch(offset, PAGE_SIZE)).hasSize(PAGE_SIZE);
+        }
+
+        verify(fileService, never()).getDocumentsAtOffset(anyInt(), anyInt());
+    }
+
+    @Test
+    void keepsOnlyCursorsNearTheCurrentRange() {
+        for (int offset = 0; offset < 100_000; offset += PAGE_SIZE) {
+            pager.fetch(offset, PAGE_SIZE);
+        }
+
+        assertThat(pager.cursorCount()).isLessThanOrEqualTo(2 * FileListComponent.DocumentPager.CURSOR_WINDOW / PAGE_SIZE + 1);
+        verify(fileService, never()).getDocumentsAtOffset(anyInt(), anyInt());
+    }
+
+    @Test
+    void jumpsFarAwayFallBackToAnOffsetQuery() {
+        pager.fetch(0, PAGE_SIZE);
+        pager.fetch(50_000, PAGE_SIZE);
+
+        verify(fileService).getDocumentsAtOffset(50_000, PAGE_SIZE);
+    }
+
+    private static List<DocumentSummary> page(int size) {
+        List<DocumentSummary> page = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            page.add(new Summary(UUID.randomUUID(), LocalDateTime.now()));
+        }
+        return page;
+    }
+
+    private record Summary(UUID getId, LocalDateTime getUploadDate) implements DocumentSummary {
+
+        @Override
+        public String getFileName() {
+            return "document.pdf";
+        }
+
+        @Override
+        public Long getFileSize() {
+            return 0L;
+        }
+
+        @Override
+        public String getDeepdoctectionStatus() {
+            return null;
+        }
+
+        @Override
+        public String getDoclingStatus() {
+            return null;
+        }
+    }
+}
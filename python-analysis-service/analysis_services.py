@@ -31,9 +31,11 @@ class AnalysisOrchestrator:
         document_id: str, 
         analysis_type: str, 
         file_path: str,
-        progress_callback: Optional[Callable[[int, str], None]] = None
+        progress_callback: Optional[Callable[[int, str], None]] = None,
+        page_callback: Optional[Callable[[Dict], None]] = None
     ) -> List[Dict]:
-        """Analyze document using specified analysis type"""
+        """Analyze document using specified analysis type.
+        page_callback is called with each page result as soon as its image is written."""
         
         logger.info(f"Starting {analysis_type} analysis for document: {document_id}")
         
@@ -42,9 +44,9 @@ class AnalysisOrchestrator:
         
         # Process document based on type
         if analysis_type == "deepdoctection":
-            results = await self._analyze_with_deepdoctection(document_id, file_path, progress_callback)
+            results = await self._analyze_with_deepdoctection(document_id, file_path, progress_callback, page_callback)
         elif analysis_type == "docling":
-            results = await self._analyze_with_docling(document_id, file_path, progress_callback)
+            results = await self._analyze_with_docling(document_id, file_path, progress_callback, page_callback)
         else:
             raise ValueError(f"Unsupported analysis type: {analysis_type}")
         
@@ -54,7 +56,7 @@ class AnalysisOrchestrator:
         logger.info(f"Analysis completed for document: {document_id}")
         return results
 
-    async def _analyze_with_deepdoctection(self, document_id: str, file_path: str, progress_callback) -> List[Dict]:
+    async def _analyze_with_deepdoctection(self, document_id: str, file_path: str, progress_callback, page_callback=None) -> List[Dict]:
         """Analyze with deepdoctection"""
         if self.deepdoctection_analyzer is None:
             self.deepdoctection_analyzer = self._init_deepdoctection()
@@ -69,11 +71,12 @@ class AnalysisOrchestrator:
             self._process_deepdoctection_sync, 
             document_id, 
             file_path, 
-            progress_callback
+            progress_callback,
+            page_callback
         )
         return results
     
-    async def _analyze_with_docling(self, document_id: str, file_path: str, progress_callback) -> List[Dict]:
+    async def _analyze_with_docling(self, document_id: str, file_path: str, progress_callback, page_callback=None) -> List[Dict]:
         """Analyze with docling"""
         if self.docling_converter is None:
             self.docling_converter = self._init_docling()
@@ -88,7 +91,8 @@ class AnalysisOrchestrator:
             self._process_docling_sync, 
             document_id, 
             file_path, 
-            progress_callback
+            progress_callback,
+            page_callback
         )
         return results
 
@@ -176,7 +180,7 @@ class AnalysisOrchestrator:
             logger.error(f"Failed to initialize docling converter: {e}")
             raise
     
-    def _process_deepdoctection_sync(self, document_id: str, file_path: str, progress_callback) -> List[Dict]:
+    def _process_deepdoctection_sync(self, document_id: str, file_path: str, progress_callback, page_callback=None) -> List[Dict]:
         """Synchronous deepdoctection processing"""
         results = []
         
@@ -204,11 +208,15 @@ class AnalysisOrchestrator:
                 result_file = result_dir / f"page_{display_page_number}.png"
                 self._create_deepdoctection_visualization(dp, str(result_file))
                 
-                results.append({
+                page_result = {
                     "page_number": display_page_number,  # Use 1-based page number for Java
                     "file_path": str(result_file),
                     "analysis_type": "deepdoctection"
-                })
+                }
+                results.append(page_result)
+                
+                if page_callback:
+                    page_callback(page_result)
             
             # Create PDF from all images
             if progress_callback:
@@ -225,7 +233,7 @@ class AnalysisOrchestrator:
             logger.error(f"Error in deepdoctection processing: {e}")
             raise
     
-    def _process_docling_sync(self, document_id: str, file_path: str, progress_callback) -> List[Dict]:
+    def _process_docling_sync(self, document_id: str, file_path: str, progress_callback, page_callback=None) -> List[Dict]:
         """Synchronous docling processing"""
         results = []
         
@@ -235,6 +243,7 @@ class AnalysisOrchestrator:
             if progress_callback:
                 progress_callback(70, "Processing analysis results")
             
+            total_pages = len(result.pages)
             for page_no, page in enumerate(result.pages, 1):
                 if progress_callback:
                     progress_callback(60 + (page_no * 5), f"Processing page {page_no}")
@@ -245,11 +254,16 @@ class AnalysisOrchestrator:
                 result_file = result_dir / f"page_{page_no}.png"
                 self._create_docling_visualization(page, str(result_file))
                 
-                results.append({
+                page_result = {
                     "page_number": page_no,
                     "file_path": str(result_file),
-                    "analysis_type": "docling"
-                })
+                    "analysis_type": "docling",
+                    "total_pages": total_pages
+                }
+                results.append(page_result)
+                
+                if page_callback:
+                    page_callback(page_result)
             
             logger.info(f"Docling analysis completed: {len(results)} pages processed")
             return results
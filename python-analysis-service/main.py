@@ -3,13 +3,16 @@ PDF Analysis Service using FastAPI
 Integrates deepdoctection and docling for PDF layout analysis
 """
 
+import asyncio
 import logging
 import os
+import threading
 from datetime import datetime
 from pathlib import Path
-from typing import List, Dict
+from typing import List, Dict, Optional
 
 import aiofiles
+import httpx
 from fastapi import FastAPI, HTTPException, BackgroundTasks
 from fastapi.middleware.cors import CORSMiddleware
 from pydantic import BaseModel
@@ -39,6 +42,9 @@ app.add_middleware(
 
 # Configuration
 ANALYSIS_RESULTS_DIR = os.getenv("ANALYSIS_RESULTS_DIR", "../java-app/uploads/analysis")
+CALLBACK_TIMEOUT_SECONDS = float(os.getenv("CALLBACK_TIMEOUT_SECONDS", "10"))
+# Must stay well below the Java side's lease TTL (analysis.timeout, 300 s by default)
+HEARTBEAT_INTERVAL_SECONDS = float(os.getenv("HEARTBEAT_INTERVAL_SECONDS", "30"))
 
 # Ensure results directory exists
 os.makedirs(ANALYSIS_RESULTS_DIR, exist_ok=True)
@@ -49,6 +55,74 @@ class AnalysisRequest(BaseModel):
     analysis_type: str
     file_path: str
     file_name: str
+    callback_url: Optional[str] = None
+    fencing_token: Optional[int] = None
+    callback_secret: Optional[str] = None
+
+
+class RunSuperseded(Exception):
+    """The Java side handed this analysis to a newer run; this one must stop"""
+
+
+class ResultCallback:
+    """Reports finished pages, heartbeats and the final outcome back to the Java application"""
+
+    def __init__(self, request: AnalysisRequest):
+        self.request = request
+        self.superseded = threading.Event()
+        headers = {"X-Analysis-Callback-Secret": request.callback_secret} if request.callback_secret else None
+        self.client = httpx.Client(timeout=CALLBACK_TIMEOUT_SECONDS, headers=headers) if request.callback_url else None
+
+    def page_finished(self, page_result: Dict):
+        """Called from the analysis worker thread after each page image is written.
+        Raises RunSuperseded to abort the run once the Java side has rejected it."""
+        if self.superseded.is_set():
+            raise RunSuperseded()
+        # Absolute (not symlink-resolved), so the Java side can check it against its results directory
+        file_path = Path(os.path.abspath(page_result["file_path"]))
+        self._post({
+            "event": "page",
+            "page_number": page_result["page_number"],
+            "file_path": str(file_path),
+            "file_size": file_path.stat().st_size if file_path.exists() else None,
+            "total_pages": page_result.get("total_pages")
+        })
+        if self.superseded.is_set():
+            raise RunSuperseded()
+
+    def heartbeat(self):
+        """Keeps the run's lease alive while the engine works on pages that are not reported yet"""
+        self._post({"event": "heartbeat"})
+
+    def finished(self, total_pages: int):
+        self._post({"event": "completed", "total_pages": total_pages})
+
+    def failed(self, message: str):
+        self._post({"event": "failed", "message": message})
+
+    def close(self):
+        if self.client:
+            self.client.close()
+
+    def _post(self, payload: Dict):
+        if not self.client or self.superseded.is_set():
+            return
+        payload["document_id"] = self.request.document_id
+        payload["analysis_type"] = self.request.analysis_type
+        if self.request.fencing_token is not None:
+            # Lets the Java side reject reports from a run that has been superseded
+            payload["fencing_token"] = self.request.fencing_token
+        try:
+            response = self.client.post(self.request.callback_url, json=payload)
+            if response.status_code == 409:
+                # Our fencing token is outdated: another run owns this analysis now
+                logger.warning(f"Analysis of document {self.request.document_id} was superseded, stopping this run")
+                self.superseded.set()
+                return
+            response.raise_for_status()
+        except httpx.HTTPError as e:
+            # The Java side can still pick the page up through /results
+            logger.warning(f"Result callback failed for document {self.request.document_id}: {e}")
 
 
 @app.get("/health")
@@ -87,8 +161,17 @@ async def start_analysis(request: AnalysisRequest, background_tasks: BackgroundT
     }
 
 
+async def send_heartbeats(callback: ResultCallback):
+    """Report that the run is alive until it ends or is superseded"""
+    while not callback.superseded.is_set():
+        await asyncio.sleep(HEARTBEAT_INTERVAL_SECONDS)
+        await asyncio.to_thread(callback.heartbeat)
+
+
 async def process_analysis_simple(request: AnalysisRequest):
     """Process PDF analysis in background - basit versiyon"""
+    callback = ResultCallback(request)
+    heartbeat = asyncio.create_task(send_heartbeats(callback)) if request.callback_url else None
     try:
         logger.info(f"Processing analysis for document: {request.document_id}, type: {request.analysis_type}")
         
@@ -113,16 +196,25 @@ async def process_analysis_simple(request: AnalysisRequest):
             raise FileNotFoundError(f"PDF file not found: {file_path}")
         
         # Process analysis
-        await orchestrator.analyze_document(
+        results = await orchestrator.analyze_document(
             document_id=request.document_id,
             analysis_type=request.analysis_type,
-            file_path=file_path
+            file_path=file_path,
+            page_callback=callback.page_finished
         )
         
         logger.info(f"Analysis completed for document: {request.document_id}")
+        await asyncio.to_thread(callback.finished, len(results))
         
+    except RunSuperseded:
+        logger.info(f"Stopped superseded analysis of document {request.document_id}")
     except Exception as e:
         logger.error(f"Error processing analysis for document {request.document_id}: {str(e)}")
+        await asyncio.to_thread(callback.failed, str(e))
+    finally:
+        if heartbeat:
+            heartbeat.cancel()
+        callback.close()
 
 
 async def get_analysis_results(document_id: str, analysis_type: str) -> List[Dict]:
@@ -139,7 +231,7 @@ async def get_analysis_results(document_id: str, analysis_type: str) -> List[Dic
             
             results.append({
                 "page_number": page_number,
-                "file_path": str(file_path),
+                "file_path": os.path.abspath(file_path),
                 "file_size": file_path.stat().st_size,
                 "created_at": datetime.fromtimestamp(file_path.stat().st_ctime).isoformat()
             })